@@ -0,0 +1,37 @@
+#!/bin/sh
+# Builds the headless engine as its own artifact, with a class data sharing archive for fast cold starts.
+# Only src/com/chess/engine is compiled, so the build fails if the engine ever comes to depend on the GUI.
+#
+#     scripts/engine-core.sh [--benchmark]
+#
+# Output in build/engine-core:
+#     engine-core.jar      the engine packages, runs the UCI engine with java -jar
+#     lib/                 its Guava dependency, found through the jar's Class-Path
+#     engine-core.jsa      the AppCDS archive, used with -XX:SharedArchiveFile=engine-core.jsa
+# The archive belongs to the JDK that made it, build it again with the JDK that runs the workers.
+set -e
+
+cd "$(dirname "$0")/.."
+GUAVA=guava-31.1-jre.jar
+OUT=build/engine-core
+
+rm -rf "$OUT"
+mkdir -p "$OUT/classes" "$OUT/lib"
+cp "lib/$GUAVA" "$OUT/lib/"
+
+javac -encoding UTF-8 -d "$OUT/classes" -cp "lib/$GUAVA" $(find src/com/chess/engine -name '*.java')
+printf 'Main-Class: com.chess.engine.uci.UciEngine\nClass-Path: lib/%s\n' "$GUAVA" > "$OUT/manifest.txt"
+jar --create --file "$OUT/engine-core.jar" --manifest "$OUT/manifest.txt" -C "$OUT/classes" .
+rm -rf "$OUT/classes" "$OUT/manifest.txt"
+
+# a short session that goes through the protocol, a search and the bench positions,
+# every class it loads is written to the archive when the JVM exits
+printf 'uci\nisready\nbench 3\nposition startpos moves e2e4 e7e5\ngo depth 3\nquit\n' |
+    java -XX:ArchiveClassesAtExit="$OUT/engine-core.jsa" -jar "$OUT/engine-core.jar" > /dev/null
+
+echo "built $OUT/engine-core.jar and $OUT/engine-core.jsa"
+echo "run with: java -XX:SharedArchiveFile=$OUT/engine-core.jsa -jar $OUT/engine-core.jar"
+
+if [ "$1" = "--benchmark" ]; then
+    java -cp "$OUT/engine-core.jar" com.chess.engine.uci.StartupBenchmark 10 "$OUT/engine-core.jsa"
+fi
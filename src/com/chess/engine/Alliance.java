@@ -1,5 +1,6 @@
 package com.chess.engine;
 
+import com.chess.engine.board.BoardUtils;
 import com.chess.engine.player.BlackPlayer;
 import com.chess.engine.player.Player;
 import com.chess.engine.player.WhitePlayer;
@@ -21,7 +22,17 @@ public enum Alliance {
         public boolean isBlack() {
             return false;
         }
+
+        @Override
+        public boolean isPawnPromotionSquare(final int position) {
+            return BoardUtils.EIGHTH_RANK[position];
+        }
         
+        @Override
+        public Alliance getOpponent() {
+            return BLACK;
+        }
+
         @Override
         public Player choosePlayer(final WhitePlayer whitePlayer, final BlackPlayer blackPlayer) {
             return whitePlayer;
@@ -45,6 +56,16 @@ public enum Alliance {
             return true;
         }
 
+        @Override
+        public boolean isPawnPromotionSquare(final int position) {
+            return BoardUtils.FIRST_RANK[position];
+        }
+
+        @Override
+        public Alliance getOpponent() {
+            return WHITE;
+        }
+
         @Override
         public Player choosePlayer(final WhitePlayer whitePlayer, final BlackPlayer blackPlayer) {
             return blackPlayer;
@@ -54,6 +75,8 @@ public enum Alliance {
     public abstract int getDirection();
     public abstract boolean isWhite();    
     public abstract boolean isBlack();
+    public abstract boolean isPawnPromotionSquare(int position);
+    public abstract Alliance getOpponent();
     public abstract Player choosePlayer(WhitePlayer whitePlayer, BlackPlayer blackPlayer);
     
 }
\ No newline at end of file
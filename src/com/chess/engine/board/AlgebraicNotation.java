@@ -0,0 +1,169 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.MoveTransition;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Standard algebraic notation as EPD and PGN files write it: Nf3, exd5, Rad1, e8=Q, O-O.
+// Check and annotation marks are ignored when reading and added when writing.
+// Also the long algebraic form of the UCI protocol, from and to square: e2e4, e7e8q, e1g1 for castling.
+public final class AlgebraicNotation {
+
+    private static final Pattern SAN = Pattern.compile("([NBRQK])?([a-h])?([1-8])?x?([a-h][1-8])(?:=?([NBRQ]))?");
+
+    private AlgebraicNotation() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    // the legal move the text names, or the null move when there is none or it is ambiguous
+    public static Move parseSan(final Board board, final String san) {
+        final String text = san.replaceAll("[+#!?]", "").replace('0', 'O');
+        Move found = Move.MoveFactory.getNullMove();
+        for(final Move move : board.currentPlayer().getLegalMoves()) {
+            if(matches(move, text) && board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                if(found != Move.MoveFactory.getNullMove()) {
+                    return Move.MoveFactory.getNullMove();
+                }
+                found = move;
+            }
+        }
+        return found;
+    }
+
+    // the legal move from and to the squares, or the null move
+    public static Move parseLongAlgebraic(final Board board, final String text) {
+        final int moveCode = encodeLongAlgebraic(text);
+        if(moveCode < 0) {
+            return Move.MoveFactory.getNullMove();
+        }
+        final Move move = Move.MoveFactory.decodeMove(board, moveCode);
+        if(move == Move.MoveFactory.getNullMove() || !board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+            return Move.MoveFactory.getNullMove();
+        }
+        return move;
+    }
+
+    // the move packed as MoveFactory.encodeMove does it, without looking at a board, or -1 when the text is no move
+    public static int encodeLongAlgebraic(final String text) {
+        if(text.length() < 4 || text.length() > 5 || !isSquare(text, 0) || !isSquare(text, 2) ||
+           (text.length() == 5 && "nbrq".indexOf(text.charAt(4)) < 0)) {
+            return -1;
+        }
+        final int promotion = text.length() == 5 ? pieceType(Character.toUpperCase(text.charAt(4))).ordinal() + 1 : 0;
+        return BoardUtils.getCoordinateAtPosition(text.substring(0, 2)) |
+               BoardUtils.getCoordinateAtPosition(text.substring(2, 4)) << 6 |
+               promotion << 12;
+    }
+
+    public static String toLongAlgebraic(final Move move) {
+        final String text = BoardUtils.getPositionAtCoordinate(move.getCurrentCoordinate()) +
+                            BoardUtils.getPositionAtCoordinate(move.getDestinationCoordinate());
+        if(move instanceof Move.PawnPromotion) {
+            return text + ((Move.PawnPromotion) move).getPromotionPiece().getPieceType().toString().toLowerCase();
+        }
+        return text;
+    }
+
+    public static String toSan(final Board board, final Move move) {
+        final StringBuilder san = new StringBuilder();
+        if(move.isCastlingMove()) {
+            san.append(BoardUtils.getColumn(move.getDestinationCoordinate()) == 6 ? "O-O" : "O-O-O");
+        } else {
+            final Piece piece = move.getMovedPiece();
+            final String from = BoardUtils.getPositionAtCoordinate(move.getCurrentCoordinate());
+            if(piece.getPieceType() == Piece.PieceType.PAWN) {
+                if(move.isAttack()) {
+                    san.append(from.charAt(0));
+                }
+            } else {
+                san.append(piece.getPieceType());
+                san.append(disambiguation(board, move));
+            }
+            if(move.isAttack()) {
+                san.append('x');
+            }
+            san.append(BoardUtils.getPositionAtCoordinate(move.getDestinationCoordinate()));
+            if(move instanceof Move.PawnPromotion) {
+                san.append('=').append(((Move.PawnPromotion) move).getPromotionPiece().getPieceType());
+            }
+        }
+        final MoveTransition transition = board.currentPlayer().makeMove(move);
+        if(transition.getMoveStatus().isDone()) {
+            final Board after = transition.getTransitionBoard();
+            if(after.currentPlayer().isInCheckMate()) {
+                san.append('#');
+            } else if(after.currentPlayer().isInCheck()) {
+                san.append('+');
+            }
+        }
+        return san.toString();
+    }
+
+    // the file, the rank or both when another piece of the same type can reach the same square
+    private static String disambiguation(final Board board, final Move move) {
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for(final Move other : board.currentPlayer().getLegalMoves()) {
+            if(other.getDestinationCoordinate() != move.getDestinationCoordinate() ||
+               other.getCurrentCoordinate() == move.getCurrentCoordinate() ||
+               other.getMovedPiece().getPieceType() != move.getMovedPiece().getPieceType() ||
+               !board.currentPlayer().makeMove(other).getMoveStatus().isDone()) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= BoardUtils.getColumn(other.getCurrentCoordinate()) == BoardUtils.getColumn(move.getCurrentCoordinate());
+            sameRank |= BoardUtils.getRow(other.getCurrentCoordinate()) == BoardUtils.getRow(move.getCurrentCoordinate());
+        }
+        final String from = BoardUtils.getPositionAtCoordinate(move.getCurrentCoordinate());
+        if(!ambiguous) {
+            return "";
+        }
+        if(!sameFile) {
+            return from.substring(0, 1);
+        }
+        return sameRank ? from : from.substring(1);
+    }
+
+    private static boolean matches(final Move move, final String text) {
+        if(text.equals("O-O") || text.equals("O-O-O")) {
+            return move.isCastlingMove() &&
+                   BoardUtils.getColumn(move.getDestinationCoordinate()) == (text.length() == 3 ? 6 : 2);
+        }
+        final Matcher matcher = SAN.matcher(text);
+        if(!matcher.matches() || move.isCastlingMove()) {
+            return false;
+        }
+        final Piece.PieceType type = matcher.group(1) != null ? pieceType(matcher.group(1).charAt(0)) : Piece.PieceType.PAWN;
+        if(move.getMovedPiece().getPieceType() != type ||
+           move.getDestinationCoordinate() != BoardUtils.getCoordinateAtPosition(matcher.group(4))) {
+            return false;
+        }
+        final String from = BoardUtils.getPositionAtCoordinate(move.getCurrentCoordinate());
+        if((matcher.group(2) != null && from.charAt(0) != matcher.group(2).charAt(0)) ||
+           (matcher.group(3) != null && from.charAt(1) != matcher.group(3).charAt(0))) {
+            return false;
+        }
+        final boolean isPromotion = move instanceof Move.PawnPromotion;
+        if(matcher.group(5) == null) {
+            return !isPromotion;
+        }
+        return isPromotion && ((Move.PawnPromotion) move).getPromotionPiece().getPieceType() == pieceType(matcher.group(5).charAt(0));
+    }
+
+    private static boolean isSquare(final String text, final int index) {
+        return text.charAt(index) >= 'a' && text.charAt(index) <= 'h' &&
+               text.charAt(index + 1) >= '1' && text.charAt(index + 1) <= '8';
+    }
+
+    private static Piece.PieceType pieceType(final char letter) {
+        for(final Piece.PieceType type : Piece.PieceType.values()) {
+            if(type.toString().charAt(0) == letter) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown piece " + letter);
+    }
+}
@@ -0,0 +1,117 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+
+// Finds the pieces attacking a square straight from the tiles, without generating or executing any move.
+// Squares in the 'ignored' bitmask (bit n for tile n) count as empty, so sliding pieces see through them.
+public final class Attacks {
+
+    private static final int[] PAWN_OFFSETS = {7, 9};
+    private static final int[] KNIGHT_OFFSETS = {-17, -15, -10, -6, 6, 10, 15, 17};
+    private static final int[] KING_OFFSETS = {-9, -8, -7, -1, 1, 7, 8, 9};
+    private static final int[] DIAGONAL_DIRECTIONS = {-9, -7, 7, 9};
+    private static final int[] ORTHOGONAL_DIRECTIONS = {-8, -1, 1, 8};
+
+    private Attacks() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static boolean isSquareAttacked(final Board board,
+                                           final int square,
+                                           final Alliance attacker) {
+        return leastValuableAttacker(board, square, attacker, 0L) >= 0;
+    }
+
+    // the tile of the cheapest piece of the attacking alliance that attacks the square, or -1
+    public static int leastValuableAttacker(final Board board,
+                                            final int square,
+                                            final Alliance attacker,
+                                            final long ignored) {
+        // a pawn attacks one step forward diagonally, so it stands one step back from the square
+        for(final int offset : PAWN_OFFSETS) {
+            final int candidate = square - attacker.getDirection() * offset;
+            if(isStep(square, candidate, 1) && isAttacker(board, candidate, attacker, ignored, Piece.PieceType.PAWN)) {
+                return candidate;
+            }
+        }
+        for(final int offset : KNIGHT_OFFSETS) {
+            final int candidate = square + offset;
+            if(isStep(square, candidate, 2) && isAttacker(board, candidate, attacker, ignored, Piece.PieceType.KNIGHT)) {
+                return candidate;
+            }
+        }
+        int bestSquare = -1;
+        int bestValue = Integer.MAX_VALUE;
+        for(final int direction : DIAGONAL_DIRECTIONS) {
+            final int candidate = firstPieceOnRay(board, square, direction, ignored);
+            if(candidate >= 0) {
+                final Piece piece = board.getPiece(candidate);
+                if(piece.getPieceAlliance() == attacker && isDiagonalSlider(piece.getPieceType()) &&
+                   piece.getPieceType().getPieceValue() < bestValue) {
+                    bestSquare = candidate;
+                    bestValue = piece.getPieceType().getPieceValue();
+                }
+            }
+        }
+        for(final int direction : ORTHOGONAL_DIRECTIONS) {
+            final int candidate = firstPieceOnRay(board, square, direction, ignored);
+            if(candidate >= 0) {
+                final Piece piece = board.getPiece(candidate);
+                if(piece.getPieceAlliance() == attacker && isOrthogonalSlider(piece.getPieceType()) &&
+                   piece.getPieceType().getPieceValue() < bestValue) {
+                    bestSquare = candidate;
+                    bestValue = piece.getPieceType().getPieceValue();
+                }
+            }
+        }
+        if(bestSquare >= 0) {
+            return bestSquare;
+        }
+        for(final int offset : KING_OFFSETS) {
+            final int candidate = square + offset;
+            if(isStep(square, candidate, 1) && isAttacker(board, candidate, attacker, ignored, Piece.PieceType.KING)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private static int firstPieceOnRay(final Board board,
+                                       final int square,
+                                       final int direction,
+                                       final long ignored) {
+        int current = square;
+        while(isStep(current, current + direction, 1)) {
+            current += direction;
+            if(board.getTile(current).isTileOccupied() && (ignored & (1L << current)) == 0) {
+                return current;
+            }
+        }
+        return -1;
+    }
+
+    // on the board and at most maxFileDistance files away, so the step did not wrap around an edge
+    private static boolean isStep(final int from, final int to, final int maxFileDistance) {
+        return BoardUtils.isValidTileCoordinate(to) &&
+               Math.abs(from % BoardUtils.NUM_TILES_PER_ROW - to % BoardUtils.NUM_TILES_PER_ROW) <= maxFileDistance;
+    }
+
+    private static boolean isAttacker(final Board board,
+                                      final int square,
+                                      final Alliance attacker,
+                                      final long ignored,
+                                      final Piece.PieceType pieceType) {
+        final Piece piece = board.getPiece(square);
+        return piece != null && (ignored & (1L << square)) == 0 &&
+               piece.getPieceAlliance() == attacker && piece.getPieceType() == pieceType;
+    }
+
+    private static boolean isDiagonalSlider(final Piece.PieceType pieceType) {
+        return pieceType == Piece.PieceType.BISHOP || pieceType == Piece.PieceType.QUEEN;
+    }
+
+    private static boolean isOrthogonalSlider(final Piece.PieceType pieceType) {
+        return pieceType == Piece.PieceType.ROOK || pieceType == Piece.PieceType.QUEEN;
+    }
+}
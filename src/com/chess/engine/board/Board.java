@@ -1,6 +1,7 @@
 package com.chess.engine.board;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.metrics.EngineMetrics;
 import com.chess.engine.pieces.*;
 import com.chess.engine.player.BlackPlayer;
 import com.chess.engine.player.Player;
@@ -12,17 +13,30 @@ import java.util.*;
 
 public class Board {
 
-    private final List<Tile> gameBoard;
+    private static final int MAX_PIECES_PER_SIDE = 16;
+
+    // every board is built on one thread, so each thread generates into the same buffer
+    private static final ThreadLocal<MoveBuffer> GENERATION_BUFFER = ThreadLocal.withInitial(MoveBuffer::new);
+
+    private final Tile[] gameBoard;
     private final Collection<Piece> whitePieces;
     private final Collection<Piece> blackPieces;
 
     private final WhitePlayer whitePlayer; // why is it unused? Because it's a private field you can't access it from outside the class
     private final BlackPlayer blackPlayer;
     private final Player currentPlayer;
+    private final Pawn enPassantPawn;
+    private final int halfMoveClock;
+    private final long zobristHash;
+    private final long pawnHash;
     private Move transitionMove;
+    // worked out on first use, a racing thread at worst works it out again
+    private volatile long[] legalDestinations;
 
     private Board(final Builder builder) {
+        final long constructionStart = EngineMetrics.ENABLED ? System.nanoTime() : 0L;
         this.gameBoard = createGameBoard(builder);
+        this.enPassantPawn = builder.enPassantPawn;
         this.whitePieces = calculateActivePieces(this.gameBoard, Alliance.WHITE);
         this.blackPieces = calculateActivePieces(this.gameBoard, Alliance.BLACK);
     
@@ -33,6 +47,12 @@ public class Board {
         this.blackPlayer = new BlackPlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
         this.currentPlayer = builder.nextMoveMaker.choosePlayer(this.whitePlayer, this.blackPlayer);
         this.transitionMove = builder.transitionMove != null ? builder.transitionMove : Move.MoveFactory.getNullMove();
+        this.halfMoveClock = builder.halfMoveClock;
+        this.zobristHash = Zobrist.hash(this);
+        this.pawnHash = builder.pawnHash;
+        if(EngineMetrics.ENABLED) {
+            EngineMetrics.boardConstructed(this.whitePieces.size() + this.blackPieces.size(), constructionStart);
+        }
     }
 
 
@@ -42,7 +62,7 @@ public class Board {
     public String toString() {
         final StringBuilder builder = new StringBuilder();
         for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            final String tileText = this.gameBoard.get(i).toString();
+            final String tileText = this.gameBoard[i].toString();
             builder.append(String.format("%3s", tileText));
             if((i + 1) % BoardUtils.NUM_TILES_PER_ROW == 0) {
                 builder.append("\n");
@@ -78,59 +98,130 @@ public class Board {
         return getTile(tileCoordinate).getPiece();
     }
 
+    public Pawn getEnPassantPawn() {
+        return this.enPassantPawn;
+    }
+
+    // moves since the last capture or pawn move, the fifty move rule counts these
+    public int getHalfMoveClock() {
+        return this.halfMoveClock;
+    }
+
+    public long getZobristHash() {
+        return this.zobristHash;
+    }
+
+    // the xor of the Zobrist keys of the pawns alone, it only changes on pawn moves and pawn captures
+    public long getPawnHash() {
+        return this.pawnHash;
+    }
+
+    // the castling rights still open, as Zobrist.WHITE_KING_SIDE | ... flags
+    public int getCastlingRights() {
+        int castlingRights = 0;
+        if(isUnmoved(60, Alliance.WHITE)) {
+            castlingRights |= isUnmoved(63, Alliance.WHITE) ? Zobrist.WHITE_KING_SIDE : 0;
+            castlingRights |= isUnmoved(56, Alliance.WHITE) ? Zobrist.WHITE_QUEEN_SIDE : 0;
+        }
+        if(isUnmoved(4, Alliance.BLACK)) {
+            castlingRights |= isUnmoved(7, Alliance.BLACK) ? Zobrist.BLACK_KING_SIDE : 0;
+            castlingRights |= isUnmoved(0, Alliance.BLACK) ? Zobrist.BLACK_QUEEN_SIDE : 0;
+        }
+        return castlingRights;
+    }
+
+    // the file of the pawn that can be taken en passant, or -1 when no pawn of the side to move is next to it
+    public int getEnPassantFile() {
+        if(this.enPassantPawn == null) {
+            return -1;
+        }
+        final int position = this.enPassantPawn.getPiecePosition();
+        final int file = position % BoardUtils.NUM_TILES_PER_ROW;
+        if((file > 0 && isCapturingPawn(position - 1)) ||
+           (file < BoardUtils.NUM_TILES_PER_ROW - 1 && isCapturingPawn(position + 1))) {
+            return file;
+        }
+        return -1;
+    }
+
+    private boolean isUnmoved(final int position, final Alliance alliance) {
+        final Piece piece = getPiece(position);
+        return piece != null && piece.getPieceAlliance() == alliance && piece.isFirstMove();
+    }
+
+    private boolean isCapturingPawn(final int position) {
+        final Piece piece = getPiece(position);
+        return piece != null && piece.getPieceType() == Piece.PieceType.PAWN &&
+               piece.getPieceAlliance() != this.enPassantPawn.getPieceAlliance();
+    }
+
+    // the squares the piece on fromSquare can move to, bit n for tile n, counting only moves that do not leave
+    // its king in check. 0 when it is not a piece of the side to move. The first call tries every move of
+    // the side to move once, for all its pieces, and later calls read the result
+    public long legalDestinations(final int fromSquare) {
+        long[] destinations = this.legalDestinations;
+        if(destinations == null) {
+            destinations = new long[BoardUtils.NUM_TILES];
+            for(final Move move : this.currentPlayer.getLegalMoves()) {
+                if(this.currentPlayer.makeMove(move).getMoveStatus().isDone()) {
+                    destinations[move.getCurrentCoordinate()] |= 1L << move.getDestinationCoordinate();
+                }
+            }
+            this.legalDestinations = destinations;
+        }
+        return destinations[fromSquare];
+    }
+
     public Move getTransitionMove() {
         return this.transitionMove;
     }
 
     public Tile getTile(final int tileCoordinate) {
-        return gameBoard.get(tileCoordinate);
+        return this.gameBoard[tileCoordinate];
     }
 
-    private static List<Tile> createGameBoard(final Builder builder) {
-        final Tile[] tiles = new Tile[BoardUtils.NUM_TILES];
-        for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            tiles[i] = Tile.createTile(i, builder.boardConfig.get(i));
-        }
-        return ImmutableList.copyOf(tiles);
+    // the builder keeps building after this, so the board takes its own copy of the squares
+    private static Tile[] createGameBoard(final Builder builder) {
+        return builder.boardConfig.clone();
     }
 
     // Builder purpose is to create a board with the pieces in the right place
     public static Board createStandardBoard() { 
         final Builder builder = new Builder();     
 
-        builder.setPiece(new Rook(0, Alliance.BLACK));
-        builder.setPiece(new Knight(1, Alliance.BLACK));
-        builder.setPiece(new Bishop(2, Alliance.BLACK));
-        builder.setPiece(new Queen(3, Alliance.BLACK));
-        builder.setPiece(new King(4, Alliance.BLACK));
-        builder.setPiece(new Bishop(5, Alliance.BLACK));
-        builder.setPiece(new Knight(6, Alliance.BLACK));
-        builder.setPiece(new Rook(7, Alliance.BLACK));
-        builder.setPiece(new Pawn(8, Alliance.BLACK));
-        builder.setPiece(new Pawn(9, Alliance.BLACK));
-        builder.setPiece(new Pawn(10, Alliance.BLACK));
-        builder.setPiece(new Pawn(11, Alliance.BLACK));
-        builder.setPiece(new Pawn(12, Alliance.BLACK));
-        builder.setPiece(new Pawn(13, Alliance.BLACK));
-        builder.setPiece(new Pawn(14, Alliance.BLACK));
-        builder.setPiece(new Pawn(15, Alliance.BLACK));
-
-        builder.setPiece(new Pawn(48, Alliance.WHITE));
-        builder.setPiece(new Pawn(49, Alliance.WHITE));
-        builder.setPiece(new Pawn(50, Alliance.WHITE));
-        builder.setPiece(new Pawn(51, Alliance.WHITE));
-        builder.setPiece(new Pawn(52, Alliance.WHITE));
-        builder.setPiece(new Pawn(53, Alliance.WHITE));
-        builder.setPiece(new Pawn(54, Alliance.WHITE));
-        builder.setPiece(new Pawn(55, Alliance.WHITE));
-        builder.setPiece(new Rook(56, Alliance.WHITE));
-        builder.setPiece(new Knight(57, Alliance.WHITE));
-        builder.setPiece(new Bishop(58, Alliance.WHITE));
-        builder.setPiece(new Queen(59, Alliance.WHITE));
-        builder.setPiece(new King(60, Alliance.WHITE));
-        builder.setPiece(new Bishop(61, Alliance.WHITE));
-        builder.setPiece(new Knight(62, Alliance.WHITE));
-        builder.setPiece(new Rook(63, Alliance.WHITE));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.ROOK, Alliance.BLACK, 0, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KNIGHT, Alliance.BLACK, 1, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.BISHOP, Alliance.BLACK, 2, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.QUEEN, Alliance.BLACK, 3, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KING, Alliance.BLACK, 4, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.BISHOP, Alliance.BLACK, 5, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KNIGHT, Alliance.BLACK, 6, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.ROOK, Alliance.BLACK, 7, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 8, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 9, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 10, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 11, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 12, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 13, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 14, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.BLACK, 15, true));
+
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 48, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 49, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 50, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 51, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 52, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 53, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 54, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.PAWN, Alliance.WHITE, 55, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.ROOK, Alliance.WHITE, 56, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KNIGHT, Alliance.WHITE, 57, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.BISHOP, Alliance.WHITE, 58, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.QUEEN, Alliance.WHITE, 59, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KING, Alliance.WHITE, 60, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.BISHOP, Alliance.WHITE, 61, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.KNIGHT, Alliance.WHITE, 62, true));
+        builder.setPiece(Piece.createPiece(Piece.PieceType.ROOK, Alliance.WHITE, 63, true));
 
         // black to move
         builder.setMoveMaker(Alliance.BLACK);
@@ -141,17 +232,30 @@ public class Board {
 
     }
 
+    // writes the pseudo-legal moves of every piece of one side into the buffer, castling is left to the players
+    public void generateMoves(final Alliance alliance, final MoveBuffer moveBuffer) {
+        for(final Piece piece : alliance.isWhite() ? this.whitePieces : this.blackPieces) {
+            piece.generateMoves(this, moveBuffer);
+        }
+    }
+
     private Collection<Move> calculateLegalMoves(final Collection<Piece> pieces) {
-        final Collection<Move> legalMoves = new ArrayList<>();
+        final MoveBuffer moveBuffer = GENERATION_BUFFER.get();
+        moveBuffer.clear();
         for(final Piece piece : pieces) {
-            legalMoves.addAll(piece.calculateLegalMoves(this));
+            final long generationStart = EngineMetrics.ENABLED ? System.nanoTime() : 0L;
+            final int generatedBefore = moveBuffer.size();
+            piece.generateMoves(this, moveBuffer);
+            if(EngineMetrics.ENABLED) {
+                EngineMetrics.legalMovesCalculated(piece.getPieceType(), moveBuffer.size() - generatedBefore, generationStart);
+            }
         }
-        return ImmutableList.copyOf(legalMoves);
+        return Move.MoveFactory.createMoves(this, moveBuffer);
     }
 
-    private static Collection<Piece> calculateActivePieces(final Collection<Tile> gameBoard,
+    private static Collection<Piece> calculateActivePieces(final Tile[] gameBoard,
                                                            final Alliance alliance) {
-        final List<Piece> activePieces = new ArrayList<>();
+        final ImmutableList.Builder<Piece> activePieces = ImmutableList.builderWithExpectedSize(MAX_PIECES_PER_SIDE);
         for(final Tile tile : gameBoard) {
             if(tile.isTileOccupied()) {
                 final Piece piece = tile.getPiece();
@@ -160,23 +264,57 @@ public class Board {
                 }
             }
         }
-        return ImmutableList.copyOf(activePieces);
+        return activePieces.build();
     }
 
     public static class Builder {
 
-        Map<Integer, Piece> boardConfig;
+        final Tile[] boardConfig;
         Alliance nextMoveMaker;
         Pawn enPassantPawn;
         Move transitionMove;
+        int halfMoveClock;
+        // kept up to date as pawns are put on and taken off squares
+        long pawnHash;
+
+        public Builder() {
+            this.boardConfig = new Tile[BoardUtils.NUM_TILES];
+            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                this.boardConfig[i] = Tile.createTile(i, null);
+            }
+        }
+
+        private Builder(final Tile[] boardConfig, final long pawnHash) {
+            this.boardConfig = boardConfig;
+            this.pawnHash = pawnHash;
+        }
+
+        // starts from the squares of an existing board, so a move only has to change the squares it touches.
+        // the side to move, en passant pawn, half move clock and transition move are not copied
+        public static Builder from(final Board board) {
+            return new Builder(board.gameBoard.clone(), board.pawnHash);
+        }
 
-        public Builder() { this.boardConfig = new HashMap<>(); }
-        
         public Builder setPiece(final Piece piece) {
-            this.boardConfig.put(piece.getPiecePosition(), piece);
+            updatePawnHash(this.boardConfig[piece.getPiecePosition()].getPiece());
+            updatePawnHash(piece);
+            this.boardConfig[piece.getPiecePosition()] = Tile.createTile(piece.getPiecePosition(), piece);
+            return this;
+        }
+
+        public Builder removePiece(final int tileCoordinate) {
+            updatePawnHash(this.boardConfig[tileCoordinate].getPiece());
+            this.boardConfig[tileCoordinate] = Tile.createTile(tileCoordinate, null);
             return this;
         }
 
+        // xor a pawn coming onto or leaving a square in or out of the pawn hash
+        private void updatePawnHash(final Piece piece) {
+            if(piece != null && piece.getPieceType() == Piece.PieceType.PAWN) {
+                this.pawnHash ^= Zobrist.pieceKey(piece);
+            }
+        }
+
         public Builder setMoveMaker(final Alliance nextMoveMaker) {
             this.nextMoveMaker = nextMoveMaker;
             return this;
@@ -186,6 +324,11 @@ public class Board {
             this.enPassantPawn = enPassantPawn;
         }
 
+        public Builder setHalfMoveClock(final int halfMoveClock) {
+            this.halfMoveClock = halfMoveClock;
+            return this;
+        }
+
         public Builder setMoveTransition(final Move transitionMove) {
             this.transitionMove = transitionMove;
             return this;
@@ -20,6 +20,8 @@ package com.chess.engine.board;
     public static final int NUM_TILES = 64;
     public static final int NUM_TILES_PER_ROW = 8;
 
+    public static final String[] ALGEBRAIC_NOTATION = initializeAlgebraicNotation();
+
     private BoardUtils(){
         throw new RuntimeException("You cannot instantiate me!");
     }
@@ -42,7 +44,35 @@ package com.chess.engine.board;
         return row;
     }
 
+    // tile 0 is a8, tile 63 is h1
+    private static String[] initializeAlgebraicNotation() {
+        final String[] notation = new String[NUM_TILES];
+        for(int i = 0; i < NUM_TILES; i++) {
+            notation[i] = "" + (char)('a' + i % NUM_TILES_PER_ROW) + (NUM_TILES_PER_ROW - i / NUM_TILES_PER_ROW);
+        }
+        return notation;
+    }
+
+    // column 0 is the a file, row 0 is the eighth rank
+    public static int getColumn(final int coordinate) {
+        return coordinate % NUM_TILES_PER_ROW;
+    }
+
+    public static int getRow(final int coordinate) {
+        return coordinate / NUM_TILES_PER_ROW;
+    }
+
     public static boolean isValidTileCoordinate(final int coordinate){
-        return coordinate > 0 && coordinate < NUM_TILES;
-    }    
+        return coordinate >= 0 && coordinate < NUM_TILES;
+    }
+
+    public static String getPositionAtCoordinate(final int coordinate) {
+        return ALGEBRAIC_NOTATION[coordinate];
+    }
+
+    public static int getCoordinateAtPosition(final String position) {
+        final int column = position.charAt(0) - 'a';
+        final int row = NUM_TILES_PER_ROW - (position.charAt(1) - '0');
+        return row * NUM_TILES_PER_ROW + column;
+    }
 }
@@ -0,0 +1,155 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+
+// Reads and writes Forsyth-Edwards Notation. The board has no castling flags of its own, it reads them
+// off unmoved kings and rooks, so a FEN's castling field decides which kings and rooks start unmoved.
+// EPD lines work too: only the first four fields are needed, the clocks default to 0 and 1.
+public final class FenUtilities {
+
+    private FenUtilities() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static Board createGameFromFEN(final String fenString) {
+        final String[] fields = fenString.trim().split("\\s+");
+        if(fields.length < 4) {
+            throw new IllegalArgumentException("Not a FEN, it needs at least four fields: " + fenString);
+        }
+        final int castlingRights = castlingRights(fields[2]);
+        final Board.Builder builder = new Board.Builder();
+        int square = 0;
+        for(final char c : fields[0].toCharArray()) {
+            if(c == '/') {
+                continue;
+            }
+            if(Character.isDigit(c)) {
+                square += c - '0';
+                continue;
+            }
+            if(square >= BoardUtils.NUM_TILES) {
+                throw new IllegalArgumentException("Too many squares in " + fields[0]);
+            }
+            final Alliance alliance = Character.isUpperCase(c) ? Alliance.WHITE : Alliance.BLACK;
+            final Piece.PieceType type = pieceType(c);
+            builder.setPiece(Piece.createPiece(type, alliance, square, isFirstMove(type, alliance, square, castlingRights)));
+            square++;
+        }
+        if(square != BoardUtils.NUM_TILES) {
+            throw new IllegalArgumentException("Wrong number of squares in " + fields[0]);
+        }
+        final Alliance moveMaker;
+        switch(fields[1]) {
+            case "w": moveMaker = Alliance.WHITE; break;
+            case "b": moveMaker = Alliance.BLACK; break;
+            default: throw new IllegalArgumentException("Bad side to move " + fields[1]);
+        }
+        builder.setMoveMaker(moveMaker);
+        if(!fields[3].equals("-")) {
+            // the target square is behind the pawn that just jumped, on the side that just moved
+            final int target = BoardUtils.getCoordinateAtPosition(fields[3]);
+            final int pawnSquare = target - moveMaker.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+            final Piece pawn = builder.boardConfig[pawnSquare].getPiece();
+            if(pawn instanceof Pawn) {
+                builder.setEnPassantPawn((Pawn) pawn);
+            }
+        }
+        if(fields.length > 4 && isNumber(fields[4])) {
+            builder.setHalfMoveClock(Integer.parseInt(fields[4]));
+        }
+        return builder.build();
+    }
+
+    public static String createFENFromGame(final Board board) {
+        final StringBuilder fen = new StringBuilder();
+        for(int row = 0; row < BoardUtils.NUM_TILES_PER_ROW; row++) {
+            int empty = 0;
+            for(int file = 0; file < BoardUtils.NUM_TILES_PER_ROW; file++) {
+                final Piece piece = board.getPiece(row * BoardUtils.NUM_TILES_PER_ROW + file);
+                if(piece == null) {
+                    empty++;
+                    continue;
+                }
+                if(empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                final String name = piece.getPieceType().toString();
+                fen.append(piece.getPieceAlliance().isWhite() ? name.toUpperCase() : name.toLowerCase());
+            }
+            if(empty > 0) {
+                fen.append(empty);
+            }
+            if(row < BoardUtils.NUM_TILES_PER_ROW - 1) {
+                fen.append('/');
+            }
+        }
+        fen.append(board.currentPlayer().getAlliance().isWhite() ? " w " : " b ");
+        final int castlingRights = board.getCastlingRights();
+        final StringBuilder castling = new StringBuilder();
+        if((castlingRights & Zobrist.WHITE_KING_SIDE) != 0) castling.append('K');
+        if((castlingRights & Zobrist.WHITE_QUEEN_SIDE) != 0) castling.append('Q');
+        if((castlingRights & Zobrist.BLACK_KING_SIDE) != 0) castling.append('k');
+        if((castlingRights & Zobrist.BLACK_QUEEN_SIDE) != 0) castling.append('q');
+        fen.append(castling.length() > 0 ? castling : "-").append(' ');
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if(enPassantPawn != null) {
+            final int target = enPassantPawn.getPiecePosition() - enPassantPawn.getPieceAlliance().getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+            fen.append(BoardUtils.getPositionAtCoordinate(target));
+        } else {
+            fen.append('-');
+        }
+        // the board does not count full moves
+        return fen.append(' ').append(board.getHalfMoveClock()).append(" 1").toString();
+    }
+
+    private static Piece.PieceType pieceType(final char c) {
+        switch(Character.toUpperCase(c)) {
+            case 'P': return Piece.PieceType.PAWN;
+            case 'N': return Piece.PieceType.KNIGHT;
+            case 'B': return Piece.PieceType.BISHOP;
+            case 'R': return Piece.PieceType.ROOK;
+            case 'Q': return Piece.PieceType.QUEEN;
+            case 'K': return Piece.PieceType.KING;
+            default: throw new IllegalArgumentException("Unknown piece " + c);
+        }
+    }
+
+    private static int castlingRights(final String castling) {
+        int castlingRights = 0;
+        castlingRights |= castling.indexOf('K') >= 0 ? Zobrist.WHITE_KING_SIDE : 0;
+        castlingRights |= castling.indexOf('Q') >= 0 ? Zobrist.WHITE_QUEEN_SIDE : 0;
+        castlingRights |= castling.indexOf('k') >= 0 ? Zobrist.BLACK_KING_SIDE : 0;
+        castlingRights |= castling.indexOf('q') >= 0 ? Zobrist.BLACK_QUEEN_SIDE : 0;
+        return castlingRights;
+    }
+
+    // pawns on their starting rank can still jump, kings and rooks are unmoved while their castling right stands.
+    // the rights are Zobrist.WHITE_KING_SIDE | ... flags
+    static boolean isFirstMove(final Piece.PieceType type,
+                               final Alliance alliance,
+                               final int square,
+                               final int castlingRights) {
+        final boolean white = alliance.isWhite();
+        switch(type) {
+            case PAWN:
+                return white ? BoardUtils.SECOND_RANK[square] : BoardUtils.SEVENTH_RANK[square];
+            case KING:
+                return white ? square == 60 && (castlingRights & (Zobrist.WHITE_KING_SIDE | Zobrist.WHITE_QUEEN_SIDE)) != 0
+                             : square == 4 && (castlingRights & (Zobrist.BLACK_KING_SIDE | Zobrist.BLACK_QUEEN_SIDE)) != 0;
+            case ROOK:
+                return (white && square == 63 && (castlingRights & Zobrist.WHITE_KING_SIDE) != 0) ||
+                       (white && square == 56 && (castlingRights & Zobrist.WHITE_QUEEN_SIDE) != 0) ||
+                       (!white && square == 7 && (castlingRights & Zobrist.BLACK_KING_SIDE) != 0) ||
+                       (!white && square == 0 && (castlingRights & Zobrist.BLACK_QUEEN_SIDE) != 0);
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isNumber(final String field) {
+        return !field.isEmpty() && field.chars().allMatch(Character::isDigit);
+    }
+}
@@ -0,0 +1,129 @@
+package com.chess.engine.board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The moves of a game with undo, redo and jump to any ply.
+// Every move is kept as one encoded int and only every CHECKPOINT_INTERVAL-th board is kept,
+// any other ply is rebuilt by replaying at most CHECKPOINT_INTERVAL - 1 moves from the checkpoint before it.
+// The hash of every position is kept too, so repetitions can be found without rebuilding anything.
+public final class GameHistory {
+
+    private static final int CHECKPOINT_INTERVAL = 16;
+
+    private int[] moves;
+    private long[] positionHashes;          // positionHashes[i] is the hash of the board after i moves
+    private int moveCount;
+    private final List<Board> checkpoints;  // checkpoints.get(i) is the board after i * CHECKPOINT_INTERVAL moves
+    private int currentPly;
+    private Board currentBoard;
+    private final PositionHistory positionHistory;  // the hashes up to the current ply
+    private final int earlierPositions;             // hashes below ply 0 in positionHistory
+
+    public GameHistory(final Board initialBoard) {
+        this(initialBoard, new long[0]);
+    }
+
+    // a game picked up at initialBoard, with the hashes of the positions before it, oldest first, so
+    // repetitions of them still count. Those since the last capture or pawn move are all that matter
+    public GameHistory(final Board initialBoard, final long[] earlierHashes) {
+        this.moves = new int[64];
+        this.positionHashes = new long[65];
+        this.positionHashes[0] = initialBoard.getZobristHash();
+        this.moveCount = 0;
+        this.checkpoints = new ArrayList<>();
+        this.checkpoints.add(initialBoard);
+        this.currentPly = 0;
+        this.currentBoard = initialBoard;
+        this.positionHistory = new PositionHistory();
+        for(final long hash : earlierHashes) {
+            this.positionHistory.push(hash);
+        }
+        this.positionHistory.push(initialBoard.getZobristHash());
+        this.earlierPositions = earlierHashes.length;
+    }
+
+    public Board getCurrentBoard() { return this.currentBoard; }
+
+    public int getCurrentPly() { return this.currentPly; }
+
+    public int size() { return this.moveCount; }
+
+    // the positions of the game up to the current ply, the last one being the current board
+    public PositionHistory getPositionHistory() { return this.positionHistory; }
+
+    public GameStatus getGameStatus() {
+        return GameStatus.of(this.currentBoard, this.positionHistory);
+    }
+
+    public boolean canUndo() { return this.currentPly > 0; }
+
+    public boolean canRedo() { return this.currentPly < this.moveCount; }
+
+    // records a move played on the current board, anything that could have been redone is dropped
+    public void recordMove(final Move move, final Board transitionBoard) {
+        truncate(this.currentPly);
+        if(this.moveCount == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+            this.positionHashes = Arrays.copyOf(this.positionHashes, this.moves.length + 1);
+        }
+        this.moves[this.moveCount++] = Move.MoveFactory.encodeMove(move);
+        this.positionHashes[this.moveCount] = transitionBoard.getZobristHash();
+        this.positionHistory.push(transitionBoard.getZobristHash());
+        if(this.moveCount % CHECKPOINT_INTERVAL == 0) {
+            this.checkpoints.add(transitionBoard);
+        }
+        this.currentPly = this.moveCount;
+        this.currentBoard = transitionBoard;
+    }
+
+    public Board undo() {
+        return canUndo() ? goToPly(this.currentPly - 1) : this.currentBoard;
+    }
+
+    public Board redo() {
+        return canRedo() ? goToPly(this.currentPly + 1) : this.currentBoard;
+    }
+
+    public Board goToPly(final int ply) {
+        if(ply < 0 || ply > this.moveCount) {
+            throw new IllegalArgumentException("No ply " + ply + " in a game of " + this.moveCount + " moves");
+        }
+        if(ply != this.currentPly) {
+            this.currentBoard = rebuild(ply);
+            this.currentPly = ply;
+            while(this.positionHistory.size() > this.earlierPositions + ply + 1) {
+                this.positionHistory.pop();
+            }
+            while(this.positionHistory.size() < this.earlierPositions + ply + 1) {
+                this.positionHistory.push(this.positionHashes[this.positionHistory.size() - this.earlierPositions]);
+            }
+        }
+        return this.currentBoard;
+    }
+
+    // the recorded moves were legal when they were played, so they are executed without checking again
+    private Board rebuild(final int ply) {
+        int replayedPly = (ply / CHECKPOINT_INTERVAL) * CHECKPOINT_INTERVAL;
+        Board board = this.checkpoints.get(ply / CHECKPOINT_INTERVAL);
+        if(this.currentPly <= ply && this.currentPly > replayedPly) {
+            replayedPly = this.currentPly;
+            board = this.currentBoard;
+        }
+        while(replayedPly < ply) {
+            board = Move.MoveFactory.decodeMove(board, this.moves[replayedPly++]).execute();
+        }
+        return board;
+    }
+
+    private void truncate(final int ply) {
+        this.moveCount = ply;
+        while(this.positionHistory.size() > this.earlierPositions + ply + 1) {
+            this.positionHistory.pop();
+        }
+        while((this.checkpoints.size() - 1) * CHECKPOINT_INTERVAL > ply) {
+            this.checkpoints.remove(this.checkpoints.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.chess.engine.board;
+
+public enum GameStatus {
+
+    IN_PROGRESS {
+        @Override
+        public boolean isGameOver() {
+            return false;
+        }
+
+        @Override
+        public boolean isDraw() {
+            return false;
+        }
+    },
+    CHECKMATE {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+
+        @Override
+        public boolean isDraw() {
+            return false;
+        }
+    },
+    STALEMATE {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+
+        @Override
+        public boolean isDraw() {
+            return true;
+        }
+    },
+    THREEFOLD_REPETITION {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+
+        @Override
+        public boolean isDraw() {
+            return true;
+        }
+    },
+    FIFTY_MOVE_RULE {
+        @Override
+        public boolean isGameOver() {
+            return true;
+        }
+
+        @Override
+        public boolean isDraw() {
+            return true;
+        }
+    };
+
+    public static final int FIFTY_MOVE_HALF_MOVES = 100;
+
+    public abstract boolean isGameOver();
+    public abstract boolean isDraw();
+
+    // the status of the last position of a game, history must end with that position
+    public static GameStatus of(final Board board, final PositionHistory history) {
+        if(board.currentPlayer().isInCheckMate()) {
+            return CHECKMATE;
+        }
+        if(board.currentPlayer().isInStaleMate()) {
+            return STALEMATE;
+        }
+        if(board.getHalfMoveClock() >= FIFTY_MOVE_HALF_MOVES) {
+            return FIFTY_MOVE_RULE;
+        }
+        if(history.countRepetitions(board.getHalfMoveClock()) >= 2) {
+            return THREEFOLD_REPETITION;
+        }
+        return IN_PROGRESS;
+    }
+}
@@ -4,6 +4,9 @@ import com.chess.engine.board.Board.Builder;
 import com.chess.engine.pieces.Pawn;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
 
 public abstract class Move {
 
@@ -68,21 +71,20 @@ public abstract class Move {
 
    
     public Board execute() {                                        // this method is used to execute the move
-        final Builder builder = new Builder();                      // Builder is a class that is used to build the board
-        for(final Piece piece : this.board.currentPlayer().getActivePieces()) { // getActivePieces() is a method of the class Player
-            if(!this.movedPiece.equals(piece)) {                    // if the piece that is moving is not the same as the piece that is being moved
-                builder.setPiece(piece);                            // then set the piece on the board
-            }                                        
-        }
-        for(final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()) {
-            builder.setPiece(piece);
-        }
-        
+        final Builder builder = Builder.from(this.board);           // starts from the current squares, only the move's squares change
+        builder.removePiece(this.movedPiece.getPiecePosition());    // the square the piece leaves
         builder.setPiece(this.movedPiece.movePiece(this));             // this is the piece that was moved
         builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance()); // it is used to set the next player
+        builder.setMoveTransition(this);
+        builder.setHalfMoveClock(nextHalfMoveClock());
         return builder.build();
     }
 
+    // captures and pawn moves cannot be undone, so they restart the fifty move count
+    protected int nextHalfMoveClock() {
+        return isAttack() || this.movedPiece.getPieceType() == Piece.PieceType.PAWN ? 0 : this.board.getHalfMoveClock() + 1;
+    }
+
 
     public static class MajorMove extends Move {
 
@@ -93,21 +95,8 @@ public abstract class Move {
         }
 
         @Override
-        public Board execute() {
-            final Builder builder = new Builder();
-            for(final Piece piece : this.board.currentPlayer().getActivePieces()) {
-                if(!this.movedPiece.equals(piece)) {                    // todo hashcode and equals for pieces
-                    builder.setPiece(piece);                            // equals() is a method of the class Object
-                }                                                       // equals is used to compare objects for equality
-            }
-    
-            for(final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()) {
-                builder.setPiece(piece);
-            }
-            
-            builder.setPiece(this.movedPiece.movePiece(this ));             // this is the piece that was moved
-            builder.setMoveMaker(this.board.currentPlayer().getAlliance()); // it is used to set the piece on the board which was moved
-            return builder.build();                                         // builder.setMoveMaker takes the alliance of the player 
+        public String toString() {
+            return this.movedPiece.getPieceType().toString() + BoardUtils.getPositionAtCoordinate(this.destinationCoordinate);
         }
     }
 
@@ -143,13 +132,28 @@ public abstract class Move {
         }
 
         @Override
-        public Board execute() { return null;}
+        public Board execute() {
+            final Builder builder = Builder.from(this.board);
+            builder.removePiece(this.movedPiece.getPiecePosition());
+            builder.removePiece(this.attackedPiece.getPiecePosition());  // the captured piece leaves the board, en passant too
+            builder.setPiece(this.movedPiece.movePiece(this));
+            builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setMoveTransition(this);
+            builder.setHalfMoveClock(nextHalfMoveClock());
+            return builder.build();
+        }
 
         @Override
         public boolean isAttack() {return true;}
 
         @Override
         public Piece getAttackedPiece() { return this.attackedPiece;}
+
+        @Override
+        public String toString() {
+            return this.movedPiece.getPieceType().toString() + "x" +
+                   BoardUtils.getPositionAtCoordinate(this.destinationCoordinate);
+        }
     }
 
 
@@ -162,8 +166,8 @@ public abstract class Move {
         }
 
         @Override
-        public Board execute() {
-            throw new UnsupportedOperationException("Unimplemented method 'execute");
+        public String toString() {
+            return BoardUtils.getPositionAtCoordinate(this.destinationCoordinate);
         }
     }
     
@@ -174,6 +178,12 @@ public abstract class Move {
                                 final Piece attackedPiece) {
             super(board, movedPiece, destinationCoordinate, attackedPiece);
         }
+
+        @Override
+        public String toString() {
+            return BoardUtils.getPositionAtCoordinate(this.movedPiece.getPiecePosition()).substring(0, 1) + "x" +
+                   BoardUtils.getPositionAtCoordinate(this.destinationCoordinate);
+        }
     }
 
     public static class PawnEnPassantAttackMove extends PawnAttackMove {
@@ -196,23 +206,78 @@ public abstract class Move {
 
         @Override
         public Board execute() {
-            final Builder builder = new Builder();
-            for(final Piece piece : this.board.currentPlayer().getActivePieces()) {
-                if(!this.movedPiece.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            for(final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()) {
-                builder.setPiece(piece); // for each piece in the opponent's active pieces set the piece on the board
-            }
+            final Builder builder = Builder.from(this.board);
+            builder.removePiece(this.movedPiece.getPiecePosition());
             // recording the move of opponent's pawn that was jumped over to be able to capture it en passant
             // so it can be captured by next player´s pawn in the next move
             final Pawn movedPawn = (Pawn)this.movedPiece.movePiece(this);
             builder.setPiece(movedPawn);
             builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setMoveTransition(this);
+            builder.setHalfMoveClock(nextHalfMoveClock());
             return builder.build(); 
         }
+
+        @Override
+        public String toString() {
+            return BoardUtils.getPositionAtCoordinate(this.destinationCoordinate);
+        }
+    }
+
+    // wraps the pawn move (or pawn capture) that reaches the last rank and swaps the pawn for the promotion piece
+    public static final class PawnPromotion extends Move {
+
+        final Move decoratedMove;
+        final Piece promotionPiece;
+
+        public PawnPromotion(final Move decoratedMove,
+                             final Piece promotionPiece) {
+            super(decoratedMove.getBoard(), decoratedMove.getMovedPiece(), decoratedMove.getDestinationCoordinate());
+            this.decoratedMove = decoratedMove;
+            this.promotionPiece = promotionPiece;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.decoratedMove.hashCode() + 31 * this.promotionPiece.getPieceType().hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if(this == other) {
+                return true;
+            }
+            if(!(other instanceof final PawnPromotion otherPromotion)) {
+                return false;
+            }
+            return this.decoratedMove.equals(otherPromotion.decoratedMove) &&
+                   this.promotionPiece.getPieceType() == otherPromotion.promotionPiece.getPieceType();
+        }
+
+        @Override
+        public Board execute() {
+            final Builder builder = Builder.from(this.board);
+            builder.removePiece(this.movedPiece.getPiecePosition());
+            builder.setPiece(this.promotionPiece);                  // also replaces a captured piece
+            builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setMoveTransition(this);
+            builder.setHalfMoveClock(nextHalfMoveClock());
+            return builder.build();
+        }
+
+        @Override
+        public boolean isAttack() { return this.decoratedMove.isAttack(); }
+
+        @Override
+        public Piece getAttackedPiece() { return this.decoratedMove.getAttackedPiece(); }
+
+        public Piece getPromotionPiece() { return this.promotionPiece; }
+
+        @Override
+        public String toString() {
+            return this.decoratedMove.toString() + "=" + this.promotionPiece.getPieceType().toString();
+        }
     }
     
 
@@ -245,20 +310,14 @@ public abstract class Move {
 
         @Override
         public Board execute() {
-            
-            final Builder builder = new Builder();
-            for(final Piece piece : this.board.currentPlayer().getActivePieces()) {
-                if(!this.movedPiece.equals(piece) && !this.castleRook.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            for(final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()) {
-                builder.setPiece(piece); // for each piece in the opponent's active pieces set the piece on the board
-            }
-            // todo look into the first move on the king side castle
+            final Builder builder = Builder.from(this.board);
+            builder.removePiece(this.movedPiece.getPiecePosition());
+            builder.removePiece(this.castleRookStart);
             builder.setPiece(this.movedPiece.movePiece(this));
-            builder.setPiece(new Rook(this.castleRookDestination, this.castleRook.getPieceAlliance()));
+            builder.setPiece(Piece.createPiece(Piece.PieceType.ROOK, this.castleRook.getPieceAlliance(), this.castleRookDestination, false));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setMoveTransition(this);
+            builder.setHalfMoveClock(nextHalfMoveClock());
             return builder.build();
         }
 
@@ -342,6 +401,72 @@ public abstract class Move {
             }
             return NULL_MOVE;
         }
+
+        // turns a move written by Piece.generateMoves back into a Move on the board it was generated on
+        public static Move createMove(final Board board, final int moveCode) {
+            final int currentCoordinate = MoveBuffer.source(moveCode);
+            final int destinationCoordinate = MoveBuffer.destination(moveCode);
+            final Piece movedPiece = board.getPiece(currentCoordinate);
+            final Move move;
+            switch(MoveBuffer.kind(moveCode)) {
+                case MoveBuffer.CAPTURE:
+                    return new AttackMove(board, movedPiece, destinationCoordinate, board.getPiece(destinationCoordinate));
+                case MoveBuffer.PAWN_MOVE:
+                    move = new PawnMove(board, movedPiece, destinationCoordinate);
+                    break;
+                case MoveBuffer.PAWN_JUMP:
+                    return new PawnJump(board, movedPiece, destinationCoordinate);
+                case MoveBuffer.PAWN_CAPTURE:
+                    move = new PawnAttackMove(board, movedPiece, destinationCoordinate, board.getPiece(destinationCoordinate));
+                    break;
+                case MoveBuffer.EN_PASSANT:
+                    return new PawnEnPassantAttackMove(board, movedPiece, destinationCoordinate, board.getEnPassantPawn());
+                case MoveBuffer.KING_SIDE_CASTLE:
+                    return new KingSideCastleMove(board, movedPiece, destinationCoordinate,
+                            (Rook) board.getPiece(destinationCoordinate + 1), destinationCoordinate + 1, destinationCoordinate - 1);
+                case MoveBuffer.QUEEN_SIDE_CASTLE:
+                    return new QueenSideCastleMove(board, movedPiece, destinationCoordinate,
+                            (Rook) board.getPiece(destinationCoordinate - 2), destinationCoordinate - 2, destinationCoordinate + 1);
+                default:
+                    return new MajorMove(board, movedPiece, destinationCoordinate);
+            }
+            final Piece.PieceType promotion = MoveBuffer.promotion(moveCode);
+            return promotion != null ?
+                    new PawnPromotion(move, Piece.createPiece(promotion, movedPiece.getPieceAlliance(), destinationCoordinate, false)) :
+                    move;
+        }
+
+        public static Collection<Move> createMoves(final Board board, final MoveBuffer moveBuffer) {
+            final ImmutableList.Builder<Move> moves = ImmutableList.builderWithExpectedSize(moveBuffer.size());
+            for(int i = 0; i < moveBuffer.size(); i++) {
+                moves.add(createMove(board, moveBuffer.get(i)));
+            }
+            return moves.build();
+        }
+
+        // packs a move into one int: source in bits 0-5, destination in bits 6-11 and
+        // the promotion piece type (ordinal + 1, 0 for none) in bits 12-14
+        public static int encodeMove(final Move move) {
+            final int promotion = move instanceof PawnPromotion ?
+                    ((PawnPromotion) move).getPromotionPiece().getPieceType().ordinal() + 1 : 0;
+            return move.getCurrentCoordinate() |
+                   move.getDestinationCoordinate() << 6 |
+                   promotion << 12;
+        }
+
+        // finds the move of the side to play that matches an encoded move, or the null move
+        public static Move decodeMove(final Board board, final int encodedMove) {
+            final int currentCoordinate = encodedMove & 63;
+            final int destinationCoordinate = (encodedMove >>> 6) & 63;
+            for(final Move move : board.currentPlayer().getLegalMoves()) {
+                if(move.getCurrentCoordinate() == currentCoordinate &&
+                   move.getDestinationCoordinate() == destinationCoordinate &&
+                   encodeMove(move) == encodedMove) {
+                    return move;
+                }
+            }
+            return NULL_MOVE;
+        }
     }
 }
 
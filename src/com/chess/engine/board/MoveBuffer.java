@@ -0,0 +1,90 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece;
+
+import java.util.Arrays;
+
+// A reusable list of moves packed into ints, filled by Piece.generateMoves without allocating.
+// Bits 0-14 are the same as Move.MoveFactory.encodeMove (source, destination, promotion piece type + 1),
+// bits 15-17 say what kind of move it is so Move.MoveFactory.createMove can turn it back into a Move.
+public final class MoveBuffer {
+
+    public static final int QUIET = 0;
+    public static final int CAPTURE = 1;
+    public static final int PAWN_MOVE = 2;
+    public static final int PAWN_JUMP = 3;
+    public static final int PAWN_CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int KING_SIDE_CASTLE = 6;
+    public static final int QUEEN_SIDE_CASTLE = 7;
+
+    // more than any position has pseudo-legal moves
+    private static final int DEFAULT_CAPACITY = 256;
+    // values() copies the array on every call
+    private static final Piece.PieceType[] PIECE_TYPES = Piece.PieceType.values();
+
+    private int[] moves;
+    private int size;
+
+    public MoveBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveBuffer(final int capacity) {
+        this.moves = new int[capacity];
+        this.size = 0;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int get(final int index) {
+        return this.moves[index];
+    }
+
+    public void add(final int moveCode) {
+        if(this.size == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.size * 2);
+        }
+        this.moves[this.size++] = moveCode;
+    }
+
+    public void add(final int source, final int destination, final int kind) {
+        add(encode(source, destination, null, kind));
+    }
+
+    public static int encode(final int source,
+                             final int destination,
+                             final Piece.PieceType promotion,
+                             final int kind) {
+        return source | destination << 6 | (promotion != null ? promotion.ordinal() + 1 : 0) << 12 | kind << 15;
+    }
+
+    public static int source(final int moveCode) {
+        return moveCode & 63;
+    }
+
+    public static int destination(final int moveCode) {
+        return (moveCode >>> 6) & 63;
+    }
+
+    // the piece type a pawn promotes to, or null
+    public static Piece.PieceType promotion(final int moveCode) {
+        final int promotion = (moveCode >>> 12) & 7;
+        return promotion != 0 ? PIECE_TYPES[promotion - 1] : null;
+    }
+
+    public static int kind(final int moveCode) {
+        return (moveCode >>> 15) & 7;
+    }
+
+    public static boolean isCapture(final int moveCode) {
+        final int kind = kind(moveCode);
+        return kind == CAPTURE || kind == PAWN_CAPTURE || kind == EN_PASSANT;
+    }
+}
@@ -0,0 +1,111 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+
+// A position in a fixed SIZE bytes, for files and caches that hold many of them, where a FEN costs
+// two to three times the space and a parse. Everything FenUtilities keeps is kept:
+//     0 - 7     occupancy, bit n set when tile n holds a piece, tile 0 is a8
+//     8 - 23    a 4 bit code for each piece in tile order, high nibble first: the PieceType ordinal, plus 8 for
+//               black. A position has 32 pieces at most, unused nibbles are 0
+//     24        bit 0 set when black is to move, bits 1 - 4 the castling rights as Zobrist flags
+//     25        the file of the en passant pawn plus 1, 0 when there is none
+//     26 - 27   the half move clock
+// Like a FEN the castling rights decide which kings and rooks start unmoved, and pawns on their starting
+// rank are unmoved. Two positions that pack the same are the same position.
+public final class PackedPosition {
+
+    public static final int SIZE = 28;
+
+    private static final int PIECE_OFFSET = 8;
+    private static final int MAX_PIECES = 32;
+    private static final int FLAGS_OFFSET = 24;
+    private static final int EN_PASSANT_OFFSET = 25;
+    private static final int CLOCK_OFFSET = 26;
+    private static final int BLACK_CODE = 8;
+    private static final Piece.PieceType[] PIECE_TYPES = Piece.PieceType.values();
+
+    private PackedPosition() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static byte[] pack(final Board board) {
+        final byte[] packed = new byte[SIZE];
+        pack(board, packed, 0);
+        return packed;
+    }
+
+    // writes SIZE bytes at offset
+    public static void pack(final Board board, final byte[] out, final int offset) {
+        long occupancy = 0L;
+        int pieces = 0;
+        for(int i = PIECE_OFFSET; i < FLAGS_OFFSET; i++) {
+            out[offset + i] = 0;
+        }
+        for(int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final Piece piece = board.getPiece(square);
+            if(piece == null) {
+                continue;
+            }
+            if(pieces == MAX_PIECES) {
+                throw new IllegalArgumentException("More than " + MAX_PIECES + " pieces to pack");
+            }
+            occupancy |= 1L << square;
+            final int code = piece.getPieceType().ordinal() | (piece.getPieceAlliance().isWhite() ? 0 : BLACK_CODE);
+            out[offset + PIECE_OFFSET + (pieces >> 1)] |= (byte) ((pieces & 1) == 0 ? code << 4 : code);
+            pieces++;
+        }
+        for(int i = 0; i < Long.BYTES; i++) {
+            out[offset + i] = (byte) (occupancy >>> (56 - 8 * i));
+        }
+        out[offset + FLAGS_OFFSET] = (byte) ((board.currentPlayer().getAlliance().isWhite() ? 0 : 1) |
+                                             board.getCastlingRights() << 1);
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        out[offset + EN_PASSANT_OFFSET] = (byte) (enPassantPawn != null ?
+                enPassantPawn.getPiecePosition() % BoardUtils.NUM_TILES_PER_ROW + 1 : 0);
+        final int halfMoveClock = Math.min(board.getHalfMoveClock(), 0xFFFF);
+        out[offset + CLOCK_OFFSET] = (byte) (halfMoveClock >>> 8);
+        out[offset + CLOCK_OFFSET + 1] = (byte) halfMoveClock;
+    }
+
+    // a builder set up with the packed position, to build as it is or to change first
+    public static Board.Builder unpack(final byte[] in, final int offset) {
+        long occupancy = 0L;
+        for(int i = 0; i < Long.BYTES; i++) {
+            occupancy = occupancy << 8 | (in[offset + i] & 0xFF);
+        }
+        final int flags = in[offset + FLAGS_OFFSET];
+        final Alliance moveMaker = (flags & 1) == 0 ? Alliance.WHITE : Alliance.BLACK;
+        final int castlingRights = (flags >> 1) & 0xF;
+        final Board.Builder builder = new Board.Builder();
+        int pieces = 0;
+        while(occupancy != 0L) {
+            final int square = Long.numberOfTrailingZeros(occupancy);
+            occupancy &= occupancy - 1;
+            final int packedPair = in[offset + PIECE_OFFSET + (pieces >> 1)];
+            final int code = ((pieces & 1) == 0 ? packedPair >> 4 : packedPair) & 0xF;
+            final Piece.PieceType type = PIECE_TYPES[code & (BLACK_CODE - 1)];
+            final Alliance alliance = (code & BLACK_CODE) == 0 ? Alliance.WHITE : Alliance.BLACK;
+            builder.setPiece(Piece.createPiece(type, alliance, square,
+                    FenUtilities.isFirstMove(type, alliance, square, castlingRights)));
+            pieces++;
+        }
+        builder.setMoveMaker(moveMaker);
+        final int enPassantFile = in[offset + EN_PASSANT_OFFSET] - 1;
+        if(enPassantFile >= 0) {
+            // the pawn that just jumped belongs to the side not to move, on its fourth rank
+            final int pawnSquare = (moveMaker.isWhite() ? 3 : 4) * BoardUtils.NUM_TILES_PER_ROW + enPassantFile;
+            final Piece pawn = builder.boardConfig[pawnSquare].getPiece();
+            if(pawn instanceof Pawn) {
+                builder.setEnPassantPawn((Pawn) pawn);
+            }
+        }
+        builder.setHalfMoveClock((in[offset + CLOCK_OFFSET] & 0xFF) << 8 | (in[offset + CLOCK_OFFSET + 1] & 0xFF));
+        return builder;
+    }
+
+    public static Board unpackBoard(final byte[] in, final int offset) {
+        return unpack(in, offset).build();
+    }
+}
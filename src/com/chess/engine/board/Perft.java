@@ -0,0 +1,244 @@
+package com.chess.engine.board;
+
+import com.chess.engine.player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts the leaf positions of the legal move tree to a fixed depth, the standard check of a move generator.
+// The tree is split into fork/join tasks near the root, each child position of a split node its own task.
+// Subtree counts go into a table shared by all the tasks, keyed by the position's Zobrist hash and the
+// depth left, so a position reached by transposition is only counted once. The table can be turned off
+// when the point is to time move generation itself.
+//
+//     java com.chess.engine.board.Perft [fen | startpos] depth [--threads t] [--cache mb] [--divide]
+// --cache 0 turns the table off.
+public final class Perft {
+
+    public static final int DEFAULT_CACHE_MB = 64;
+    // with less left below a node forking costs more than it saves
+    private static final int MIN_SPLIT_DEPTH = 3;
+    // a depth 1 count is just the number of legal moves, not worth an entry
+    private static final int MIN_CACHED_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+    private final SubtreeCache cache;
+
+    // cacheMb 0 for no table
+    public Perft(final ForkJoinPool pool, final int cacheMb) {
+        this.pool = pool;
+        this.cache = cacheMb > 0 ? new SubtreeCache(cacheMb) : null;
+    }
+
+    public static void main(final String[] args) {
+        if(args.length < 1) {
+            System.err.println("usage: Perft [fen | startpos] depth [--threads t] [--cache mb] [--divide]");
+            System.exit(1);
+        }
+        final List<String> positional = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        int cacheMb = DEFAULT_CACHE_MB;
+        boolean divide = false;
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--cache":
+                    cacheMb = Integer.parseInt(args[++i]);
+                    break;
+                case "--divide":
+                    divide = true;
+                    break;
+                default:
+                    positional.add(args[i]);
+                    break;
+            }
+        }
+        final int depth = Integer.parseInt(positional.remove(positional.size() - 1));
+        final String fen = String.join(" ", positional);
+        final Board board = fen.isEmpty() || fen.equals("startpos") ?
+                Board.createStandardBoard() : FenUtilities.createGameFromFEN(fen);
+
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        final Perft perft = new Perft(pool, cacheMb);
+        final long start = System.nanoTime();
+        final long nodes;
+        if(divide) {
+            long total = 0;
+            for(final Map.Entry<Move, Long> entry : perft.divide(board, depth).entrySet()) {
+                System.out.println(AlgebraicNotation.toSan(board, entry.getKey()) + " " + entry.getValue());
+                total += entry.getValue();
+            }
+            nodes = total;
+        } else {
+            nodes = perft.count(board, depth);
+        }
+        final long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.printf("perft %d: %,d nodes in %d ms, %,d nodes/s, %d threads, %s%n", depth, nodes, millis,
+                nodes * 1000 / millis, threads, perft.cache != null ? perft.cache.toString() : "no cache");
+        pool.shutdown();
+    }
+
+    public long count(final Board board, final int depth) {
+        if(depth == 0) {
+            return 1;
+        }
+        return this.pool.invoke(new PerftTask(board, depth));
+    }
+
+    // the count below each legal move of the position, in move generation order
+    public Map<Move, Long> divide(final Board board, final int depth) {
+        final Map<Move, Long> counts = new LinkedHashMap<>();
+        final List<Move> moves = new ArrayList<>();
+        final List<PerftTask> tasks = new ArrayList<>();
+        for(final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()) {
+                moves.add(move);
+                tasks.add(new PerftTask(transition.getTransitionBoard(), depth - 1));
+            }
+        }
+        this.pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+        for(int i = 0; i < moves.size(); i++) {
+            counts.put(moves.get(i), tasks.get(i).join());
+        }
+        return counts;
+    }
+
+    private long countSerial(final Board board, final int depth) {
+        if(depth == 0) {
+            return 1;
+        }
+        final long cached = this.cache != null && depth >= MIN_CACHED_DEPTH ? this.cache.probe(board.getZobristHash(), depth) : -1;
+        if(cached >= 0) {
+            return cached;
+        }
+        long nodes = 0;
+        for(final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()) {
+                nodes += depth == 1 ? 1 : countSerial(transition.getTransitionBoard(), depth - 1);
+            }
+        }
+        if(this.cache != null && depth >= MIN_CACHED_DEPTH) {
+            this.cache.store(board.getZobristHash(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    private final class PerftTask extends RecursiveTask<Long> {
+
+        private final Board board;
+        private final int depth;
+
+        PerftTask(final Board board, final int depth) {
+            this.board = board;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if(this.depth < MIN_SPLIT_DEPTH) {
+                return countSerial(this.board, this.depth);
+            }
+            final SubtreeCache table = Perft.this.cache;
+            final long cached = table != null ? table.probe(this.board.getZobristHash(), this.depth) : -1;
+            if(cached >= 0) {
+                return cached;
+            }
+            final List<PerftTask> children = new ArrayList<>();
+            for(final Move move : this.board.currentPlayer().getLegalMoves()) {
+                final MoveTransition transition = this.board.currentPlayer().makeMove(move);
+                if(transition.getMoveStatus().isDone()) {
+                    children.add(new PerftTask(transition.getTransitionBoard(), this.depth - 1));
+                }
+            }
+            invokeAll(children);
+            long nodes = 0;
+            for(final PerftTask child : children) {
+                nodes += child.join();
+            }
+            if(table != null) {
+                table.store(this.board.getZobristHash(), this.depth, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    // Counts by hash and depth. Like the search's transposition table an entry is the count and the key
+    // xor the count, so a torn write from two threads reads as a miss and no locking is needed.
+    // The depth is mixed into the key, the same position at another depth is another entry.
+    private static final class SubtreeCache {
+
+        private static final int BYTES_PER_ENTRY = 16;
+        private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+        private final long[] keys;
+        private final long[] counts;
+        private final int mask;
+        private final LongAdder probes;
+        private final LongAdder hits;
+
+        SubtreeCache(final int sizeMb) {
+            final long requestedEntries = (long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY;
+            final int entries = Integer.highestOneBit((int) Math.max(1024, Math.min(requestedEntries, 1 << 28)));
+            this.keys = new long[entries];
+            this.counts = new long[entries];
+            this.mask = entries - 1;
+            this.probes = new LongAdder();
+            this.hits = new LongAdder();
+        }
+
+        // the count, or -1 when it is not in the table
+        long probe(final long zobristHash, final int depth) {
+            this.probes.increment();
+            final long key = key(zobristHash, depth);
+            final int index = index(key);
+            final long count = this.counts[index];
+            if(count != 0L && (this.keys[index] ^ count) == key) {
+                this.hits.increment();
+                return count;
+            }
+            return -1;
+        }
+
+        // always replaces, an empty subtree is not worth keeping
+        void store(final long zobristHash, final int depth, final long count) {
+            if(count == 0L) {
+                return;
+            }
+            final long key = key(zobristHash, depth);
+            final int index = index(key);
+            this.counts[index] = count;
+            this.keys[index] = key ^ count;
+        }
+
+        private static long key(final long zobristHash, final int depth) {
+            return zobristHash ^ (depth * DEPTH_KEY);
+        }
+
+        private int index(final long key) {
+            return (int) (key ^ key >>> 32) & this.mask;
+        }
+
+        @Override
+        public String toString() {
+            final long probeCount = this.probes.sum();
+            return String.format("cache %,d entries, %.1f%% hits", this.keys.length,
+                    probeCount == 0 ? 0.0 : 100.0 * this.hits.sum() / probeCount);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.chess.engine.board;
+
+import java.util.Arrays;
+
+// Stack of the Zobrist hashes of every position reached, along the game and then along the search path.
+// A repetition can only go back as far as the last capture or pawn move, so only those entries are looked at.
+// The optional filter counts the hashes on the stack by their low bits, when the bucket of a hash holds
+// nothing but the position itself it cannot have been seen before and the scan is skipped.
+public final class PositionHistory {
+
+    private static final int FILTER_SIZE = 1024;
+
+    private long[] hashes;
+    private int size;
+    private final int[] filter;
+
+    public PositionHistory() {
+        this(true);
+    }
+
+    public PositionHistory(final boolean useFilter) {
+        this.hashes = new long[256];
+        this.size = 0;
+        this.filter = useFilter ? new int[FILTER_SIZE] : null;
+    }
+
+    private PositionHistory(final PositionHistory other) {
+        this.hashes = Arrays.copyOf(other.hashes, other.hashes.length);
+        this.size = other.size;
+        this.filter = other.filter != null ? Arrays.copyOf(other.filter, FILTER_SIZE) : null;
+    }
+
+    // each search thread walks its own path, so it works on its own copy
+    public PositionHistory copy() {
+        return new PositionHistory(this);
+    }
+
+    public void push(final long hash) {
+        if(this.size == this.hashes.length) {
+            this.hashes = Arrays.copyOf(this.hashes, this.size * 2);
+        }
+        this.hashes[this.size++] = hash;
+        if(this.filter != null) {
+            this.filter[filterIndex(hash)]++;
+        }
+    }
+
+    public void pop() {
+        final long hash = this.hashes[--this.size];
+        if(this.filter != null) {
+            this.filter[filterIndex(hash)]--;
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    // the count hashes pushed last, oldest first
+    public long[] lastHashes(final int count) {
+        return Arrays.copyOfRange(this.hashes, this.size - count, this.size);
+    }
+
+    // how many times the position on top of the stack occurred before, with the same side to move
+    // and no capture or pawn move in between
+    public int countRepetitions(final int halfMoveClock) {
+        if(this.size == 0) {
+            return 0;
+        }
+        final long hash = this.hashes[this.size - 1];
+        if(this.filter != null && this.filter[filterIndex(hash)] <= 1) {
+            return 0;
+        }
+        final int oldest = Math.max(0, this.size - 1 - halfMoveClock);
+        int repetitions = 0;
+        for(int i = this.size - 5; i >= oldest; i -= 2) {
+            if(this.hashes[i] == hash) {
+                repetitions++;
+            }
+        }
+        return repetitions;
+    }
+
+    private static int filterIndex(final long hash) {
+        return (int) hash & (FILTER_SIZE - 1);
+    }
+}
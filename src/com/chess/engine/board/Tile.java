@@ -1,11 +1,7 @@
 package com.chess.engine.board;
 
+import com.chess.engine.Alliance;
 import com.chess.engine.pieces.Piece;
-import com.google.common.collect.ImmutableMap;
-
-import java.util.HashMap;
-import java.util.Map;
-
 
 
 // Abstract class Tile (parent class of EmptyTile and OccupiedTile)
@@ -14,24 +10,42 @@ public abstract class Tile {
     // Tile coordinate (0-63) // protected because it is used in the child classes
     protected final int tileCoordinate;
 
-    // Creates a map of all possible empty tiles
-    private static final Map<Integer, EmptyTile> EMPTY_TILES_CACHE = createAllPossibleEmptyTiles();
+    // Creates all possible empty tiles, indexed by tile coordinate
+    private static final EmptyTile[] EMPTY_TILES_CACHE = createAllPossibleEmptyTiles();
+
+    // Creates all possible occupied tiles, indexed by the id of the piece on them (a piece knows its own square)
+    private static final OccupiedTile[] OCCUPIED_TILES_CACHE = createAllPossibleOccupiedTiles();
 
     // private because it is only used in this class
     // Static because it is only called once
-    private static Map<Integer, EmptyTile> createAllPossibleEmptyTiles() {
-        final Map<Integer, EmptyTile> emptyTileMap = new HashMap<>();
+    private static EmptyTile[] createAllPossibleEmptyTiles() {
+        final EmptyTile[] emptyTiles = new EmptyTile[BoardUtils.NUM_TILES];
 
         for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            emptyTileMap.put(i, new EmptyTile(i));
+            emptyTiles[i] = new EmptyTile(i);
+        }
+        return emptyTiles;
+    }
+
+    private static OccupiedTile[] createAllPossibleOccupiedTiles() {
+        final OccupiedTile[] occupiedTiles = new OccupiedTile[Piece.NUM_PIECES];
+        for(final Alliance alliance : Alliance.values()) {
+            for(final Piece.PieceType pieceType : Piece.PieceType.values()) {
+                for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                    for(final boolean isFirstMove : new boolean[] {true, false}) {
+                        final Piece piece = Piece.createPiece(pieceType, alliance, i, isFirstMove);
+                        occupiedTiles[piece.getPieceId()] = new OccupiedTile(i, piece);
+                    }
+                }
+            }
         }
-        return ImmutableMap.copyOf(emptyTileMap);
+        return occupiedTiles;
     }
 
     // Returns the tile based on the tile coordinate and the piece on the tile
     public static Tile createTile(final int tileCoordinate, final Piece piece) {
-        return piece != null ? new OccupiedTile(tileCoordinate, piece) : EMPTY_TILES_CACHE.get(tileCoordinate);
-        // return piece != null ? // means if piece is not null then return new OccupiedTile(tileCoordinate, piece)   
+        return piece != null ? OCCUPIED_TILES_CACHE[piece.getPieceId()] : EMPTY_TILES_CACHE[tileCoordinate];
+        // return piece != null ? // means if piece is not null then return the cached OccupiedTile of that piece
     }
     // Constructor for Tile class
     private Tile(final int tileCoordinate) { 
@@ -0,0 +1,76 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+
+import java.util.Random;
+
+// Zobrist keys: one random number per (alliance, piece type, square), per castling right,
+// per en passant file and for black to move. A position hashes to the xor of its keys.
+public final class Zobrist {
+
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    private static final long[][][] PIECE_KEYS = new long[Alliance.values().length][Piece.PieceType.values().length][BoardUtils.NUM_TILES];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[BoardUtils.NUM_TILES_PER_ROW];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        // fixed seed, so hashes are the same from one run to the next
+        final Random random = new Random(0x5EED_C4E55L);
+        for(final long[][] allianceKeys : PIECE_KEYS) {
+            for(final long[] pieceKeys : allianceKeys) {
+                for(int i = 0; i < pieceKeys.length; i++) {
+                    pieceKeys[i] = random.nextLong();
+                }
+            }
+        }
+        for(int i = 1; i < CASTLING_KEYS.length; i++) {
+            CASTLING_KEYS[i] = random.nextLong();
+        }
+        for(int i = 0; i < EN_PASSANT_KEYS.length; i++) {
+            EN_PASSANT_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static long pieceKey(final Piece piece) {
+        return PIECE_KEYS[piece.getPieceAlliance().ordinal()][piece.getPieceType().ordinal()][piece.getPiecePosition()];
+    }
+
+    public static long castlingKey(final int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    public static long enPassantKey(final int file) {
+        return EN_PASSANT_KEYS[file];
+    }
+
+    public static long blackToMoveKey() {
+        return BLACK_TO_MOVE_KEY;
+    }
+
+    static long hash(final Board board) {
+        long hash = 0L;
+        for(final Piece piece : board.getAllPieces()) {
+            hash ^= pieceKey(piece);
+        }
+        hash ^= castlingKey(board.getCastlingRights());
+        final int enPassantFile = board.getEnPassantFile();
+        if(enPassantFile >= 0) {
+            hash ^= enPassantKey(enPassantFile);
+        }
+        if(board.currentPlayer().getAlliance().isBlack()) {
+            hash ^= blackToMoveKey();
+        }
+        return hash;
+    }
+}
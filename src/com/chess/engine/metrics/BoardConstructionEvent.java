@@ -0,0 +1,21 @@
+package com.chess.engine.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.chess.BoardConstruction")
+@Label("Board Construction")
+@Category({"Chess Engine", "Board"})
+@StackTrace(false)
+class BoardConstructionEvent extends jdk.jfr.Event {
+
+    @Label("Construction Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long constructionTime;
+
+    @Label("Pieces")
+    int pieceCount;
+}
@@ -0,0 +1,163 @@
+package com.chess.engine.metrics;
+
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.MoveStatus;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and Java Flight Recorder events for the hot paths of the engine.
+// Everything is off unless the JVM starts with -Dchess.metrics=true. ENABLED is a static final,
+// so with metrics off the JIT drops the guarded calls and they cost nothing.
+// Call sites look like:
+//     final long start = EngineMetrics.ENABLED ? System.nanoTime() : 0L;
+//     ...
+//     if(EngineMetrics.ENABLED) { EngineMetrics.boardConstructed(pieceCount, start); }
+public final class EngineMetrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("chess.metrics");
+
+    private static final LongAdder BOARDS_CONSTRUCTED = new LongAdder();
+    private static final LongAdder[] GENERATION_CALLS = createAdders(Piece.PieceType.values().length);
+    private static final LongAdder[] MOVES_GENERATED = createAdders(Piece.PieceType.values().length);
+    private static final LongAdder[] MOVES_MADE = createAdders(MoveStatus.values().length);
+    private static final LongAdder ESCAPE_MOVE_CHECKS = new LongAdder();
+
+    // one counter per Move subclass, found once per class and then read without a map lookup
+    private static final ConcurrentMap<String, LongAdder> MOVES_EXECUTED = new ConcurrentHashMap<>();
+    private static final ClassValue<LongAdder> MOVES_EXECUTED_BY_CLASS = new ClassValue<>() {
+        @Override
+        protected LongAdder computeValue(final Class<?> moveClass) {
+            return MOVES_EXECUTED.computeIfAbsent(moveClass.getSimpleName(), name -> new LongAdder());
+        }
+    };
+
+    private EngineMetrics() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static void boardConstructed(final int pieceCount, final long startNanos) {
+        BOARDS_CONSTRUCTED.increment();
+        final BoardConstructionEvent event = new BoardConstructionEvent();
+        if(event.isEnabled()) {
+            event.constructionTime = System.nanoTime() - startNanos;
+            event.pieceCount = pieceCount;
+            event.commit();
+        }
+    }
+
+    public static void legalMovesCalculated(final Piece.PieceType pieceType,
+                                            final int moveCount,
+                                            final long startNanos) {
+        GENERATION_CALLS[pieceType.ordinal()].increment();
+        MOVES_GENERATED[pieceType.ordinal()].add(moveCount);
+        final MoveGenerationEvent event = new MoveGenerationEvent();
+        if(event.isEnabled()) {
+            event.pieceType = pieceType.name();
+            event.moveCount = moveCount;
+            event.generationTime = System.nanoTime() - startNanos;
+            event.commit();
+        }
+    }
+
+    // one Move.execute made through Player.makeMove, with what makeMove made of it
+    public static void moveMade(final Move move,
+                                final MoveStatus moveStatus,
+                                final long startNanos) {
+        MOVES_MADE[moveStatus.ordinal()].increment();
+        if(moveStatus != MoveStatus.ILLEGAL_MOVE) {
+            MOVES_EXECUTED_BY_CLASS.get(move.getClass()).increment();
+        }
+        final MoveExecutionEvent event = new MoveExecutionEvent();
+        if(event.isEnabled()) {
+            event.moveType = move.getClass().getSimpleName();
+            event.moveStatus = moveStatus.name();
+            event.executionTime = System.nanoTime() - startNanos;
+            event.commit();
+        }
+    }
+
+    public static void escapeMovesChecked(final boolean hasEscapeMoves, final long startNanos) {
+        ESCAPE_MOVE_CHECKS.increment();
+        final EscapeMovesEvent event = new EscapeMovesEvent();
+        if(event.isEnabled()) {
+            event.hasEscapeMoves = hasEscapeMoves;
+            event.checkTime = System.nanoTime() - startNanos;
+            event.commit();
+        }
+    }
+
+    public static Snapshot snapshot() {
+        final Map<String, Long> counts = new TreeMap<>();
+        counts.put("board.constructed", BOARDS_CONSTRUCTED.sum());
+        for(final Piece.PieceType pieceType : Piece.PieceType.values()) {
+            counts.put("movegen.calls." + pieceType.name(), GENERATION_CALLS[pieceType.ordinal()].sum());
+            counts.put("movegen.moves." + pieceType.name(), MOVES_GENERATED[pieceType.ordinal()].sum());
+        }
+        for(final Map.Entry<String, LongAdder> entry : MOVES_EXECUTED.entrySet()) {
+            counts.put("execute." + entry.getKey(), entry.getValue().sum());
+        }
+        for(final MoveStatus moveStatus : MoveStatus.values()) {
+            counts.put("makemove." + moveStatus.name(), MOVES_MADE[moveStatus.ordinal()].sum());
+        }
+        counts.put("player.escapeMoveChecks", ESCAPE_MOVE_CHECKS.sum());
+        return new Snapshot(System.nanoTime(), counts);
+    }
+
+    // prints every counter as a rate per second over the time since the earlier snapshot, returns the new snapshot
+    public static Snapshot dumpRates(final Snapshot since, final PrintStream out) {
+        final Snapshot now = snapshot();
+        final double seconds = Math.max(1e-9, (now.nanoTime - since.nanoTime) / 1e9);
+        out.printf("engine metrics over %.2fs%n", seconds);
+        for(final Map.Entry<String, Long> entry : now.counts.entrySet()) {
+            final long delta = entry.getValue() - since.counts.getOrDefault(entry.getKey(), 0L);
+            if(delta != 0) {
+                out.printf("  %-36s %,14d  %,14.0f/s%n", entry.getKey(), delta, delta / seconds);
+            }
+        }
+        return now;
+    }
+
+    public static void reset() {
+        BOARDS_CONSTRUCTED.reset();
+        for(int i = 0; i < GENERATION_CALLS.length; i++) {
+            GENERATION_CALLS[i].reset();
+            MOVES_GENERATED[i].reset();
+        }
+        for(final LongAdder adder : MOVES_MADE) {
+            adder.reset();
+        }
+        for(final LongAdder adder : MOVES_EXECUTED.values()) {
+            adder.reset();
+        }
+        ESCAPE_MOVE_CHECKS.reset();
+    }
+
+    private static LongAdder[] createAdders(final int count) {
+        final LongAdder[] adders = new LongAdder[count];
+        for(int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    public static final class Snapshot {
+
+        private final long nanoTime;
+        private final Map<String, Long> counts;
+
+        private Snapshot(final long nanoTime, final Map<String, Long> counts) {
+            this.nanoTime = nanoTime;
+            this.counts = Collections.unmodifiableMap(counts);
+        }
+
+        public long getNanoTime() { return this.nanoTime; }
+        public Map<String, Long> getCounts() { return this.counts; }
+    }
+}
@@ -0,0 +1,21 @@
+package com.chess.engine.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.chess.EscapeMoves")
+@Label("Escape Moves Check")
+@Category({"Chess Engine", "Player"})
+@StackTrace(false)
+class EscapeMovesEvent extends jdk.jfr.Event {
+
+    @Label("Has Escape Moves")
+    boolean hasEscapeMoves;
+
+    @Label("Check Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long checkTime;
+}
@@ -0,0 +1,24 @@
+package com.chess.engine.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.chess.MoveExecution")
+@Label("Move Execution")
+@Category({"Chess Engine", "Move"})
+@StackTrace(false)
+class MoveExecutionEvent extends jdk.jfr.Event {
+
+    @Label("Move Type")
+    String moveType;
+
+    @Label("Move Status")
+    String moveStatus;
+
+    @Label("Execution Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long executionTime;
+}
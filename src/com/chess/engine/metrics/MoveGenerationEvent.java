@@ -0,0 +1,24 @@
+package com.chess.engine.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.chess.MoveGeneration")
+@Label("Move Generation")
+@Category({"Chess Engine", "Move Generation"})
+@StackTrace(false)
+class MoveGenerationEvent extends jdk.jfr.Event {
+
+    @Label("Piece Type")
+    String pieceType;
+
+    @Label("Moves Generated")
+    int moveCount;
+
+    @Label("Generation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long generationTime;
+}
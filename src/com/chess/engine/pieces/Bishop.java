@@ -4,13 +4,8 @@ import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Move.AttackMove;
+import com.chess.engine.board.MoveBuffer;
 import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 
 public class Bishop extends Piece{
 
@@ -18,22 +13,21 @@ public class Bishop extends Piece{
     // according to own king position, the bishop can move in 4 directions , -9 is move to the left and up,
     // -7 is move to the right and up, 7 is move to the left and down, 9 is move to the right and down
 
-    public Bishop(final int piecePosition, final Alliance pieceAlliance) {
-        super(PieceType.BISHOP, pieceAlliance, piecePosition, true);
+    Bishop(final Alliance pieceAlliance,
+           final int piecePosition,
+           final boolean isFirstMove) {
+        super(PieceType.BISHOP, pieceAlliance, piecePosition, isFirstMove);
     }
 
     @Override
-    public Collection<Move> calculateLegalMoves(final Board board) {
-        
-        final List<Move> legalMoves = new ArrayList<>();
-
+    public void generateMoves(final Board board, final MoveBuffer moveBuffer) {
         for(final int candidateCoordinateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
             int candidateDestinationCoordinate = this.piecePosition;
             while(BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
 
                 if(isFirstColumnExclusion(candidateDestinationCoordinate, candidateCoordinateOffset) ||     // if the bishop is on the first column and the candidateDestinationCoordinate is -9 or 7 then the move 
                     isEighthColumnExclusion(candidateDestinationCoordinate, candidateCoordinateOffset)) {
-                    continue;
+                    break;
                 }
 
                 candidateDestinationCoordinate += candidateCoordinateOffset;
@@ -42,22 +36,20 @@ public class Bishop extends Piece{
 
                     // if the tile is not occupied then do the following 
                     if(!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate)); // add a new move to the list of legal moves
+                        moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.QUIET); // add a new move to the list of legal moves
                     } else {
                         final Piece pieceAtDestination = candidateDestinationTile.getPiece();
                         final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
                         
                          // if the tile is occupied and is not the same alliance then do the following
                         if(this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(new AttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination)); // add a new move to the list of legal moves
+                            moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.CAPTURE); // add a new move to the list of legal moves
                         }
                         break;
                     }   
                 }
             }
         }
-
-        return ImmutableList.copyOf(legalMoves);
     }
 
 
@@ -65,7 +57,7 @@ public class Bishop extends Piece{
 
     @Override
     public Bishop movePiece(Move move) {
-        return new Bishop(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance());
+        return (Bishop) createPiece(PieceType.BISHOP, move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
     }
 
     @Override
@@ -80,10 +72,4 @@ public class Bishop extends Piece{
     private static boolean isEighthColumnExclusion(final int currentPosition, final int candidateOffset) {
         return BoardUtils.EIGHTH_COLUMN[currentPosition] && (candidateOffset == -7 || candidateOffset == 9);
     }
-
-    @Override
-    public int computeHashCode() {
-        // TODO Auto-generated method stub
-        return 0;
-    }
 }
@@ -5,57 +5,51 @@ import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Move.AttackMove;
+import com.chess.engine.board.MoveBuffer;
 import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 
 public class King extends Piece {
 
     private final static int[] CANDIDATE_MOVE_COORDINATE = { -9, -8, -7, -1, 1, 7, 8, 9 };
 
-    public King(final int piecePosition, final Alliance pieceAlliance) {
-        super(PieceType.KING,  pieceAlliance, piecePosition, true);
+    King(final Alliance pieceAlliance,
+         final int piecePosition,
+         final boolean isFirstMove) {
+        super(PieceType.KING, pieceAlliance, piecePosition, isFirstMove);
     }
 
     @Override
-    public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-
+    public void generateMoves(final Board board, final MoveBuffer moveBuffer) {
         for(final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATE) {
             final int candidateDestinationCoordinate = this.piecePosition + currentCandidateOffset;
 
             if(BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
                 final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
 
-                if(isFirstColumnExclusion(candidateDestinationCoordinate, currentCandidateOffset) ||
-                   isEighthColumnExclusion(candidateDestinationCoordinate, currentCandidateOffset)) {
+                if(isFirstColumnExclusion(this.piecePosition, currentCandidateOffset) ||
+                   isEighthColumnExclusion(this.piecePosition, currentCandidateOffset)) {
                     continue;
                 }
 
                 if(!candidateDestinationTile.isTileOccupied()) {
-                    legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
+                    moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.QUIET);
                 } else {
                     final Piece pieceAtDestination = candidateDestinationTile.getPiece();
                     final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
 
                     if(this.pieceAlliance != pieceAlliance) {
-                        legalMoves.add(new AttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
+                        moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.CAPTURE);
                     }
                 }
             }
         }
-        return ImmutableList.copyOf(legalMoves);
     }
 
     
 
     @Override
     public King movePiece(Move move) {
-        return new King(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance());
+        return (King) createPiece(PieceType.KING, move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
     }
 
     @Override
@@ -64,19 +58,13 @@ public class King extends Piece {
     }
 
     private static boolean isFirstColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition] && ((candidateOffset) == -9) || (candidateOffset == -1) 
-        || (candidateOffset == 7);        
+        return BoardUtils.FIRST_COLUMN[currentPosition] && ((candidateOffset == -9) || (candidateOffset == -1) ||
+               (candidateOffset == 7));
     }
 
     private static boolean isEighthColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGHTH_COLUMN[currentPosition] && ((candidateOffset) == 9) || (candidateOffset == 1) 
-            || (candidateOffset == 7);
-    }
-
-    @Override
-    public int computeHashCode() {
-        // TODO Auto-generated method stub
-        return 0;
+        return BoardUtils.EIGHTH_COLUMN[currentPosition] && ((candidateOffset == 9) || (candidateOffset == 1) ||
+               (candidateOffset == -7));
     }
 
 }
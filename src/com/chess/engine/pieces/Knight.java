@@ -4,29 +4,22 @@ import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Move.AttackMove;
+import com.chess.engine.board.MoveBuffer;
 import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 
 public class Knight extends Piece {
 
 
     private final static int[] CANDIDATE_MOVE_COORDINATES = {-17,-15,-10,-6,6,10,15,17};
 
-    public Knight(final int piecePosition, final Alliance pieceAlliance) {
-        super(PieceType.KNIGHT, pieceAlliance, piecePosition, true);
-    }     
+    Knight(final Alliance pieceAlliance,
+           final int piecePosition,
+           final boolean isFirstMove) {
+        super(PieceType.KNIGHT, pieceAlliance, piecePosition, isFirstMove);
+    }
 
     @Override
-    public Collection<Move> calculateLegalMoves(final Board board) {
-
-         
-        final List<Move> legalMoves = new ArrayList<>();
-
+    public void generateMoves(final Board board, final MoveBuffer moveBuffer) {
         for(final int currentCandidate : CANDIDATE_MOVE_COORDINATES) {
             final int candidateDestinationCoordinate = this.piecePosition + currentCandidate;
 
@@ -46,18 +39,17 @@ public class Knight extends Piece {
 
                 // if the tile is not occupied then do the following 
                 if(!candidateDestinationTile.isTileOccupied()) {
-                    legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
+                    moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.QUIET);
                 } else {
                     final Piece pieceAtDestination = candidateDestinationTile.getPiece();
                     final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
                     
                     if(this.pieceAlliance != pieceAlliance) {
-                        legalMoves.add(new AttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
+                        moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.CAPTURE);
                     }                               // if the tile is occupied then do atacking move
                 }
             }
         }
-        return ImmutableList.copyOf(legalMoves);
     }
 
 
@@ -65,7 +57,7 @@ public class Knight extends Piece {
 
     @Override
     public Knight movePiece(Move move) {
-        return new Knight(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance());
+        return (Knight) createPiece(PieceType.KNIGHT, move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
     }
 
 
@@ -75,26 +67,20 @@ public class Knight extends Piece {
     }
 
     private static boolean isFirstColumnExclusion(final int currentPosition, final int candidateOffset) {
-         return BoardUtils.FIRST_COLUMN[currentPosition] && ((candidateOffset) == -17) || (candidateOffset == -10) 
-               || (candidateOffset == 6) || (candidateOffset == 15);        
+        return BoardUtils.FIRST_COLUMN[currentPosition] && ((candidateOffset == -17) || (candidateOffset == -10) ||
+               (candidateOffset == 6) || (candidateOffset == 15));
     }
 
     private static boolean isSecondColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.SECOND_COLUMN[currentPosition] && ((candidateOffset) == -10) || (candidateOffset == 6);
+        return BoardUtils.SECOND_COLUMN[currentPosition] && ((candidateOffset == -10) || (candidateOffset == 6));
     }
 
     private static boolean isSeventhColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.SEVENTH_COLUMN[currentPosition] && ((candidateOffset) == -6) || (candidateOffset == 10);
+        return BoardUtils.SEVENTH_COLUMN[currentPosition] && ((candidateOffset == -6) || (candidateOffset == 10));
     }
 
     private static boolean isEighthColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGHTH_COLUMN[currentPosition] && ((candidateOffset) == -15) || (candidateOffset == -6) 
-               || (candidateOffset == 10) || (candidateOffset == 17);
-    }
-
-    @Override
-    public int computeHashCode() {
-        // TODO Auto-generated method stub
-        return 0;
+        return BoardUtils.EIGHTH_COLUMN[currentPosition] && ((candidateOffset == -15) || (candidateOffset == -6) ||
+               (candidateOffset == 10) || (candidateOffset == 17));
     }
 }
@@ -6,95 +6,90 @@ import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.google.common.collect.ImmutableList;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import com.chess.engine.board.MoveBuffer;
+import com.chess.engine.board.Tile;
 
 public class Pawn extends Piece{
 
     private final static int[] CANDIDATE_MOVE_COORDINATES = {8, 16, 7, 9};
     
-    public Pawn(final int piecePosition,
-                final Alliance pieceAlliance) {
-        super(PieceType.PAWN, pieceAlliance, piecePosition, true);
-    }
-
-    public Pawn(final Alliance pieceAlliance,
-                final int piecePosition,
-                final boolean isFirstMove) {
+    Pawn(final Alliance pieceAlliance,
+         final int piecePosition,
+         final boolean isFirstMove) {
         super(PieceType.PAWN, pieceAlliance, piecePosition, isFirstMove);
     }
 
 
     @Override
-    public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
+    public void generateMoves(final Board board, final MoveBuffer moveBuffer) {
         for(final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
-            int candidateDestinationCoordinate =
+            final int candidateDestinationCoordinate =
                     this.piecePosition + (this.pieceAlliance.getDirection() * currentCandidateOffset);
 
             if(!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
                 continue;
             }
-            // todo more work here
-            if(currentCandidateOffset == 8 && board.getPiece(candidateDestinationCoordinate) == null) {
-                legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
-            } else if (currentCandidateOffset == 16 && this.isFirstMove() && 
-                      (BoardUtils.SEVENTH_RANK[this.piecePosition] && this.getPieceAlliance().isBlack()) ||
-                      (BoardUtils.SECOND_RANK[this.piecePosition] && this.getPieceAlliance().isWhite())) {
+            if(currentCandidateOffset == 8 && !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
+                addPawnMove(moveBuffer, candidateDestinationCoordinate, MoveBuffer.PAWN_MOVE);
+            } else if(currentCandidateOffset == 16 && this.isFirstMove() &&
+                      ((BoardUtils.SEVENTH_RANK[this.piecePosition] && this.getPieceAlliance().isBlack()) ||
+                       (BoardUtils.SECOND_RANK[this.piecePosition] && this.getPieceAlliance().isWhite()))) {
                 final int behindCandidateDestinationCoordinate = this.piecePosition + (this.getPieceAlliance().getDirection() * 8);
                 if(!board.getTile(behindCandidateDestinationCoordinate).isTileOccupied() &&
                    !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate)); // this is a pawn jump
-                }
-            } else if (currentCandidateOffset == 7) {
-              
-            } else if (currentCandidateOffset == 9) {
-              
-            } else if (currentCandidateOffset == 7 && 
-                      !((BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()  ||
-                      (BoardUtils.FIRST_COLUMN[this.piecePosition] && this.getPieceAlliance().isBlack())) )) {
-                if(board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    final Piece pieceOnCandidate = board.getTile(candidateDestinationCoordinate).getPiece();
-                    if(this.pieceAlliance != pieceOnCandidate.pieceAlliance) {
-                        // todo more work here
-                        legalMoves.add(new Move.AttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                    }
-                }
-            } else if (currentCandidateOffset == 9 && 
-                      !((BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()  ||
-                      (BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()))  )) {
-                if(board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    final Piece pieceOnCandidate = board.getTile(candidateDestinationCoordinate).getPiece();
-                    if(this.pieceAlliance != pieceOnCandidate.pieceAlliance) {
-                        // todo more work here
-                        legalMoves.add(new Move.AttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                    }
+                    moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.PAWN_JUMP);
                 }
+            } else if(currentCandidateOffset == 7 &&
+                      !((BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()) ||
+                        (BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()))) {
+                addPawnAttack(board, moveBuffer, candidateDestinationCoordinate);
+            } else if(currentCandidateOffset == 9 &&
+                      !((BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()) ||
+                        (BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()))) {
+                addPawnAttack(board, moveBuffer, candidateDestinationCoordinate);
             }
         } 
-        return ImmutableList.copyOf(legalMoves);
     }
 
-    
+    // a diagonal step is only a move when it captures, either directly or en passant
+    private void addPawnAttack(final Board board,
+                               final MoveBuffer moveBuffer,
+                               final int candidateDestinationCoordinate) {
+        final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
+        if(candidateDestinationTile.isTileOccupied()) {
+            final Piece pieceOnCandidate = candidateDestinationTile.getPiece();
+            if(this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
+                addPawnMove(moveBuffer, candidateDestinationCoordinate, MoveBuffer.PAWN_CAPTURE);
+            }
+        } else if(board.getEnPassantPawn() != null) {
+            // the pawn that just jumped sits directly behind the square it skipped
+            final Pawn enPassantPawn = board.getEnPassantPawn();
+            if(enPassantPawn.getPieceAlliance() != this.pieceAlliance &&
+               enPassantPawn.getPiecePosition() == candidateDestinationCoordinate - (this.pieceAlliance.getDirection() * 8)) {
+                moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.EN_PASSANT);
+            }
+        }
+    }
+
+    // a pawn reaching the last rank is offered every promotion, queen first
+    private void addPawnMove(final MoveBuffer moveBuffer, final int destination, final int kind) {
+        if(this.pieceAlliance.isPawnPromotionSquare(destination)) {
+            moveBuffer.add(MoveBuffer.encode(this.piecePosition, destination, PieceType.QUEEN, kind));
+            moveBuffer.add(MoveBuffer.encode(this.piecePosition, destination, PieceType.ROOK, kind));
+            moveBuffer.add(MoveBuffer.encode(this.piecePosition, destination, PieceType.BISHOP, kind));
+            moveBuffer.add(MoveBuffer.encode(this.piecePosition, destination, PieceType.KNIGHT, kind));
+        } else {
+            moveBuffer.add(this.piecePosition, destination, kind);
+        }
+    }
 
     @Override
     public Pawn movePiece(Move move) {
-        return new Pawn (move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance());
+        return (Pawn) createPiece(PieceType.PAWN, move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
     }
 
     @Override
     public String toString() {
         return PieceType.PAWN.toString();
     }
-
-
-    @Override
-    public int computeHashCode() {
-        // TODO Auto-generated method stub
-        return 0;
-    }
 }
@@ -2,19 +2,27 @@ package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveBuffer;
 
 import java.util.Collection;
 
 
 public abstract class Piece {
 
+    // two alliances, six piece types, 64 squares, moved or not
+    public static final int NUM_PIECES = 2 * 6 * BoardUtils.NUM_TILES * 2;
+
+    // a queen in the middle of an open board
+    private static final int MAX_PIECE_MOVES = 27;
+
     // It is protected because we want only subclasses to access it
     final PieceType pieceType;
     final Alliance pieceAlliance;
     final int piecePosition;
     final boolean isFirstMove;
-    final int cachedHashCode;
+    final int pieceId;
 
 
     Piece(final PieceType pieceType,
@@ -25,7 +33,23 @@ public abstract class Piece {
         this.piecePosition = piecePosition;
         this.pieceAlliance = pieceAlliance;
         this.isFirstMove = isFirstMove;
-        this.cachedHashCode = computeHashCode();
+        this.pieceId = pieceId(pieceType, pieceAlliance, piecePosition, isFirstMove);
+    }
+
+    // every piece that can exist is made once, so a piece can be compared with == and used as an array index
+    public static Piece createPiece(final PieceType pieceType,
+                                    final Alliance pieceAlliance,
+                                    final int piecePosition,
+                                    final boolean isFirstMove) {
+        return PieceCache.PIECES[pieceId(pieceType, pieceAlliance, piecePosition, isFirstMove)];
+    }
+
+    private static int pieceId(final PieceType pieceType,
+                               final Alliance pieceAlliance,
+                               final int piecePosition,
+                               final boolean isFirstMove) {
+        return (((pieceAlliance.ordinal() * PieceType.values().length + pieceType.ordinal()) *
+                BoardUtils.NUM_TILES + piecePosition) << 1) | (isFirstMove ? 1 : 0);
     }
 
     public PieceType getPieceType() {
@@ -44,9 +68,21 @@ public abstract class Piece {
         return this.isFirstMove;
     }
 
+    // unique among all pieces, from 0 to NUM_PIECES - 1
+    public int getPieceId() {
+        return this.pieceId;
+    }
+
     public abstract Piece movePiece(Move move);
 
-    public abstract Collection<Move> calculateLegalMoves(final Board board); // Legal moves for a piece are calculated based on the board state
+    // writes the pseudo-legal moves of this piece into the buffer without allocating anything
+    public abstract void generateMoves(final Board board, final MoveBuffer moveBuffer);
+
+    public Collection<Move> calculateLegalMoves(final Board board) { // Legal moves for a piece are calculated based on the board state
+        final MoveBuffer moveBuffer = new MoveBuffer(MAX_PIECE_MOVES);
+        generateMoves(board, moveBuffer);
+        return Move.MoveFactory.createMoves(board, moveBuffer);
+    }
 
     @Override
     public boolean equals(final Object other) {
@@ -56,28 +92,52 @@ public abstract class Piece {
         if(!(other instanceof Piece)) { // !(other instanceof Piece) means that the object other is not an instance of the class Piece
             return false;
         }
-        final Piece otherPiece = (Piece) other;
-        return piecePosition == otherPiece.getPiecePosition() && pieceType == otherPiece.getPieceType() &&
-                pieceAlliance == otherPiece.getPieceAlliance() && isFirstMove == otherPiece.isFirstMove();
+        return this.pieceId == ((Piece) other).getPieceId();
     }
 
     @Override
     public int hashCode() {
-        return this.cachedHashCode;
+        return this.pieceId;
     }
 
-    public int computeHashCode() {  // This method will be used to compute the hash code of the current object
-        int result = pieceType.hashCode();   //
-        result = 31 * result + piecePosition;
-        result = 31 * result + pieceAlliance.hashCode();
-        result = 31 * result + (isFirstMove ? 1 : 0);
-        return result;
+    // kept apart from Piece so that loading Piece never has to load its subclasses
+    private static final class PieceCache {
+        private static final Piece[] PIECES = createAllPossiblePieces();
+
+        private static Piece[] createAllPossiblePieces() {
+            final Piece[] pieces = new Piece[NUM_PIECES];
+            for(final Alliance alliance : Alliance.values()) {
+                for(final PieceType pieceType : PieceType.values()) {
+                    for(int position = 0; position < BoardUtils.NUM_TILES; position++) {
+                        for(final boolean isFirstMove : new boolean[] {true, false}) {
+                            final Piece piece = newPiece(pieceType, alliance, position, isFirstMove);
+                            pieces[piece.getPieceId()] = piece;
+                        }
+                    }
+                }
+            }
+            return pieces;
+        }
+
+        private static Piece newPiece(final PieceType pieceType,
+                                      final Alliance alliance,
+                                      final int position,
+                                      final boolean isFirstMove) {
+            switch(pieceType) {
+                case PAWN: return new Pawn(alliance, position, isFirstMove);
+                case KNIGHT: return new Knight(alliance, position, isFirstMove);
+                case BISHOP: return new Bishop(alliance, position, isFirstMove);
+                case ROOK: return new Rook(alliance, position, isFirstMove);
+                case QUEEN: return new Queen(alliance, position, isFirstMove);
+                default: return new King(alliance, position, isFirstMove);
+            }
+        }
     }
 
 
     public enum PieceType {
 
-        PAWN("P") {
+        PAWN("P", 100) {
             @Override
             public boolean isKing() {
                 return false;
@@ -88,7 +148,7 @@ public abstract class Piece {
                 return false;
             }
         },
-        KNIGHT("N") {
+        KNIGHT("N", 300) {
             @Override
             public boolean isKing() {
                 return false;
@@ -99,7 +159,7 @@ public abstract class Piece {
                 return false;
             }
         },
-        BISHOP("B") {
+        BISHOP("B", 330) {
             @Override
             public boolean isKing() {
                 return false;
@@ -110,7 +170,7 @@ public abstract class Piece {
                 return false;
             }
         },
-        ROOK("R") {
+        ROOK("R", 500) {
             @Override
             public boolean isKing() {
                 return false;
@@ -121,7 +181,7 @@ public abstract class Piece {
                 return true;
             }
         },
-        QUEEN("Q") {
+        QUEEN("Q", 900) {
             @Override
             public boolean isKing() {
                 return false;
@@ -132,7 +192,7 @@ public abstract class Piece {
                 return false;
             }
         },
-        KING("K")   {
+        KING("K", 10000)   {
             @Override 
             public boolean isKing() {
                 return true;
@@ -146,9 +206,15 @@ public abstract class Piece {
 
 
         private String pieceName;
+        private final int pieceValue;
 
-        PieceType(final String pieceName) {
+        PieceType(final String pieceName, final int pieceValue) {
             this.pieceName = pieceName;
+            this.pieceValue = pieceValue;
+        }
+
+        public int getPieceValue() {
+            return this.pieceValue;
         }
 
         @Override
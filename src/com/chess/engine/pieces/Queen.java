@@ -4,32 +4,28 @@ import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Move.AttackMove;
+import com.chess.engine.board.MoveBuffer;
 import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
-
-import java.util.ArrayList;
-import java.util.Collection;
 
 public class Queen extends Piece {
 
     private final static int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-9, -8, -7, -1, 1, 7, 8, 9};
     
-    public Queen(final int piecePosition, final Alliance pieceAlliance) {
-        super(PieceType.QUEEN, pieceAlliance, piecePosition, true);
+    Queen(final Alliance pieceAlliance,
+          final int piecePosition,
+          final boolean isFirstMove) {
+        super(PieceType.QUEEN, pieceAlliance, piecePosition, isFirstMove);
     }
 
     @Override
-    public Collection<Move> calculateLegalMoves(final Board board) {
-        final Collection<Move> legalMoves = new ArrayList<>();
-
+    public void generateMoves(final Board board, final MoveBuffer moveBuffer) {
         for(final int candidateCoordinateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
             int candidateDestinationCoordinate = this.piecePosition;
             while(BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
 
                 if(isFirstColumnExclusion(candidateDestinationCoordinate, candidateCoordinateOffset) ||
                     isEighthColumnExclusion(candidateDestinationCoordinate, candidateCoordinateOffset)) {
-                    continue;
+                    break;
                 }
 
                 candidateDestinationCoordinate += candidateCoordinateOffset;
@@ -38,36 +34,25 @@ public class Queen extends Piece {
 
                     // if the tile is not occupied then do the following 
                     if(!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate)); // add a new move to the list of legal moves
+                        moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.QUIET); // add a new move to the list of legal moves
                     } else {
                         final Piece pieceAtDestination = candidateDestinationTile.getPiece();
                         final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
                         
                          // if the tile is occupied and is not the same alliance then do the following
                         if(this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(new AttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination)); // add a new move to the list of legal moves
+                            moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.CAPTURE); // add a new move to the list of legal moves
                         }
                         break;
                     }   
                 }
             }
         }
-
-        return ImmutableList.copyOf(legalMoves);
-    }
-
-    // implememt the abstract method of computeHashCode() in the Piece class to this class
-    public int computeHashCode() {
-        int result = pieceType.hashCode();
-        result = 31 * result + piecePosition;
-        result = 31 * result + pieceAlliance.hashCode();
-        result = 31 * result + (isFirstMove ? 1 : 0);
-        return result;
     }
 
     @Override
     public Queen movePiece(Move move) {
-        return new Queen(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance());
+        return (Queen) createPiece(PieceType.QUEEN, move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
     }
 
     @Override
@@ -4,27 +4,21 @@ import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Move.AttackMove;
+import com.chess.engine.board.MoveBuffer;
 import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 
 public class Rook extends Piece{
 
     private final static int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-8, -1, 1, 8};
 
-    public Rook(final int piecePosition, final Alliance pieceAlliance) {
-        super(PieceType.ROOK, pieceAlliance, piecePosition, true);
+    Rook(final Alliance pieceAlliance,
+         final int piecePosition,
+         final boolean isFirstMove) {
+        super(PieceType.ROOK, pieceAlliance, piecePosition, isFirstMove);
     }
 
     @Override
-    public Collection<Move> calculateLegalMoves(final Board board) {
-           
-        final List<Move> legalMoves = new ArrayList<>();
-
+    public void generateMoves(final Board board, final MoveBuffer moveBuffer) {
         for(final int candidateCoordinateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
             int candidateDestinationCoordinate = this.piecePosition;
             while(BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
@@ -40,26 +34,25 @@ public class Rook extends Piece{
 
                     // if the tile is not occupied then do the following 
                     if(!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate)); // add a new move to the list of legal moves
+                        moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.QUIET); // add a new move to the list of legal moves
                     } else {
                         final Piece pieceAtDestination = candidateDestinationTile.getPiece();
                         final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
                         
                          // if the tile is occupied and is not the same alliance then do the following
                         if(this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(new AttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination)); // add a new move to the list of legal moves
+                            moveBuffer.add(this.piecePosition, candidateDestinationCoordinate, MoveBuffer.CAPTURE); // add a new move to the list of legal moves
                         }
                         break;
                     }   
                 }
             }
         }
-        return ImmutableList.copyOf(legalMoves);
     }
 
     @Override
     public Rook movePiece(Move move) {
-        return new Rook(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance());
+        return (Rook) createPiece(PieceType.ROOK, move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
     }
 
     @Override
@@ -74,10 +67,4 @@ public class Rook extends Piece{
     private static boolean isEighthColumnExclusion(final int currentPosition, final int candidateOffset) {
         return BoardUtils.EIGHTH_COLUMN[currentPosition] && (candidateOffset == 1);
     }
-
-    @Override
-    public int computeHashCode() {
-        // TODO Auto-generated method stub
-        return 0;
-    }
 }
\ No newline at end of file
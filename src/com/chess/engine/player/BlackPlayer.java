@@ -1,6 +1,7 @@
 package com.chess.engine.player;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.Attacks;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Tile;
@@ -25,6 +26,8 @@ public class BlackPlayer extends Player{
                                                      final Collection<Move> opponentLegals) {
         
         final List<Move> kingCastles = new ArrayList<>();
+        // the squares the king crosses are checked on the board, the opponent's moves miss a pawn
+        // covering an empty square because a pawn only has a capture there when something stands on it
         if(this.playerKing.isFirstMove() && !this.isInCheck()) {
 
             // white king side castle
@@ -33,8 +36,8 @@ public class BlackPlayer extends Player{
                final Tile rookTile = this.board.getTile(7);
                
                if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    if(Player.calculateAttackOnTile(5, opponentLegals).isEmpty() && 
-                       Player.calculateAttackOnTile(6, opponentLegals).isEmpty() &&
+                    if(!Attacks.isSquareAttacked(this.board, 5, Alliance.WHITE) && 
+                       !Attacks.isSquareAttacked(this.board, 6, Alliance.WHITE) &&
                        rookTile.getPiece().getPieceType().isRook()) {
                         
                         kingCastles.add(new Move.KingSideCastleMove(this.board, 
@@ -54,9 +57,8 @@ public class BlackPlayer extends Player{
 
                 final Tile rookTile = this.board.getTile(0);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    if(Player.calculateAttackOnTile(1, opponentLegals).isEmpty() &&
-                       Player.calculateAttackOnTile(2, opponentLegals).isEmpty() &&
-                       Player.calculateAttackOnTile(3, opponentLegals).isEmpty() &&
+                    if(!Attacks.isSquareAttacked(this.board, 2, Alliance.WHITE) &&
+                       !Attacks.isSquareAttacked(this.board, 3, Alliance.WHITE) &&
                        rookTile.getPiece().getPieceType().isRook()) {
 
                         kingCastles.add(new Move.QueenSideCastleMove(this.board, 
@@ -3,6 +3,7 @@
     import com.chess.engine.Alliance;
     import com.chess.engine.board.Board;
     import com.chess.engine.board.Move;
+    import com.chess.engine.metrics.EngineMetrics;
     import com.chess.engine.pieces.King;
     import com.chess.engine.pieces.Piece;
     import com.google.common.collect.ImmutableList;
@@ -25,24 +26,30 @@
             this.board = board;
             this.playerKing = establishKing();  // new method for looking up the king
             this.isInCheck = !calculateAttackOnTile(this.playerKing.getPiecePosition(), opponentLegals).isEmpty(); // it outputs a boolean if the king is in check or not
-            this.legalMoves = ImmutableList.copyOf(Iterables.concat(legalMoves, calculateKingCastles(legalMoves, opponentLegals)));
+            final Collection<Move> kingCastles = calculateKingCastles(legalMoves, opponentLegals);
+            this.legalMoves = kingCastles.isEmpty() ? legalMoves : ImmutableList.copyOf(Iterables.concat(legalMoves, kingCastles));
         }                                                // Player.calculateAttackOnTile() returns a Collection<Move> so we use isEmpty() method to check if it is empty or not
 
 
         public Collection<Move> getLegalMoves() { return this.legalMoves;}
 
-        private King getPlayerKing() { return this.playerKing;}
+        public King getPlayerKing() { return this.playerKing;}
 
          static Collection<Move> calculateAttackOnTile(int piecePosition, Collection<Move> moves) {
             final Collection<Move> attackMoves = new ArrayList<>();
             for(final Move move : moves) { 
-                if(piecePosition == move.getDestinationCoordinate()) {
+                if(piecePosition == move.getDestinationCoordinate() && !isPawnAdvance(move)) {
                     attackMoves.add(move);
                 }
             }
             return ImmutableList.copyOf(attackMoves);
         }
 
+        // a pawn stepping forward never attacks the square it moves to
+        private static boolean isPawnAdvance(final Move move) {
+            return move.getMovedPiece().getPieceType() == Piece.PieceType.PAWN && !move.isAttack();
+        }
+
         private King establishKing() {
             for(final Piece piece : getActivePieces()) {
                 if(piece.getPieceType().isKing()) {
@@ -71,13 +78,19 @@
         }
 
         protected boolean hasEscapeMoves() {
+            final long checkStart = EngineMetrics.ENABLED ? System.nanoTime() : 0L;
+            boolean hasEscapeMoves = false;
             for(final Move move: this.legalMoves) {
                 final MoveTransition transition = makeMove(move);
                 if(transition.getMoveStatus().isDone()) {
-                    return true;
+                    hasEscapeMoves = true;
+                    break;
                 }
             }
-            return false;
+            if(EngineMetrics.ENABLED) {
+                EngineMetrics.escapeMovesChecked(hasEscapeMoves, checkStart);
+            }
+            return hasEscapeMoves;
         }
 
         public boolean isCastled() {
@@ -85,17 +98,25 @@
         }
 
         public MoveTransition makeMove(final Move move) {
+            final long moveStart = EngineMetrics.ENABLED ? System.nanoTime() : 0L;
             if(!isMoveLegal(move)){
-                return new MoveTransition(this.board, move, MoveStatus.ILLEGAL_MOVE); 
+                return moveMade(new MoveTransition(this.board, move, MoveStatus.ILLEGAL_MOVE), moveStart); 
             }
             final Board transitionBoard = move.execute();
             final Collection<Move> kingAttacks = Player.calculateAttackOnTile(transitionBoard.currentPlayer().getOpponent().getPlayerKing().getPiecePosition(),
                                                                               transitionBoard.currentPlayer().getLegalMoves());
             if(!kingAttacks.isEmpty()) {
-                return new MoveTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
+                return moveMade(new MoveTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK), moveStart);
             }
             
-            return new MoveTransition(transitionBoard, move, MoveStatus.DONE);
+            return moveMade(new MoveTransition(transitionBoard, move, MoveStatus.DONE), moveStart);
+        }
+
+        private static MoveTransition moveMade(final MoveTransition transition, final long moveStart) {
+            if(EngineMetrics.ENABLED) {
+                EngineMetrics.moveMade(transition.getMove(), transition.getMoveStatus(), moveStart);
+            }
+            return transition;
         }
 
 
@@ -1,6 +1,7 @@
 package com.chess.engine.player;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.Attacks;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Move.QueenSideCastleMove;
@@ -29,6 +30,8 @@ public class WhitePlayer extends Player{
                                                     final Collection<Move> opponentLegals) {
         final List<Move> kingCastles = new ArrayList<>();
         
+        // the squares the king crosses are checked on the board, the opponent's moves miss a pawn
+        // covering an empty square because a pawn only has a capture there when something stands on it
         if(this.playerKing.isFirstMove() && !this.isInCheck()) {
 
             // white king side castle
@@ -37,8 +40,8 @@ public class WhitePlayer extends Player{
 
                 final Tile rookTile = this.board.getTile(63);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    if(Player.calculateAttackOnTile(61, opponentLegals).isEmpty() && 
-                       Player.calculateAttackOnTile(62, opponentLegals).isEmpty() &&
+                    if(!Attacks.isSquareAttacked(this.board, 61, Alliance.BLACK) && 
+                       !Attacks.isSquareAttacked(this.board, 62, Alliance.BLACK) &&
                        rookTile.getPiece().getPieceType().isRook()) {
                         kingCastles.add( new Move.KingSideCastleMove(this.board, 
                                                                 this.playerKing, 
@@ -57,9 +60,8 @@ public class WhitePlayer extends Player{
 
                 final Tile rookTile = this.board.getTile(56);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    if(Player.calculateAttackOnTile(59, opponentLegals).isEmpty() && 
-                       Player.calculateAttackOnTile(58, opponentLegals).isEmpty() &&
-                       Player.calculateAttackOnTile(57, opponentLegals).isEmpty() &&
+                    if(!Attacks.isSquareAttacked(this.board, 59, Alliance.BLACK) && 
+                       !Attacks.isSquareAttacked(this.board, 58, Alliance.BLACK) &&
                        rookTile.getPiece().getPieceType().isRook()) {
                         kingCastles.add( new QueenSideCastleMove(this.board, 
                                                                  this.playerKing, 
@@ -0,0 +1,782 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.GameStatus;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.PositionHistory;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Iterative deepening negamax with alpha-beta pruning and a quiescence search at the leaves.
+// Results go into a TranspositionTable that outlives the search, so a table shared with the
+// next search (or with a Ponderer) lets it start from what was already found.
+// The selective techniques in PruningConfig (null move, late move reductions, futility,
+// reverse futility and aspiration windows) can each be switched off, and count what they do in PruningStatistics.
+// At every depth the first root move is searched on the calling thread to get a bound,
+// the remaining root moves are then shared out to the search pool.
+// With more than one principal variation asked for, the bound for a root move is the score of the
+// last line kept rather than the best one, so only moves that can still enter the lines get an exact score.
+public final class AlphaBeta implements MoveStrategy {
+
+    public static final int INFINITY = 1_000_000;
+    public static final int MATE_SCORE = 100_000;
+    public static final int MAX_PLY = 128;
+
+    private static final long PROGRESS_INTERVAL_MILLIS = 100;
+    private static final int MAX_VARIATION_LENGTH = 16;
+    // nodes between two looks at the clock, a power of two
+    private static final int TIME_CHECK_INTERVAL = 4096;
+
+    // a capture is skipped in quiescence when even this much on top of its material cannot reach alpha
+    private static final int DELTA_MARGIN = 200;
+
+    // move ordering: captures that hold their material, then quiet moves, then captures that lose it
+    private static final int WINNING_CAPTURE_SCORE = 1 << 20;
+    private static final int LOSING_CAPTURE_SCORE = -(1 << 20);
+    // the best move the table remembers for the position is tried before anything else
+    private static final int TABLE_MOVE_SCORE = 1 << 22;
+
+    // one pool for every search, low priority so the event dispatch thread always gets the cpu first
+    private static final ExecutorService SEARCH_POOL = createSearchPool();
+
+    private final BoardEvaluator evaluator;
+    private final int searchDepth;
+    private final LongAdder nodeCount;
+    private final PruningStatistics pruningStatistics;
+    private final TranspositionTable transpositionTable;
+    private volatile PruningConfig pruningConfig;
+    private volatile boolean stopRequested;
+    private volatile int completedDepth;
+    private volatile int completedScore;
+    private volatile Move completedBestMove;
+    private volatile List<PrincipalLine> completedLines;
+    // the lines last sent to the listener, only the thread running execute uses it
+    private List<PrincipalLine> notifiedLines;
+    private volatile int principalVariations;
+    private volatile boolean serialRoot;
+    private volatile TimeManager timeManager;
+    private volatile long nodeLimit;
+    // shared by the search threads without locking, lost updates only move the next clock check a little
+    private int timeCheckCounter;
+    private volatile SearchListener searchListener;
+    private long searchStartTime;
+
+    public AlphaBeta(final int searchDepth) {
+        this(StandardBoardEvaluator.get(), searchDepth);
+    }
+
+    public AlphaBeta(final BoardEvaluator evaluator, final int searchDepth) {
+        this(evaluator, searchDepth, new TranspositionTable());
+    }
+
+    public AlphaBeta(final BoardEvaluator evaluator,
+                     final int searchDepth,
+                     final TranspositionTable transpositionTable) {
+        this.evaluator = evaluator;
+        this.searchDepth = searchDepth;
+        this.nodeCount = new LongAdder();
+        this.pruningStatistics = new PruningStatistics();
+        this.pruningConfig = PruningConfig.getDefault();
+        this.transpositionTable = transpositionTable;
+        this.principalVariations = 1;
+        this.completedLines = Collections.emptyList();
+    }
+
+    // how many of the best root moves get an exact score and a line of their own, takes effect from the next search
+    public void setPrincipalVariations(final int principalVariations) {
+        if(principalVariations < 1) {
+            throw new IllegalArgumentException("At least one principal variation is needed, not " + principalVariations);
+        }
+        this.principalVariations = principalVariations;
+    }
+
+    public int getPrincipalVariations() {
+        return this.principalVariations;
+    }
+
+    // the lines of the last finished iteration, best first
+    public List<PrincipalLine> getPrincipalLines() {
+        return this.completedLines;
+    }
+
+    // limits the search by the clock as well as the depth, null searches to the full depth.
+    // it takes effect at once, so a running ponder search goes on the clock from here
+    public void setTimeManager(final TimeManager timeManager) {
+        if(timeManager != null) {
+            timeManager.start();
+        }
+        this.timeManager = timeManager;
+    }
+
+    public TimeManager getTimeManager() {
+        return this.timeManager;
+    }
+
+    // stops the search after about this many nodes, 0 for no limit. checked with the clock, so it may run a few thousand over
+    public void setNodeLimit(final long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    // searches every root move on the thread running execute instead of sharing them out on the search pool,
+    // for callers that keep a number of search threads of their own. takes effect from the next search
+    public void setSerialRoot(final boolean serialRoot) {
+        this.serialRoot = serialRoot;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    public int getSearchDepth() {
+        return this.searchDepth;
+    }
+
+    // takes effect from the next search
+    public void setPruningConfig(final PruningConfig pruningConfig) {
+        this.pruningConfig = pruningConfig;
+    }
+
+    public PruningConfig getPruningConfig() {
+        return this.pruningConfig;
+    }
+
+    // the counts of the last search, or of the running one
+    public PruningStatistics getPruningStatistics() {
+        return this.pruningStatistics;
+    }
+
+    public void setSearchListener(final SearchListener searchListener) {
+        this.searchListener = searchListener;
+    }
+
+    // asks a running search to return the best move of its last finished iteration
+    public void stop() {
+        this.stopRequested = true;
+    }
+
+    public long getNodeCount() {
+        return this.nodeCount.sum();
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        return execute(board, null);
+    }
+
+    // searches with the positions already played, so the engine sees repetitions that go back into the game.
+    // gameHistory must end with board, it is copied and not changed
+    public Move execute(final Board board, final PositionHistory gameHistory) {
+        this.searchStartTime = System.nanoTime();
+        this.nodeCount.reset();
+        this.pruningStatistics.reset();
+        this.stopRequested = false;
+        this.completedDepth = 0;
+        this.completedLines = Collections.emptyList();
+        this.notifiedLines = null;
+        this.transpositionTable.newSearch();
+        if(this.timeManager != null) {
+            this.timeManager.start();
+        }
+
+        final List<MoveTransition> rootTransitions = new ArrayList<>();
+        final OrderedMoves rootMoves = sortMoves(board, board.currentPlayer().getLegalMoves(), tableMove(board));
+        for(int i = 0; i < rootMoves.size(); i++) {
+            final MoveTransition transition = board.currentPlayer().makeMove(rootMoves.getMove(i));
+            if(transition.getMoveStatus().isDone()) {
+                rootTransitions.add(transition);
+            }
+        }
+        if(rootTransitions.isEmpty()) {
+            return Move.MoveFactory.getNullMove();
+        }
+
+        final PositionHistory rootHistory = gameHistory != null ? gameHistory.copy() : new PositionHistory();
+        if(gameHistory == null) {
+            rootHistory.push(board.getZobristHash());
+        }
+
+        final PruningConfig config = this.pruningConfig;
+        final int lineCount = Math.min(this.principalVariations, rootTransitions.size());
+        Move bestMove = rootTransitions.get(0).getMove();
+        // depth 1 runs even when a stop came in already, isAborted lets it finish, so the move returned was searched
+        for(int depth = 1; depth <= this.searchDepth && (depth == 1 || !this.stopRequested); depth++) {
+            final RootResult result = lineCount == 1 ?
+                    searchWithAspiration(config, rootTransitions, rootHistory, depth) :
+                    searchRoot(config, rootTransitions, rootHistory, depth, lineCount, -INFINITY, INFINITY);
+            if(result == null) {
+                break;
+            }
+            bestMove = result.getMove(0);
+            this.transpositionTable.store(board.getZobristHash(), depth, TranspositionTable.scoreToTable(result.getScore(0), 0),
+                                          TranspositionTable.EXACT, TranspositionTable.encode(bestMove));
+            this.completedLines = collectLines(result, rootTransitions, lineCount);
+            this.completedBestMove = bestMove;
+            this.completedScore = result.getScore(0);
+            this.completedDepth = depth;
+            // the lines go first in their order for the next iteration, the other moves keep theirs
+            for(int i = lineCount - 1; i >= 0; i--) {
+                moveToFront(rootTransitions, result.getMove(i));
+            }
+            notifyListener();
+            if(Math.abs(result.getScore(0)) >= MATE_SCORE - MAX_PLY) {
+                break;
+            }
+            final TimeManager clock = this.timeManager;
+            if(clock != null && clock.shouldStopAfterIteration(bestMove, result.getScore(0), rootTransitions.size())) {
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    // each line follows the table from the position after its root move
+    private List<PrincipalLine> collectLines(final RootResult result,
+                                             final List<MoveTransition> rootTransitions,
+                                             final int lineCount) {
+        final List<PrincipalLine> lines = new ArrayList<>(lineCount);
+        for(int i = 0; i < lineCount; i++) {
+            final Move move = result.getMove(i);
+            final List<Move> variation = new ArrayList<>();
+            variation.add(move);
+            for(final MoveTransition transition : rootTransitions) {
+                if(transition.getMove().equals(move)) {
+                    variation.addAll(getPrincipalVariation(transition.getTransitionBoard(), MAX_VARIATION_LENGTH - 1));
+                    break;
+                }
+            }
+            lines.add(new PrincipalLine(i + 1, result.getScore(i), Collections.unmodifiableList(variation)));
+        }
+        return Collections.unmodifiableList(lines);
+    }
+
+    // the line the table expects from the position, following the stored best moves while they are legal
+    public List<Move> getPrincipalVariation(final Board board, final int maxLength) {
+        final List<Move> line = new ArrayList<>();
+        final PositionHistory seen = new PositionHistory();
+        Board position = board;
+        while(line.size() < maxLength) {
+            seen.push(position.getZobristHash());
+            // a repetition in the stored moves would loop forever
+            if(seen.countRepetitions(seen.size()) > 0) {
+                break;
+            }
+            final long entry = this.transpositionTable.probe(position.getZobristHash());
+            if(entry == 0L || TranspositionTable.move(entry) == TranspositionTable.NO_MOVE) {
+                break;
+            }
+            final Move move = Move.MoveFactory.decodeMove(position, TranspositionTable.move(entry));
+            if(move == Move.MoveFactory.getNullMove()) {
+                break;
+            }
+            final MoveTransition transition = position.currentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isDone()) {
+                break;
+            }
+            line.add(move);
+            position = transition.getTransitionBoard();
+        }
+        return line;
+    }
+
+    // the reply the last search expects from the opponent after the engine's move, or null if it has none
+    public Move getPonderMove(final Board boardAfterMove) {
+        final List<Move> line = getPrincipalVariation(boardAfterMove, 1);
+        return line.isEmpty() ? null : line.get(0);
+    }
+
+    // after the first iteration the root is searched in a window around the last score, a score outside
+    // the window only says which side it is on, so the window doubles on that side and the depth is searched again
+    private RootResult searchWithAspiration(final PruningConfig config,
+                                            final List<MoveTransition> rootTransitions,
+                                            final PositionHistory rootHistory,
+                                            final int depth) {
+        if(!config.isEnabled(PruningTechnique.ASPIRATION_WINDOW) || depth == 1 ||
+           Math.abs(this.completedScore) >= MATE_SCORE - MAX_PLY) {
+            return searchRoot(config, rootTransitions, rootHistory, depth, 1, -INFINITY, INFINITY);
+        }
+        this.pruningStatistics.record(PruningTechnique.ASPIRATION_WINDOW, PruningStatistics.Counter.ATTEMPT);
+        int window = config.getAspirationWindow();
+        int alpha = Math.max(-INFINITY, this.completedScore - window);
+        int beta = Math.min(INFINITY, this.completedScore + window);
+        while(true) {
+            final RootResult result = searchRoot(config, rootTransitions, rootHistory, depth, 1, alpha, beta);
+            if(result == null) {
+                return null;
+            }
+            final int score = result.getScore(0);
+            if(score > alpha && score < beta) {
+                this.pruningStatistics.record(PruningTechnique.ASPIRATION_WINDOW, PruningStatistics.Counter.CUTOFF);
+                return result;
+            }
+            if(alpha == -INFINITY && beta == INFINITY) {
+                return result;
+            }
+            this.pruningStatistics.record(PruningTechnique.ASPIRATION_WINDOW, PruningStatistics.Counter.RESEARCH);
+            window *= 2;
+            if(score <= alpha) {
+                alpha = Math.max(-INFINITY, this.completedScore - window);
+            } else {
+                beta = Math.min(INFINITY, this.completedScore + window);
+            }
+        }
+    }
+
+    private RootResult searchRoot(final PruningConfig config,
+                                  final List<MoveTransition> rootTransitions,
+                                  final PositionHistory rootHistory,
+                                  final int depth,
+                                  final int lineCount,
+                                  final int rootAlpha,
+                                  final int rootBeta) {
+        final MoveTransition first = rootTransitions.get(0);
+        final int firstScore = -alphaBeta(config, first.getTransitionBoard(), rootHistory.copy(), depth - 1, 1, -rootBeta, -rootAlpha, true);
+        if(isAborted()) {
+            return null;
+        }
+        final RootResult result = new RootResult(rootTransitions.size(), lineCount);
+        result.offer(first.getMove(), firstScore);
+
+        final List<Future<?>> futures = new ArrayList<>();
+        for(final MoveTransition transition : rootTransitions.subList(1, rootTransitions.size())) {
+            final Runnable rootMove = () -> {
+                final int alpha = result.getBound(rootAlpha);
+                final int score = -alphaBeta(config, transition.getTransitionBoard(), rootHistory.copy(), depth - 1, 1, -rootBeta, -alpha, true);
+                if(!isAborted()) {
+                    result.offer(transition.getMove(), score);
+                }
+            };
+            if(this.serialRoot) {
+                rootMove.run();
+            } else {
+                futures.add(SEARCH_POOL.submit(rootMove));
+            }
+        }
+        for(final Future<?> future : futures) {
+            if(!awaitRootMove(future)) {
+                return null;
+            }
+        }
+        return isAborted() ? null : result;
+    }
+
+    // waits for one root move, reporting an iteration that finished meanwhile
+    private boolean awaitRootMove(final Future<?> future) {
+        while(true) {
+            try {
+                future.get(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (final TimeoutException e) {
+                notifyListener();
+            } catch (final InterruptedException e) {
+                stop();
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (final ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
+
+    private int alphaBeta(final PruningConfig config,
+                          final Board board,
+                          final PositionHistory history,
+                          final int depth,
+                          final int ply,
+                          final int alpha,
+                          final int beta,
+                          final boolean allowNullMove) {
+        this.nodeCount.increment();
+        checkClock();
+        if(isAborted()) {
+            return 0;
+        }
+        history.push(board.getZobristHash());
+        try {
+            // a mate on the last move still wins, GameStatus looks for checkmate before the fifty move rule
+            if(board.getHalfMoveClock() >= GameStatus.FIFTY_MOVE_HALF_MOVES) {
+                return board.currentPlayer().isInCheckMate() ? -MATE_SCORE + ply : 0;
+            }
+            // inside the search one repetition is enough to call it a draw, the side ahead will avoid it
+            if(history.countRepetitions(board.getHalfMoveClock()) > 0) {
+                return 0;
+            }
+            int tableMove = TranspositionTable.NO_MOVE;
+            final long entry = this.transpositionTable.probe(board.getZobristHash());
+            if(entry != 0L) {
+                tableMove = TranspositionTable.move(entry);
+                if(TranspositionTable.depth(entry) >= depth) {
+                    final int score = TranspositionTable.scoreFromTable(TranspositionTable.score(entry), ply);
+                    final int bound = TranspositionTable.bound(entry);
+                    if(bound == TranspositionTable.EXACT ||
+                       (bound == TranspositionTable.LOWER_BOUND && score >= beta) ||
+                       (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+            return searchMoves(config, board, history, depth, ply, alpha, beta, allowNullMove, tableMove);
+        } finally {
+            history.pop();
+        }
+    }
+
+    private int searchMoves(final PruningConfig config,
+                            final Board board,
+                            final PositionHistory history,
+                            final int depth,
+                            final int ply,
+                            int alpha,
+                            final int beta,
+                            final boolean allowNullMove,
+                            final int tableMove) {
+        if(ply >= MAX_PLY) {
+            return evaluate(board, depth);
+        }
+        if(depth <= 0) {
+            return quiescence(board, ply, alpha, beta);
+        }
+        final boolean inCheck = board.currentPlayer().isInCheck();
+        // the static score only steers pruning, which is never tried in check or next to a mate score
+        final boolean canPrune = !inCheck && Math.abs(alpha) < MATE_SCORE - MAX_PLY && Math.abs(beta) < MATE_SCORE - MAX_PLY;
+        final int staticScore = canPrune ? evaluate(board, depth) : 0;
+
+        if(canPrune && config.isEnabled(PruningTechnique.REVERSE_FUTILITY) && depth <= config.getReverseFutilityMaxDepth()) {
+            this.pruningStatistics.record(PruningTechnique.REVERSE_FUTILITY, PruningStatistics.Counter.ATTEMPT);
+            if(staticScore - config.getReverseFutilityMargin() * depth >= beta) {
+                this.pruningStatistics.record(PruningTechnique.REVERSE_FUTILITY, PruningStatistics.Counter.CUTOFF);
+                return staticScore;
+            }
+        }
+
+        // with only pawns left passing can be the best move (zugzwang), so the null move proves nothing there
+        if(canPrune && allowNullMove && config.isEnabled(PruningTechnique.NULL_MOVE) &&
+           depth >= config.getNullMoveMinDepth() && staticScore >= beta && hasPiecesBesidesPawns(board)) {
+            this.pruningStatistics.record(PruningTechnique.NULL_MOVE, PruningStatistics.Counter.ATTEMPT);
+            final int score = -alphaBeta(config, makeNullMove(board), history, depth - 1 - config.getNullMoveReduction(),
+                                         ply + 1, -beta, -beta + 1, false);
+            if(score >= beta) {
+                this.pruningStatistics.record(PruningTechnique.NULL_MOVE, PruningStatistics.Counter.CUTOFF);
+                return beta;
+            }
+        }
+
+        final boolean futilityPruning = canPrune && config.isEnabled(PruningTechnique.FUTILITY) &&
+                                        depth <= config.getFutilityMaxDepth() &&
+                                        staticScore + config.getFutilityMargin() * depth <= alpha;
+        if(futilityPruning) {
+            this.pruningStatistics.record(PruningTechnique.FUTILITY, PruningStatistics.Counter.ATTEMPT);
+        }
+
+        final int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        Move bestMove = null;
+        boolean hasLegalMove = false;
+        int searchedMoves = 0;
+        final OrderedMoves moves = sortMoves(board, board.currentPlayer().getLegalMoves(), tableMove);
+        for(int i = 0; i < moves.size(); i++) {
+            final Move move = moves.getMove(i);
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            final Board child = transition.getTransitionBoard();
+            final boolean isQuiet = !StaticExchange.isTactical(move) && !child.currentPlayer().isInCheck();
+            if(futilityPruning && hasLegalMove && isQuiet) {
+                this.pruningStatistics.record(PruningTechnique.FUTILITY, PruningStatistics.Counter.CUTOFF);
+                bestScore = Math.max(bestScore, staticScore + config.getFutilityMargin() * depth);
+                continue;
+            }
+            hasLegalMove = true;
+            int score;
+            if(config.isEnabled(PruningTechnique.LATE_MOVE_REDUCTION) && !inCheck && isQuiet &&
+               depth >= config.getLateMoveMinDepth() && searchedMoves >= config.getLateMoveMinIndex()) {
+                this.pruningStatistics.record(PruningTechnique.LATE_MOVE_REDUCTION, PruningStatistics.Counter.ATTEMPT);
+                score = -alphaBeta(config, child, history, depth - 1 - config.getLateMoveReduction(), ply + 1, -alpha - 1, -alpha, true);
+                if(score > alpha) {
+                    this.pruningStatistics.record(PruningTechnique.LATE_MOVE_REDUCTION, PruningStatistics.Counter.RESEARCH);
+                    score = -alphaBeta(config, child, history, depth - 1, ply + 1, -beta, -alpha, true);
+                } else {
+                    this.pruningStatistics.record(PruningTechnique.LATE_MOVE_REDUCTION, PruningStatistics.Counter.CUTOFF);
+                }
+            } else {
+                score = -alphaBeta(config, child, history, depth - 1, ply + 1, -beta, -alpha, true);
+            }
+            searchedMoves++;
+            if(score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if(score > alpha) {
+                    alpha = score;
+                    if(alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if(!hasLegalMove) {
+            return board.currentPlayer().isInCheck() ? -MATE_SCORE + ply : 0;
+        }
+        // an aborted search returns made up scores, they must not reach the table
+        if(!isAborted()) {
+            final int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND :
+                              bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+            this.transpositionTable.store(board.getZobristHash(), depth, TranspositionTable.scoreToTable(bestScore, ply),
+                                          bound, TranspositionTable.encode(bestMove));
+        }
+        return bestScore;
+    }
+
+    // the same position with the other side to move. it is not a real move, so the half move clock starts
+    // again and no repetition is looked for across it
+    private static Board makeNullMove(final Board board) {
+        return Board.Builder.from(board)
+                            .setMoveMaker(board.currentPlayer().getOpponent().getAlliance())
+                            .setHalfMoveClock(0)
+                            .build();
+    }
+
+    private static boolean hasPiecesBesidesPawns(final Board board) {
+        for(final Piece piece : board.currentPlayer().getActivePieces()) {
+            if(piece.getPieceType() != Piece.PieceType.PAWN && !piece.getPieceType().isKing()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // searches captures and promotions until the position is quiet, so no score is taken in the middle of an exchange.
+    // the side to move may also stand pat on the static score, except in check where every move is searched
+    private int quiescence(final Board board,
+                           final int ply,
+                           int alpha,
+                           final int beta) {
+        this.nodeCount.increment();
+        checkClock();
+        if(isAborted()) {
+            return 0;
+        }
+        final boolean inCheck = board.currentPlayer().isInCheck();
+        if(ply >= MAX_PLY) {
+            return evaluate(board, 0);
+        }
+        int standPat = -INFINITY;
+        if(!inCheck) {
+            standPat = evaluate(board, 0);
+            if(standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+        }
+        int bestScore = standPat;
+        boolean hasLegalMove = false;
+        final OrderedMoves moves = sortMoves(board, board.currentPlayer().getLegalMoves(), TranspositionTable.NO_MOVE);
+        for(int i = 0; i < moves.size(); i++) {
+            final Move move = moves.getMove(i);
+            if(!inCheck) {
+                if(!StaticExchange.isTactical(move) || moves.getScore(i) < 0) {
+                    continue;
+                }
+                if(standPat + materialGain(move) + DELTA_MARGIN <= alpha) {
+                    continue;
+                }
+            }
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            hasLegalMove = true;
+            final int score = -quiescence(transition.getTransitionBoard(), ply + 1, -beta, -alpha);
+            if(score > bestScore) {
+                bestScore = score;
+                if(score > alpha) {
+                    alpha = score;
+                    if(alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if(inCheck && !hasLegalMove) {
+            return -MATE_SCORE + ply;
+        }
+        return bestScore;
+    }
+
+    // the evaluator scores for white, negamax wants the score for the side to move
+    private int evaluate(final Board board, final int depth) {
+        final int score = this.evaluator.evaluate(board, depth);
+        return board.currentPlayer().getAlliance().isWhite() ? score : -score;
+    }
+
+    private void checkClock() {
+        if((++this.timeCheckCounter & (TIME_CHECK_INTERVAL - 1)) == 0) {
+            final TimeManager clock = this.timeManager;
+            if(clock != null && clock.isHardLimitReached()) {
+                stop();
+            }
+            if(this.nodeLimit > 0 && this.nodeCount.sum() >= this.nodeLimit) {
+                stop();
+            }
+        }
+    }
+
+    // the first iteration always finishes so there is a move to play
+    private boolean isAborted() {
+        return this.stopRequested && this.completedDepth > 0;
+    }
+
+    // only when an iteration has finished since the last call, every iteration makes a new list of lines
+    private void notifyListener() {
+        if(this.searchListener != null && this.completedDepth > 0 && this.completedLines != this.notifiedLines) {
+            this.notifiedLines = this.completedLines;
+            this.searchListener.searchProgress(new SearchInfo(this.completedDepth, this.completedScore, getNodeCount(),
+                    System.nanoTime() - this.searchStartTime, this.completedBestMove, this.completedLines));
+        }
+    }
+
+    // captures that do not lose material by static exchange come first, most valuable victim and then
+    // least valuable attacker, then the quiet moves and last the captures that lose material.
+    // the move from the table goes before all of them
+    private static OrderedMoves sortMoves(final Board board, final Collection<Move> moves, final int tableMove) {
+        final OrderedMoves orderedMoves = new OrderedMoves(moves.size());
+        for(final Move move : moves) {
+            final boolean isTableMove = tableMove != TranspositionTable.NO_MOVE && Move.MoveFactory.encodeMove(move) == tableMove;
+            orderedMoves.add(move, isTableMove ? TABLE_MOVE_SCORE : orderingScore(board, move));
+        }
+        return orderedMoves;
+    }
+
+    private int tableMove(final Board board) {
+        final long entry = this.transpositionTable.probe(board.getZobristHash());
+        return entry != 0L ? TranspositionTable.move(entry) : TranspositionTable.NO_MOVE;
+    }
+
+    private static int orderingScore(final Board board, final Move move) {
+        if(!StaticExchange.isTactical(move)) {
+            return 0;
+        }
+        final int exchange = StaticExchange.evaluate(board, move);
+        return exchange >= 0 ? WINNING_CAPTURE_SCORE + mvvLva(move) : LOSING_CAPTURE_SCORE + exchange;
+    }
+
+    private static int mvvLva(final Move move) {
+        int score = 0;
+        if(move.isAttack()) {
+            score += 10 * move.getAttackedPiece().getPieceType().getPieceValue() -
+                     move.getMovedPiece().getPieceType().getPieceValue() / 100;
+        }
+        if(move instanceof Move.PawnPromotion) {
+            score += ((Move.PawnPromotion) move).getPromotionPiece().getPieceType().getPieceValue();
+        }
+        return score;
+    }
+
+    // the most material the move can win, before any recapture
+    private static int materialGain(final Move move) {
+        int gain = move.isAttack() ? move.getAttackedPiece().getPieceType().getPieceValue() : 0;
+        if(move instanceof Move.PawnPromotion) {
+            gain += ((Move.PawnPromotion) move).getPromotionPiece().getPieceType().getPieceValue() -
+                    Piece.PieceType.PAWN.getPieceValue();
+        }
+        return gain;
+    }
+
+    private static void moveToFront(final List<MoveTransition> transitions, final Move move) {
+        for(int i = 0; i < transitions.size(); i++) {
+            if(transitions.get(i).getMove().equals(move)) {
+                transitions.add(0, transitions.remove(i));
+                return;
+            }
+        }
+    }
+
+    private static ExecutorService createSearchPool() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(runnable, "search-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory);
+    }
+
+    // moves kept in order of their ordering score, highest first
+    private static final class OrderedMoves {
+
+        private final Move[] moves;
+        private final int[] scores;
+        private int size;
+
+        OrderedMoves(final int capacity) {
+            this.moves = new Move[capacity];
+            this.scores = new int[capacity];
+        }
+
+        // insertion sort, the lists are short and equal scores keep the generation order
+        void add(final Move move, final int score) {
+            int i = this.size++;
+            while(i > 0 && this.scores[i - 1] < score) {
+                this.moves[i] = this.moves[i - 1];
+                this.scores[i] = this.scores[i - 1];
+                i--;
+            }
+            this.moves[i] = move;
+            this.scores[i] = score;
+        }
+
+        int size() { return this.size; }
+        Move getMove(final int index) { return this.moves[index]; }
+        int getScore(final int index) { return this.scores[index]; }
+    }
+
+    // the scored root moves of one iteration, best first. a score at or below the bound it was searched
+    // with is only an upper bound, but such a move can never rank among the lines
+    private static final class RootResult {
+
+        private final Move[] moves;
+        private final int[] scores;
+        private final int lineCount;
+        private int size;
+
+        RootResult(final int capacity, final int lineCount) {
+            this.moves = new Move[capacity];
+            this.scores = new int[capacity];
+            this.lineCount = lineCount;
+        }
+
+        // a later move keeps its place behind an earlier one with the same score
+        synchronized void offer(final Move move, final int score) {
+            int i = this.size++;
+            while(i > 0 && this.scores[i - 1] < score) {
+                this.moves[i] = this.moves[i - 1];
+                this.scores[i] = this.scores[i - 1];
+                i--;
+            }
+            this.moves[i] = move;
+            this.scores[i] = score;
+        }
+
+        // a root move has to beat the last of the lines to get in
+        synchronized int getBound(final int rootAlpha) {
+            return this.size < this.lineCount ? rootAlpha : Math.max(rootAlpha, this.scores[this.lineCount - 1]);
+        }
+
+        synchronized Move getMove(final int rank) { return this.moves[rank]; }
+        synchronized int getScore(final int rank) { return this.scores[rank]; }
+    }
+}
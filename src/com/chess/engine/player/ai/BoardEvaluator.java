@@ -0,0 +1,10 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+
+public interface BoardEvaluator {
+
+    // positive scores favour white, negative scores favour black
+    int evaluate(Board board, int depth);
+
+}
@@ -0,0 +1,139 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.pieces.Piece;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// The weights of LinearEvaluator in centipawns, one flat array so a tuner can treat them alike.
+// Each group is a run of the array; the file format is one line per group, its name and then its values:
+//     material 100 300 330 500 900
+//     pst.P 0 0 0 ... (64 values, a8 first, from white's side)
+public final class EvaluationParameters {
+
+    // material for pawn to queen, the kings always cancel
+    public static final int MATERIAL = 0;
+    // a table of 64 squares per piece type, indexed from white's side
+    public static final int PIECE_SQUARE = MATERIAL + 5;
+    public static final int MOBILITY = PIECE_SQUARE + 6 * 64;
+    public static final int CHECK = MOBILITY + 1;
+    // the PawnStructure terms in their order
+    public static final int PAWN = CHECK + 1;
+    public static final int SHIELD_ADVANCED = PAWN + PawnStructure.PAWN_TERMS;
+    public static final int SHIELD_MISSING = SHIELD_ADVANCED + 1;
+    public static final int SIZE = SHIELD_MISSING + 1;
+
+    private static final String[] GROUP_NAMES = createGroupNames();
+    private static final int[] GROUP_OFFSETS = createGroupOffsets();
+
+    private final int[] values;
+
+    private EvaluationParameters(final int[] values) {
+        if(values.length != SIZE) {
+            throw new IllegalArgumentException("Expected " + SIZE + " parameters, not " + values.length);
+        }
+        this.values = values;
+    }
+
+    // the weights StandardBoardEvaluator uses, with empty piece-square tables
+    public static EvaluationParameters getDefault() {
+        final int[] values = new int[SIZE];
+        for(final Piece.PieceType type : Piece.PieceType.values()) {
+            if(!type.isKing()) {
+                values[MATERIAL + type.ordinal()] = type.getPieceValue();
+            }
+        }
+        values[MOBILITY] = 2;
+        values[CHECK] = 50;
+        System.arraycopy(PawnStructure.DEFAULT_PAWN_WEIGHTS, 0, values, PAWN, PawnStructure.PAWN_TERMS);
+        values[SHIELD_ADVANCED] = PawnStructure.DEFAULT_SHIELD_ADVANCED;
+        values[SHIELD_MISSING] = PawnStructure.DEFAULT_SHIELD_MISSING;
+        return new EvaluationParameters(values);
+    }
+
+    public static EvaluationParameters of(final int[] values) {
+        return new EvaluationParameters(values.clone());
+    }
+
+    public static EvaluationParameters load(final Path path) throws IOException {
+        final int[] values = getDefault().values;
+        try(final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final String[] fields = line.split("\\s+");
+                final int group = Arrays.asList(GROUP_NAMES).indexOf(fields[0]);
+                if(group < 0) {
+                    throw new IOException("Unknown parameter group " + fields[0]);
+                }
+                final int length = GROUP_OFFSETS[group + 1] - GROUP_OFFSETS[group];
+                if(fields.length - 1 != length) {
+                    throw new IOException(fields[0] + " needs " + length + " values, not " + (fields.length - 1));
+                }
+                for(int i = 0; i < length; i++) {
+                    values[GROUP_OFFSETS[group] + i] = Integer.parseInt(fields[i + 1]);
+                }
+            }
+        }
+        return new EvaluationParameters(values);
+    }
+
+    public void save(final Path path) throws IOException {
+        try(final BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("# evaluation parameters in centipawns, read by EvaluationParameters.load");
+            writer.newLine();
+            for(int group = 0; group < GROUP_NAMES.length; group++) {
+                writer.write(GROUP_NAMES[group]);
+                for(int i = GROUP_OFFSETS[group]; i < GROUP_OFFSETS[group + 1]; i++) {
+                    writer.write(' ');
+                    writer.write(Integer.toString(this.values[i]));
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    public int get(final int index) {
+        return this.values[index];
+    }
+
+    public int[] toArray() {
+        return this.values.clone();
+    }
+
+    private static String[] createGroupNames() {
+        final String[] names = new String[6 + 4 + 1];
+        names[0] = "material";
+        for(final Piece.PieceType type : Piece.PieceType.values()) {
+            names[1 + type.ordinal()] = "pst." + type;
+        }
+        names[7] = "mobility";
+        names[8] = "check";
+        names[9] = "pawn";
+        names[10] = "shield";
+        return names;
+    }
+
+    // where each group starts, with SIZE after the last one
+    private static int[] createGroupOffsets() {
+        final int[] offsets = new int[GROUP_NAMES.length + 1];
+        offsets[0] = MATERIAL;
+        for(int type = 0; type < 6; type++) {
+            offsets[1 + type] = PIECE_SQUARE + type * 64;
+        }
+        offsets[7] = MOBILITY;
+        offsets[8] = CHECK;
+        offsets[9] = PAWN;
+        offsets[10] = SHIELD_ADVANCED;
+        offsets[11] = SIZE;
+        return offsets;
+    }
+}
@@ -0,0 +1,89 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.pieces.Piece;
+
+import java.util.Arrays;
+
+// An evaluation that is a weighted sum of features, with the weights in EvaluationParameters:
+// material, piece-square tables, mobility, check and the PawnStructure terms. Every feature is
+// counted for white minus black, so the score is the dot product of the weights and extractFeatures.
+// With the default parameters it scores like StandardBoardEvaluator; a tuner can change all of them.
+public final class LinearEvaluator implements BoardEvaluator {
+
+    private final EvaluationParameters parameters;
+    private final int[] pawnWeights;
+    // its own table, the pawn scores in it are for these weights
+    private final PawnHashTable pawnHashTable;
+
+    public LinearEvaluator(final EvaluationParameters parameters) {
+        this.parameters = parameters;
+        this.pawnWeights = new int[PawnStructure.PAWN_TERMS];
+        for(int term = 0; term < PawnStructure.PAWN_TERMS; term++) {
+            this.pawnWeights[term] = parameters.get(EvaluationParameters.PAWN + term);
+        }
+        this.pawnHashTable = new PawnHashTable();
+    }
+
+    public EvaluationParameters getParameters() {
+        return this.parameters;
+    }
+
+    @Override
+    public int evaluate(final Board board, final int depth) {
+        int score = 0;
+        for(final Piece piece : board.getAllPieces()) {
+            final int sign = piece.getPieceAlliance().isWhite() ? 1 : -1;
+            if(!piece.getPieceType().isKing()) {
+                score += sign * this.parameters.get(EvaluationParameters.MATERIAL + piece.getPieceType().ordinal());
+            }
+            score += sign * this.parameters.get(pieceSquareIndex(piece));
+        }
+        score += this.parameters.get(EvaluationParameters.MOBILITY) *
+                 (board.whitePlayer().getLegalMoves().size() - board.blackPlayer().getLegalMoves().size());
+        score += this.parameters.get(EvaluationParameters.CHECK) * checkFeature(board);
+        return score + PawnStructure.evaluate(board, this.pawnHashTable, this.pawnWeights,
+                                              this.parameters.get(EvaluationParameters.SHIELD_ADVANCED),
+                                              this.parameters.get(EvaluationParameters.SHIELD_MISSING));
+    }
+
+    // fills features (EvaluationParameters.SIZE long) with how often each weight counts for white minus black
+    public static void extractFeatures(final Board board, final int[] features) {
+        Arrays.fill(features, 0);
+        for(final Piece piece : board.getAllPieces()) {
+            final int sign = piece.getPieceAlliance().isWhite() ? 1 : -1;
+            if(!piece.getPieceType().isKing()) {
+                features[EvaluationParameters.MATERIAL + piece.getPieceType().ordinal()] += sign;
+            }
+            features[pieceSquareIndex(piece)] += sign;
+        }
+        features[EvaluationParameters.MOBILITY] = board.whitePlayer().getLegalMoves().size() - board.blackPlayer().getLegalMoves().size();
+        features[EvaluationParameters.CHECK] = checkFeature(board);
+
+        final long white = PawnStructure.pawnMask(board, Alliance.WHITE);
+        final long black = PawnStructure.pawnMask(board, Alliance.BLACK);
+        final int[] whiteTerms = new int[PawnStructure.PAWN_TERMS];
+        final int[] blackTerms = new int[PawnStructure.PAWN_TERMS];
+        PawnStructure.countPawnTerms(white, black, Alliance.WHITE, whiteTerms);
+        PawnStructure.countPawnTerms(black, white, Alliance.BLACK, blackTerms);
+        for(int term = 0; term < PawnStructure.PAWN_TERMS; term++) {
+            features[EvaluationParameters.PAWN + term] = whiteTerms[term] - blackTerms[term];
+        }
+        final int whiteShield = PawnStructure.countShield(white, board.whitePlayer().getPlayerKing().getPiecePosition(), Alliance.WHITE);
+        final int blackShield = PawnStructure.countShield(black, board.blackPlayer().getPlayerKing().getPiecePosition(), Alliance.BLACK);
+        features[EvaluationParameters.SHIELD_ADVANCED] = PawnStructure.shieldAdvanced(whiteShield) - PawnStructure.shieldAdvanced(blackShield);
+        features[EvaluationParameters.SHIELD_MISSING] = PawnStructure.shieldMissing(whiteShield) - PawnStructure.shieldMissing(blackShield);
+    }
+
+    // black pieces read the table upside down, tile 0 is a8 so that is xor 56
+    private static int pieceSquareIndex(final Piece piece) {
+        final int square = piece.getPieceAlliance().isWhite() ? piece.getPiecePosition() : piece.getPiecePosition() ^ 56;
+        return EvaluationParameters.PIECE_SQUARE + piece.getPieceType().ordinal() * 64 + square;
+    }
+
+    // the side giving check gets the bonus
+    private static int checkFeature(final Board board) {
+        return (board.blackPlayer().isInCheck() ? 1 : 0) - (board.whitePlayer().isInCheck() ? 1 : 0);
+    }
+}
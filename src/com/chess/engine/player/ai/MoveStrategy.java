@@ -0,0 +1,11 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+// a way of choosing the move for the side to play on a board
+public interface MoveStrategy {
+
+    Move execute(Board board);
+
+}
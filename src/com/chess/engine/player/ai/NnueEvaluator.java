@@ -0,0 +1,197 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Evaluates with an NnueNetwork. The first layer is an accumulator per side that is the sum of the
+// weight columns of the pieces on the board. A board is reached by a move from the board before it,
+// so its accumulator is the parent's with the columns of the pieces the move took off subtracted and
+// the ones it put on added, a few columns instead of all of them.
+// Accumulators are cached per search thread by Zobrist hash; a board whose parent is not cached
+// either walks up the moves that led to it or, past a few moves, is summed from scratch.
+public final class NnueEvaluator implements BoardEvaluator {
+
+    private static final int CACHE_ENTRIES = 1 << 12;
+    // parents further up than this are cheaper to sum again than to walk to
+    private static final int MAX_UPDATE_CHAIN = 8;
+
+    private final NnueNetwork network;
+    private final ThreadLocal<AccumulatorCache> accumulatorCache;
+
+    public NnueEvaluator(final NnueNetwork network) {
+        this.network = network;
+        this.accumulatorCache = ThreadLocal.withInitial(() -> new AccumulatorCache(network.getHiddenSize()));
+    }
+
+    public static NnueEvaluator load(final Path path) throws IOException {
+        return new NnueEvaluator(NnueNetwork.load(path));
+    }
+
+    public NnueNetwork getNetwork() {
+        return this.network;
+    }
+
+    @Override
+    public int evaluate(final Board board, final int depth) {
+        final short[] accumulator = accumulator(this.accumulatorCache.get(), board, MAX_UPDATE_CHAIN);
+        final boolean whiteToMove = board.currentPlayer().getAlliance().isWhite();
+        final int score = forward(accumulator, whiteToMove);
+        return whiteToMove ? score : -score;
+    }
+
+    // the white half of the array is the accumulator seen from white, the black half from black
+    private short[] accumulator(final AccumulatorCache cache,
+                                final Board board,
+                                final int chain) {
+        final long hash = board.getZobristHash();
+        final short[] cached = cache.probe(hash);
+        if(cached != null) {
+            return cached;
+        }
+        final Move move = board.getTransitionMove();
+        final Board parent = move.getBoard();
+        if(parent == null || chain == 0 || move == Move.MoveFactory.getNullMove()) {
+            final short[] accumulator = cache.claim(hash);
+            refresh(board, accumulator);
+            return accumulator;
+        }
+        final short[] parentAccumulator = accumulator(cache, parent, chain - 1);
+        final short[] accumulator = cache.claim(hash);
+        if(accumulator != parentAccumulator) {
+            System.arraycopy(parentAccumulator, 0, accumulator, 0, accumulator.length);
+        }
+        update(parent, board, move, accumulator);
+        return accumulator;
+    }
+
+    private void refresh(final Board board, final short[] accumulator) {
+        final int hidden = this.network.getHiddenSize();
+        final short[] biases = this.network.getFeatureBiases();
+        System.arraycopy(biases, 0, accumulator, 0, hidden);
+        System.arraycopy(biases, 0, accumulator, hidden, hidden);
+        for(final Piece piece : board.getAllPieces()) {
+            addPiece(accumulator, piece, piece.getPiecePosition());
+        }
+    }
+
+    // only the squares the move touched can differ from the parent
+    private void update(final Board parent,
+                        final Board board,
+                        final Move move,
+                        final short[] accumulator) {
+        if(move.isCastlingMove()) {
+            // king and rook stay on their first rank
+            final int rankStart = move.getCurrentCoordinate() - BoardUtils.getColumn(move.getCurrentCoordinate());
+            for(int square = rankStart; square < rankStart + BoardUtils.NUM_TILES_PER_ROW; square++) {
+                updateSquare(parent, board, square, accumulator);
+            }
+            return;
+        }
+        updateSquare(parent, board, move.getCurrentCoordinate(), accumulator);
+        updateSquare(parent, board, move.getDestinationCoordinate(), accumulator);
+        final Piece attackedPiece = move.getAttackedPiece();
+        if(attackedPiece != null && attackedPiece.getPiecePosition() != move.getDestinationCoordinate()) {
+            updateSquare(parent, board, attackedPiece.getPiecePosition(), accumulator);
+        }
+    }
+
+    private void updateSquare(final Board parent,
+                              final Board board,
+                              final int square,
+                              final short[] accumulator) {
+        final Piece before = parent.getPiece(square);
+        final Piece after = board.getPiece(square);
+        if(before != null && after != null &&
+           before.getPieceType() == after.getPieceType() && before.getPieceAlliance() == after.getPieceAlliance()) {
+            return;
+        }
+        if(before != null) {
+            subtractPiece(accumulator, before, square);
+        }
+        if(after != null) {
+            addPiece(accumulator, after, square);
+        }
+    }
+
+    // the loops are plain counted loops over short arrays, the shape the JIT vectorises on its own.
+    // they stay scalar Java: the incubator Vector API needs --add-modules, which java -jar cannot take from
+    // the jar's manifest, so GUIs starting engine-core.jar could not run it
+    private void addPiece(final short[] accumulator, final Piece piece, final int square) {
+        final int hidden = this.network.getHiddenSize();
+        final short[] weights = this.network.getFeatureWeights();
+        final int white = NnueNetwork.featureIndex(Alliance.WHITE, piece.getPieceAlliance(), piece.getPieceType(), square) * hidden;
+        final int black = NnueNetwork.featureIndex(Alliance.BLACK, piece.getPieceAlliance(), piece.getPieceType(), square) * hidden;
+        for(int i = 0; i < hidden; i++) {
+            accumulator[i] += weights[white + i];
+        }
+        for(int i = 0; i < hidden; i++) {
+            accumulator[hidden + i] += weights[black + i];
+        }
+    }
+
+    private void subtractPiece(final short[] accumulator, final Piece piece, final int square) {
+        final int hidden = this.network.getHiddenSize();
+        final short[] weights = this.network.getFeatureWeights();
+        final int white = NnueNetwork.featureIndex(Alliance.WHITE, piece.getPieceAlliance(), piece.getPieceType(), square) * hidden;
+        final int black = NnueNetwork.featureIndex(Alliance.BLACK, piece.getPieceAlliance(), piece.getPieceType(), square) * hidden;
+        for(int i = 0; i < hidden; i++) {
+            accumulator[i] -= weights[white + i];
+        }
+        for(int i = 0; i < hidden; i++) {
+            accumulator[hidden + i] -= weights[black + i];
+        }
+    }
+
+    // the score for the side to move, in centipawns
+    private int forward(final short[] accumulator, final boolean whiteToMove) {
+        final int hidden = this.network.getHiddenSize();
+        final short[] outputWeights = this.network.getOutputWeights();
+        final int us = whiteToMove ? 0 : hidden;
+        final int them = whiteToMove ? hidden : 0;
+        long sum = 0;
+        for(int i = 0; i < hidden; i++) {
+            sum += clippedRelu(accumulator[us + i]) * outputWeights[i];
+        }
+        for(int i = 0; i < hidden; i++) {
+            sum += clippedRelu(accumulator[them + i]) * outputWeights[hidden + i];
+        }
+        return (int) ((sum + this.network.getOutputBias()) * NnueNetwork.OUTPUT_SCALE / (NnueNetwork.QA * NnueNetwork.QB));
+    }
+
+    private static int clippedRelu(final short value) {
+        return Math.min(Math.max(value, 0), NnueNetwork.QA);
+    }
+
+    // direct mapped, one accumulator pair per slot, owned by a single search thread
+    private static final class AccumulatorCache {
+
+        private final long[] keys;
+        private final short[][] accumulators;
+        private final boolean[] used;
+
+        AccumulatorCache(final int hiddenSize) {
+            this.keys = new long[CACHE_ENTRIES];
+            this.accumulators = new short[CACHE_ENTRIES][2 * hiddenSize];
+            this.used = new boolean[CACHE_ENTRIES];
+        }
+
+        short[] probe(final long hash) {
+            final int index = (int) hash & (CACHE_ENTRIES - 1);
+            return this.used[index] && this.keys[index] == hash ? this.accumulators[index] : null;
+        }
+
+        // the slot for the hash, its old contents are about to be overwritten
+        short[] claim(final long hash) {
+            final int index = (int) hash & (CACHE_ENTRIES - 1);
+            this.keys[index] = hash;
+            this.used[index] = true;
+            return this.accumulators[index];
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// The weights of a quantised two-layer network: 768 piece-square inputs seen from one side,
+// a hidden layer of int16 accumulators with clipped ReLU, and one output over both sides' hidden layers,
+// the side to move first. Inputs are (own or enemy piece, type, square), the square mirrored for black,
+// so the same weights serve both sides.
+//
+// File layout, big endian: magic, version, hidden size, feature weights (input-major, a column of hidden
+// size per input), feature biases, output weights (side to move then the other side), output bias.
+public final class NnueNetwork {
+
+    public static final int INPUTS = 2 * 6 * 64;
+
+    // the hidden layer is clipped to [0, QA], output weights are in units of 1 / QB
+    static final int QA = 255;
+    static final int QB = 64;
+    // turns the network output into centipawns
+    static final int OUTPUT_SCALE = 400;
+
+    private static final int MAGIC = 0x4E4E5545;
+    private static final int VERSION = 1;
+
+    private final int hiddenSize;
+    private final short[] featureWeights;
+    private final short[] featureBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+
+    private NnueNetwork(final int hiddenSize,
+                        final short[] featureWeights,
+                        final short[] featureBiases,
+                        final short[] outputWeights,
+                        final int outputBias) {
+        this.hiddenSize = hiddenSize;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    public static NnueNetwork load(final Path path) throws IOException {
+        try(final InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    public static NnueNetwork read(final InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if(data.readInt() != MAGIC) {
+            throw new IOException("Not a network file");
+        }
+        final int version = data.readInt();
+        if(version != VERSION) {
+            throw new IOException("Unsupported network version " + version);
+        }
+        final int hiddenSize = data.readInt();
+        if(hiddenSize <= 0 || hiddenSize > 4096) {
+            throw new IOException("Bad hidden layer size " + hiddenSize);
+        }
+        final short[] featureWeights = readShorts(data, INPUTS * hiddenSize);
+        final short[] featureBiases = readShorts(data, hiddenSize);
+        final short[] outputWeights = readShorts(data, 2 * hiddenSize);
+        final int outputBias = data.readInt();
+        return new NnueNetwork(hiddenSize, featureWeights, featureBiases, outputWeights, outputBias);
+    }
+
+    public void write(final OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(this.hiddenSize);
+        writeShorts(data, this.featureWeights);
+        writeShorts(data, this.featureBiases);
+        writeShorts(data, this.outputWeights);
+        data.writeInt(this.outputBias);
+        data.flush();
+    }
+
+    // a hand-set network that only counts material: hidden unit t counts the own pieces of type t.
+    // it scores like the material part of StandardBoardEvaluator, which makes it a known answer for
+    // checking the incremental updates and a baseline for the speed of the evaluator
+    public static NnueNetwork materialNetwork(final int hiddenSize) {
+        final int units = Piece.PieceType.values().length - 1;
+        if(hiddenSize < units) {
+            throw new IllegalArgumentException("A material network needs at least " + units + " hidden units");
+        }
+        final int countWeight = 16;
+        final short[] featureWeights = new short[INPUTS * hiddenSize];
+        final short[] outputWeights = new short[2 * hiddenSize];
+        for(final Piece.PieceType type : Piece.PieceType.values()) {
+            if(type.isKing()) {
+                continue;
+            }
+            for(int square = 0; square < 64; square++) {
+                featureWeights[featureIndex(Alliance.WHITE, Alliance.WHITE, type, square) * hiddenSize + type.ordinal()] = countWeight;
+            }
+            final short value = (short) Math.round((double) type.getPieceValue() * QA * QB / (countWeight * OUTPUT_SCALE));
+            outputWeights[type.ordinal()] = value;
+            outputWeights[hiddenSize + type.ordinal()] = (short) -value;
+        }
+        return new NnueNetwork(hiddenSize, featureWeights, new short[hiddenSize], outputWeights, 0);
+    }
+
+    // the input for a piece seen from perspective's side of the board
+    static int featureIndex(final Alliance perspective,
+                            final Alliance pieceAlliance,
+                            final Piece.PieceType type,
+                            final int square) {
+        final int side = pieceAlliance == perspective ? 0 : 1;
+        // tile 0 is a8, so flipping the rank for black is xor 56
+        final int relativeSquare = perspective.isWhite() ? square : square ^ 56;
+        return (side * 6 + type.ordinal()) * 64 + relativeSquare;
+    }
+
+    public int getHiddenSize() {
+        return this.hiddenSize;
+    }
+
+    short[] getFeatureWeights() { return this.featureWeights; }
+    short[] getFeatureBiases() { return this.featureBiases; }
+    short[] getOutputWeights() { return this.outputWeights; }
+    int getOutputBias() { return this.outputBias; }
+
+    private static short[] readShorts(final DataInputStream data, final int count) throws IOException {
+        final short[] values = new short[count];
+        for(int i = 0; i < count; i++) {
+            values[i] = data.readShort();
+        }
+        return values;
+    }
+
+    private static void writeShorts(final DataOutputStream data, final short[] values) throws IOException {
+        for(final short value : values) {
+            data.writeShort(value);
+        }
+    }
+}
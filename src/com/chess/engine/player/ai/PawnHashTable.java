@@ -0,0 +1,100 @@
+package com.chess.engine.player.ai;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Pawn structure results by pawn hash. Pawns move far less often than the other pieces, so most
+// positions the search meets share their pawns with one it has already scored.
+// An entry keeps the score and the two pawn masks, so the king shelter can be read without looking at the board.
+// Like the transposition table it is shared without locks: the key is stored mixed with the data
+// and a torn entry fails the check and reads as a miss.
+public final class PawnHashTable {
+
+    private static final int DEFAULT_ENTRIES = 1 << 16;
+
+    private final long[] keys;
+    private final long[] whitePawns;
+    private final long[] blackPawns;
+    private final int[] scores;
+    private final int mask;
+    private final LongAdder probes;
+    private final LongAdder hits;
+
+    public PawnHashTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    // entries is rounded down to a power of two
+    public PawnHashTable(final int entries) {
+        final int size = Integer.highestOneBit(Math.max(entries, 1024));
+        this.keys = new long[size];
+        this.whitePawns = new long[size];
+        this.blackPawns = new long[size];
+        this.scores = new int[size];
+        this.mask = size - 1;
+        this.probes = new LongAdder();
+        this.hits = new LongAdder();
+    }
+
+    // on a hit copies the entry into entry as white pawns, black pawns and score, and returns true.
+    // the fields are read once into locals and those are checked, so a store by another thread
+    // between the check and the use cannot hand back parts of two different entries
+    boolean probe(final long pawnHash, final long[] entry) {
+        this.probes.increment();
+        final int index = (int) pawnHash & this.mask;
+        final long key = this.keys[index];
+        final long white = this.whitePawns[index];
+        final long black = this.blackPawns[index];
+        final int score = this.scores[index];
+        if(key != check(pawnHash, white, black, score)) {
+            return false;
+        }
+        this.hits.increment();
+        entry[0] = white;
+        entry[1] = black;
+        entry[2] = score;
+        return true;
+    }
+
+    void store(final long pawnHash,
+               final long white,
+               final long black,
+               final int score) {
+        final int index = (int) pawnHash & this.mask;
+        this.whitePawns[index] = white;
+        this.blackPawns[index] = black;
+        this.scores[index] = score;
+        this.keys[index] = check(pawnHash, white, black, score);
+    }
+
+    // the empty table has all zeros, so an empty slot must not check out for the hash of no pawns
+    private static long check(final long pawnHash,
+                              final long white,
+                              final long black,
+                              final int score) {
+        return pawnHash ^ white ^ Long.rotateLeft(black, 17) ^ ((long) score << 40) ^ 0x9E3779B97F4A7C15L;
+    }
+
+    public void clear() {
+        for(int i = 0; i < this.keys.length; i++) {
+            this.keys[i] = 0L;
+            this.whitePawns[i] = 0L;
+            this.blackPawns[i] = 0L;
+            this.scores[i] = 0;
+        }
+        this.probes.reset();
+        this.hits.reset();
+    }
+
+    public int getCapacity() {
+        return this.keys.length;
+    }
+
+    public long getProbeCount() {
+        return this.probes.sum();
+    }
+
+    public double getHitRate() {
+        final long probeCount = this.probes.sum();
+        return probeCount > 0 ? (double) this.hits.sum() / probeCount : 0.0;
+    }
+}
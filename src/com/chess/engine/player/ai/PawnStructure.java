@@ -0,0 +1,205 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+
+// Pawn structure terms: doubled, isolated, backward and passed pawns, which depend on the pawns only
+// and are cached in a PawnHashTable, and the pawn shield in front of each king, which is worked out
+// from the cached pawn masks on every call. Bit n of a mask is tile n, so a8 is bit 0 and h1 is bit 63.
+public final class PawnStructure {
+
+    // the pawn-only terms, each counted per side
+    static final int DOUBLED = 0;
+    static final int ISOLATED = 1;
+    static final int BACKWARD = 2;
+    // PASSED plus how far the pawn has come, its starting rank is 1
+    static final int PASSED = 3;
+    static final int PAWN_TERMS = PASSED + BoardUtils.NUM_TILES_PER_ROW;
+
+    static final int[] DEFAULT_PAWN_WEIGHTS = {-15, -15, -10, 0, 5, 10, 20, 35, 60, 100, 0};
+    static final int DEFAULT_SHIELD_ADVANCED = -10;
+    static final int DEFAULT_SHIELD_MISSING = -25;
+
+    private static final long[] FILE_MASKS = new long[BoardUtils.NUM_TILES_PER_ROW];
+    private static final long[] ADJACENT_FILE_MASKS = new long[BoardUtils.NUM_TILES_PER_ROW];
+    // squares that must be free of enemy pawns for the pawn to be passed
+    private static final long[][] PASSED_MASKS = new long[2][BoardUtils.NUM_TILES];
+    // squares a friendly pawn could defend the pawn from, beside it or behind it on the next files
+    private static final long[][] SUPPORT_MASKS = new long[2][BoardUtils.NUM_TILES];
+    // where a probe copies the entry it found, one per thread as the table is shared by the search threads
+    private static final ThreadLocal<long[]> PROBED_ENTRY = ThreadLocal.withInitial(() -> new long[3]);
+
+    static {
+        for(int file = 0; file < BoardUtils.NUM_TILES_PER_ROW; file++) {
+            FILE_MASKS[file] = 0x0101010101010101L << file;
+        }
+        for(int file = 0; file < BoardUtils.NUM_TILES_PER_ROW; file++) {
+            ADJACENT_FILE_MASKS[file] = (file > 0 ? FILE_MASKS[file - 1] : 0L) |
+                                        (file < BoardUtils.NUM_TILES_PER_ROW - 1 ? FILE_MASKS[file + 1] : 0L);
+        }
+        for(int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final int row = BoardUtils.getRow(square);
+            final int file = BoardUtils.getColumn(square);
+            final long frontFiles = FILE_MASKS[file] | ADJACENT_FILE_MASKS[file];
+            for(int other = 0; other < BoardUtils.NUM_TILES; other++) {
+                final long bit = 1L << other;
+                final int otherRow = BoardUtils.getRow(other);
+                // white pawns move towards row 0, black pawns towards row 7
+                if((frontFiles & bit) != 0 && otherRow < row) {
+                    PASSED_MASKS[Alliance.WHITE.ordinal()][square] |= bit;
+                }
+                if((frontFiles & bit) != 0 && otherRow > row) {
+                    PASSED_MASKS[Alliance.BLACK.ordinal()][square] |= bit;
+                }
+                if((ADJACENT_FILE_MASKS[file] & bit) != 0 && otherRow >= row) {
+                    SUPPORT_MASKS[Alliance.WHITE.ordinal()][square] |= bit;
+                }
+                if((ADJACENT_FILE_MASKS[file] & bit) != 0 && otherRow <= row) {
+                    SUPPORT_MASKS[Alliance.BLACK.ordinal()][square] |= bit;
+                }
+            }
+        }
+    }
+
+    private PawnStructure() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    // positive scores favour white
+    public static int evaluate(final Board board, final PawnHashTable table) {
+        return evaluate(board, table, DEFAULT_PAWN_WEIGHTS, DEFAULT_SHIELD_ADVANCED, DEFAULT_SHIELD_MISSING);
+    }
+
+    // with other weights, the table must only ever be used with these weights
+    static int evaluate(final Board board,
+                        final PawnHashTable table,
+                        final int[] pawnWeights,
+                        final int shieldAdvanced,
+                        final int shieldMissing) {
+        final long pawnHash = board.getPawnHash();
+        final long[] entry = PROBED_ENTRY.get();
+        final long white;
+        final long black;
+        final int pawnScore;
+        if(table.probe(pawnHash, entry)) {
+            white = entry[0];
+            black = entry[1];
+            pawnScore = (int) entry[2];
+        } else {
+            white = pawnMask(board, Alliance.WHITE);
+            black = pawnMask(board, Alliance.BLACK);
+            pawnScore = scorePawns(white, black, Alliance.WHITE, pawnWeights) - scorePawns(black, white, Alliance.BLACK, pawnWeights);
+            table.store(pawnHash, white, black, pawnScore);
+        }
+        final int whiteShield = countShield(white, board.whitePlayer().getPlayerKing().getPiecePosition(), Alliance.WHITE);
+        final int blackShield = countShield(black, board.blackPlayer().getPlayerKing().getPiecePosition(), Alliance.BLACK);
+        return pawnScore +
+               (shieldAdvanced(whiteShield) - shieldAdvanced(blackShield)) * shieldAdvanced +
+               (shieldMissing(whiteShield) - shieldMissing(blackShield)) * shieldMissing;
+    }
+
+    static long pawnMask(final Board board, final Alliance alliance) {
+        long mask = 0L;
+        for(final Piece piece : alliance.isWhite() ? board.getWhitePieces() : board.getBlackPieces()) {
+            if(piece.getPieceType() == Piece.PieceType.PAWN) {
+                mask |= 1L << piece.getPiecePosition();
+            }
+        }
+        return mask;
+    }
+
+    // the pawn-only terms for one side, positive is good for that side
+    private static int scorePawns(final long own,
+                                  final long enemy,
+                                  final Alliance alliance,
+                                  final int[] pawnWeights) {
+        final int[] counts = new int[PAWN_TERMS];
+        countPawnTerms(own, enemy, alliance, counts);
+        int score = 0;
+        for(int term = 0; term < PAWN_TERMS; term++) {
+            score += counts[term] * pawnWeights[term];
+        }
+        return score;
+    }
+
+    // adds how often one side has each pawn-only term to counts
+    static void countPawnTerms(final long own,
+                               final long enemy,
+                               final Alliance alliance,
+                               final int[] counts) {
+        for(int file = 0; file < BoardUtils.NUM_TILES_PER_ROW; file++) {
+            final int onFile = Long.bitCount(own & FILE_MASKS[file]);
+            if(onFile > 1) {
+                counts[DOUBLED] += onFile - 1;
+            }
+        }
+        long pawns = own;
+        while(pawns != 0) {
+            final int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            final int file = BoardUtils.getColumn(square);
+            final boolean isolated = (own & ADJACENT_FILE_MASKS[file]) == 0;
+            if(isolated) {
+                counts[ISOLATED]++;
+            } else if((own & SUPPORT_MASKS[alliance.ordinal()][square]) == 0 && isStopSquareAttacked(square, enemy, alliance)) {
+                counts[BACKWARD]++;
+            }
+            if((enemy & PASSED_MASKS[alliance.ordinal()][square]) == 0) {
+                counts[PASSED + relativeRank(square, alliance)]++;
+            }
+        }
+    }
+
+    // an enemy pawn guards the square in front, so the pawn cannot step up to its neighbours
+    private static boolean isStopSquareAttacked(final int square,
+                                                final long enemy,
+                                                final Alliance alliance) {
+        final int file = BoardUtils.getColumn(square);
+        final int stop = square + alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+        final int ahead = stop + alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+        if(!BoardUtils.isValidTileCoordinate(ahead)) {
+            return false;
+        }
+        return (file > 0 && (enemy & 1L << (ahead - 1)) != 0) ||
+               (file < BoardUtils.NUM_TILES_PER_ROW - 1 && (enemy & 1L << (ahead + 1)) != 0);
+    }
+
+    // pawns on the three files around a king still on its first two ranks, best on the rank in front of it.
+    // the files with the pawn a rank further up are counted in the low byte, the files without one in the next
+    static int countShield(final long own,
+                           final int kingSquare,
+                           final Alliance alliance) {
+        final int kingRank = relativeRank(kingSquare, alliance);
+        if(kingRank > 1) {
+            return 0;
+        }
+        final int kingFile = BoardUtils.getColumn(kingSquare);
+        final int step = alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+        int counts = 0;
+        for(int file = Math.max(0, kingFile - 1); file <= Math.min(BoardUtils.NUM_TILES_PER_ROW - 1, kingFile + 1); file++) {
+            final int front = kingSquare - kingFile + file + step;
+            if((own & 1L << front) != 0) {
+                continue;
+            }
+            final int further = front + step;
+            counts += (own & 1L << further) != 0 ? 1 : 1 << 8;
+        }
+        return counts;
+    }
+
+    static int shieldAdvanced(final int shieldCounts) {
+        return shieldCounts & 0xFF;
+    }
+
+    static int shieldMissing(final int shieldCounts) {
+        return shieldCounts >>> 8;
+    }
+
+    // 0 is the side's own back rank, 7 the promotion rank
+    private static int relativeRank(final int square, final Alliance alliance) {
+        final int row = BoardUtils.getRow(square);
+        return alliance.isWhite() ? BoardUtils.NUM_TILES_PER_ROW - 1 - row : row;
+    }
+}
@@ -0,0 +1,131 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.PositionHistory;
+import com.chess.engine.player.MoveTransition;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Searches on the opponent's time. After the engine moves, the reply its search expects is played
+// on a copy of the board and that position is searched while the opponent thinks.
+// If the opponent plays the expected move the running search simply becomes the real one,
+// otherwise it is stopped and the next search starts with everything it put into the shared table.
+public final class Ponderer {
+
+    private static final long STOP_POLL_MILLIS = 10;
+
+    private final AlphaBeta strategy;
+    private final ExecutorService executor;
+    private Board ponderBoard;
+    private Move ponderMove;
+    private Future<Move> ponderSearch;
+
+    public Ponderer(final AlphaBeta strategy) {
+        this.strategy = strategy;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "ponder");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    public AlphaBeta getStrategy() {
+        return this.strategy;
+    }
+
+    // the reply being pondered, or null when nothing is
+    public synchronized Move getPonderMove() {
+        return this.ponderSearch != null ? this.ponderMove : null;
+    }
+
+    // starts pondering the position after the expected reply. history must end with boardAfterMove.
+    // returns false when the table has no expected reply or the game is over
+    public synchronized boolean start(final Board boardAfterMove, final PositionHistory history) {
+        stop();
+        final Move expectedReply = this.strategy.getPonderMove(boardAfterMove);
+        if(expectedReply == null) {
+            return false;
+        }
+        final MoveTransition transition = boardAfterMove.currentPlayer().makeMove(expectedReply);
+        if(!transition.getMoveStatus().isDone()) {
+            return false;
+        }
+        final Board board = transition.getTransitionBoard();
+        // pondering has no clock, it runs until it is resolved
+        this.strategy.setTimeManager(null);
+        final PositionHistory ponderHistory = history != null ? history.copy() : new PositionHistory();
+        if(history == null) {
+            ponderHistory.push(boardAfterMove.getZobristHash());
+        }
+        ponderHistory.push(board.getZobristHash());
+        this.ponderBoard = board;
+        this.ponderMove = expectedReply;
+        this.ponderSearch = this.executor.submit(() -> this.strategy.execute(board, ponderHistory));
+        return true;
+    }
+
+    // the opponent has moved. on a ponder hit this is the running search, which carries on and gives the move;
+    // on a miss the ponder search is stopped and null says a new search is needed
+    public synchronized Future<Move> resolve(final Board actualBoard) {
+        return resolve(actualBoard, null);
+    }
+
+    // as above, a ponder hit goes on the clock from now when a time manager is given
+    public synchronized Future<Move> resolve(final Board actualBoard, final TimeManager timeManager) {
+        if(this.ponderSearch == null) {
+            return null;
+        }
+        if(actualBoard.getZobristHash() == this.ponderBoard.getZobristHash() &&
+           actualBoard.currentPlayer().getAlliance() == this.ponderBoard.currentPlayer().getAlliance()) {
+            this.strategy.setTimeManager(timeManager);
+            final Future<Move> hit = this.ponderSearch;
+            clear();
+            return hit;
+        }
+        stop();
+        return null;
+    }
+
+    // stops a ponder search and waits for it, so the strategy is free for the next search.
+    // execute clears the stop flag when it starts, so a stop sent before the pooled search got going
+    // would be lost; it is sent again until the search has returned
+    public synchronized void stop() {
+        if(this.ponderSearch == null) {
+            return;
+        }
+        try {
+            while(true) {
+                this.strategy.stop();
+                try {
+                    this.ponderSearch.get(STOP_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (final TimeoutException e) {
+                    // not finished yet, stop it again
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        clear();
+    }
+
+    public void shutdown() {
+        stop();
+        this.executor.shutdownNow();
+    }
+
+    private void clear() {
+        this.ponderSearch = null;
+        this.ponderBoard = null;
+        this.ponderMove = null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Move;
+
+import java.util.List;
+
+// one of the lines a multi-PV search reports: a root move, its score for the side to move and the moves expected after it
+public final class PrincipalLine {
+
+    private final int rank;
+    private final int score;
+    private final List<Move> variation;
+
+    public PrincipalLine(final int rank,
+                         final int score,
+                         final List<Move> variation) {
+        this.rank = rank;
+        this.score = score;
+        this.variation = variation;
+    }
+
+    public int getRank() { return this.rank; }
+    public int getScore() { return this.score; }
+    public List<Move> getVariation() { return this.variation; }
+
+    public Move getMove() {
+        return this.variation.get(0);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(this.rank).append(". score ").append(this.score).append(" pv");
+        for(final Move move : this.variation) {
+            builder.append(' ').append(move);
+        }
+        return builder.toString();
+    }
+}
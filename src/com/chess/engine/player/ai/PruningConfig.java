@@ -0,0 +1,213 @@
+package com.chess.engine.player.ai;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Which pruning techniques AlphaBeta uses and how hard each one prunes.
+// The defaults can be changed from the command line, for example
+//     -Dchess.search.disable=NULL_MOVE,FUTILITY -Dchess.search.lateMoveReduction=2
+public final class PruningConfig {
+
+    private static final PruningConfig DEFAULT = fromSystemProperties();
+
+    private final Set<PruningTechnique> enabledTechniques;
+    private final int nullMoveReduction;
+    private final int nullMoveMinDepth;
+    private final int lateMoveReduction;
+    private final int lateMoveMinDepth;
+    private final int lateMoveMinIndex;
+    private final int futilityMargin;
+    private final int futilityMaxDepth;
+    private final int reverseFutilityMargin;
+    private final int reverseFutilityMaxDepth;
+    private final int aspirationWindow;
+
+    private PruningConfig(final Builder builder) {
+        this.enabledTechniques = Collections.unmodifiableSet(EnumSet.copyOf(builder.enabledTechniques));
+        this.nullMoveReduction = builder.nullMoveReduction;
+        this.nullMoveMinDepth = builder.nullMoveMinDepth;
+        this.lateMoveReduction = builder.lateMoveReduction;
+        this.lateMoveMinDepth = builder.lateMoveMinDepth;
+        this.lateMoveMinIndex = builder.lateMoveMinIndex;
+        this.futilityMargin = builder.futilityMargin;
+        this.futilityMaxDepth = builder.futilityMaxDepth;
+        this.reverseFutilityMargin = builder.reverseFutilityMargin;
+        this.reverseFutilityMaxDepth = builder.reverseFutilityMaxDepth;
+        this.aspirationWindow = builder.aspirationWindow;
+    }
+
+    // the defaults with any chess.search.* system properties applied, read once at startup
+    public static PruningConfig getDefault() {
+        return DEFAULT;
+    }
+
+    public static PruningConfig none() {
+        return new Builder().disableAll().build();
+    }
+
+    public boolean isEnabled(final PruningTechnique technique) {
+        return this.enabledTechniques.contains(technique);
+    }
+
+    public Set<PruningTechnique> getEnabledTechniques() { return this.enabledTechniques; }
+    public int getNullMoveReduction() { return this.nullMoveReduction; }
+    public int getNullMoveMinDepth() { return this.nullMoveMinDepth; }
+    public int getLateMoveReduction() { return this.lateMoveReduction; }
+    public int getLateMoveMinDepth() { return this.lateMoveMinDepth; }
+    public int getLateMoveMinIndex() { return this.lateMoveMinIndex; }
+    public int getFutilityMargin() { return this.futilityMargin; }
+    public int getFutilityMaxDepth() { return this.futilityMaxDepth; }
+    public int getReverseFutilityMargin() { return this.reverseFutilityMargin; }
+    public int getReverseFutilityMaxDepth() { return this.reverseFutilityMaxDepth; }
+    public int getAspirationWindow() { return this.aspirationWindow; }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    @Override
+    public String toString() {
+        return "enabled " + this.enabledTechniques +
+               " nullMove R=" + this.nullMoveReduction + " from depth " + this.nullMoveMinDepth +
+               " lmr R=" + this.lateMoveReduction + " from depth " + this.lateMoveMinDepth + " after " + this.lateMoveMinIndex + " moves" +
+               " futility " + this.futilityMargin + "/ply to depth " + this.futilityMaxDepth +
+               " reverseFutility " + this.reverseFutilityMargin + "/ply to depth " + this.reverseFutilityMaxDepth +
+               " aspiration +-" + this.aspirationWindow;
+    }
+
+    private static PruningConfig fromSystemProperties() {
+        final Builder builder = new Builder();
+        final String disabled = System.getProperty("chess.search.disable", "");
+        for(final String name : disabled.split(",")) {
+            if(!name.isBlank()) {
+                builder.disable(PruningTechnique.valueOf(name.trim()));
+            }
+        }
+        return builder.setNullMoveReduction(Integer.getInteger("chess.search.nullMoveReduction", builder.nullMoveReduction))
+                      .setNullMoveMinDepth(Integer.getInteger("chess.search.nullMoveMinDepth", builder.nullMoveMinDepth))
+                      .setLateMoveReduction(Integer.getInteger("chess.search.lateMoveReduction", builder.lateMoveReduction))
+                      .setLateMoveMinDepth(Integer.getInteger("chess.search.lateMoveMinDepth", builder.lateMoveMinDepth))
+                      .setLateMoveMinIndex(Integer.getInteger("chess.search.lateMoveMinIndex", builder.lateMoveMinIndex))
+                      .setFutilityMargin(Integer.getInteger("chess.search.futilityMargin", builder.futilityMargin))
+                      .setFutilityMaxDepth(Integer.getInteger("chess.search.futilityMaxDepth", builder.futilityMaxDepth))
+                      .setReverseFutilityMargin(Integer.getInteger("chess.search.reverseFutilityMargin", builder.reverseFutilityMargin))
+                      .setReverseFutilityMaxDepth(Integer.getInteger("chess.search.reverseFutilityMaxDepth", builder.reverseFutilityMaxDepth))
+                      .setAspirationWindow(Integer.getInteger("chess.search.aspirationWindow", builder.aspirationWindow))
+                      .build();
+    }
+
+    public static class Builder {
+
+        Set<PruningTechnique> enabledTechniques;
+        int nullMoveReduction;
+        int nullMoveMinDepth;
+        int lateMoveReduction;
+        int lateMoveMinDepth;
+        int lateMoveMinIndex;
+        int futilityMargin;
+        int futilityMaxDepth;
+        int reverseFutilityMargin;
+        int reverseFutilityMaxDepth;
+        int aspirationWindow;
+
+        // every technique on, with the default parameters
+        public Builder() {
+            this.enabledTechniques = EnumSet.allOf(PruningTechnique.class);
+            this.nullMoveReduction = 2;
+            this.nullMoveMinDepth = 3;
+            this.lateMoveReduction = 1;
+            this.lateMoveMinDepth = 3;
+            this.lateMoveMinIndex = 3;
+            this.futilityMargin = 150;
+            this.futilityMaxDepth = 2;
+            this.reverseFutilityMargin = 120;
+            this.reverseFutilityMaxDepth = 3;
+            this.aspirationWindow = 50;
+        }
+
+        private Builder(final PruningConfig config) {
+            this.enabledTechniques = EnumSet.noneOf(PruningTechnique.class);
+            this.enabledTechniques.addAll(config.enabledTechniques);
+            this.nullMoveReduction = config.nullMoveReduction;
+            this.nullMoveMinDepth = config.nullMoveMinDepth;
+            this.lateMoveReduction = config.lateMoveReduction;
+            this.lateMoveMinDepth = config.lateMoveMinDepth;
+            this.lateMoveMinIndex = config.lateMoveMinIndex;
+            this.futilityMargin = config.futilityMargin;
+            this.futilityMaxDepth = config.futilityMaxDepth;
+            this.reverseFutilityMargin = config.reverseFutilityMargin;
+            this.reverseFutilityMaxDepth = config.reverseFutilityMaxDepth;
+            this.aspirationWindow = config.aspirationWindow;
+        }
+
+        public Builder enable(final PruningTechnique technique) {
+            this.enabledTechniques.add(technique);
+            return this;
+        }
+
+        public Builder disable(final PruningTechnique technique) {
+            this.enabledTechniques.remove(technique);
+            return this;
+        }
+
+        public Builder disableAll() {
+            this.enabledTechniques.clear();
+            return this;
+        }
+
+        public Builder setNullMoveReduction(final int nullMoveReduction) {
+            this.nullMoveReduction = nullMoveReduction;
+            return this;
+        }
+
+        public Builder setNullMoveMinDepth(final int nullMoveMinDepth) {
+            this.nullMoveMinDepth = nullMoveMinDepth;
+            return this;
+        }
+
+        public Builder setLateMoveReduction(final int lateMoveReduction) {
+            this.lateMoveReduction = lateMoveReduction;
+            return this;
+        }
+
+        public Builder setLateMoveMinDepth(final int lateMoveMinDepth) {
+            this.lateMoveMinDepth = lateMoveMinDepth;
+            return this;
+        }
+
+        public Builder setLateMoveMinIndex(final int lateMoveMinIndex) {
+            this.lateMoveMinIndex = lateMoveMinIndex;
+            return this;
+        }
+
+        public Builder setFutilityMargin(final int futilityMargin) {
+            this.futilityMargin = futilityMargin;
+            return this;
+        }
+
+        public Builder setFutilityMaxDepth(final int futilityMaxDepth) {
+            this.futilityMaxDepth = futilityMaxDepth;
+            return this;
+        }
+
+        public Builder setReverseFutilityMargin(final int reverseFutilityMargin) {
+            this.reverseFutilityMargin = reverseFutilityMargin;
+            return this;
+        }
+
+        public Builder setReverseFutilityMaxDepth(final int reverseFutilityMaxDepth) {
+            this.reverseFutilityMaxDepth = reverseFutilityMaxDepth;
+            return this;
+        }
+
+        public Builder setAspirationWindow(final int aspirationWindow) {
+            this.aspirationWindow = aspirationWindow;
+            return this;
+        }
+
+        public PruningConfig build() {
+            return new PruningConfig(this);
+        }
+    }
+}
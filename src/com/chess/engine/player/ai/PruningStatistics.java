@@ -0,0 +1,54 @@
+package com.chess.engine.player.ai;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// How often each pruning technique was tried, how often it saved work and how often
+// its guess was wrong and had to be searched again. The search threads count concurrently.
+public final class PruningStatistics {
+
+    public enum Counter {
+        // the technique's conditions held and it was tried
+        ATTEMPT,
+        // the node, move or window was cut short
+        CUTOFF,
+        // the shortcut was wrong and the search was repeated in full
+        RESEARCH
+    }
+
+    private final LongAdder[][] counts;
+
+    public PruningStatistics() {
+        this.counts = new LongAdder[PruningTechnique.values().length][Counter.values().length];
+        for(final LongAdder[] techniqueCounts : this.counts) {
+            for(int i = 0; i < techniqueCounts.length; i++) {
+                techniqueCounts[i] = new LongAdder();
+            }
+        }
+    }
+
+    void record(final PruningTechnique technique, final Counter counter) {
+        this.counts[technique.ordinal()][counter.ordinal()].increment();
+    }
+
+    public long get(final PruningTechnique technique, final Counter counter) {
+        return this.counts[technique.ordinal()][counter.ordinal()].sum();
+    }
+
+    public void reset() {
+        for(final LongAdder[] techniqueCounts : this.counts) {
+            for(final LongAdder count : techniqueCounts) {
+                count.reset();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(String.format("%-20s %12s %12s %12s%n", "technique", "attempts", "cutoffs", "researches"));
+        for(final PruningTechnique technique : PruningTechnique.values()) {
+            builder.append(String.format("%-20s %,12d %,12d %,12d%n", technique,
+                    get(technique, Counter.ATTEMPT), get(technique, Counter.CUTOFF), get(technique, Counter.RESEARCH)));
+        }
+        return builder.toString();
+    }
+}
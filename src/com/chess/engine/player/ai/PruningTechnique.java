@@ -0,0 +1,16 @@
+package com.chess.engine.player.ai;
+
+// the selective techniques AlphaBeta can use to skip or shorten parts of the tree
+public enum PruningTechnique {
+
+    // let the opponent move twice, if that still fails high the real search would too
+    NULL_MOVE,
+    // search quiet moves late in the ordering less deep, and again at full depth when they beat alpha
+    LATE_MOVE_REDUCTION,
+    // near the leaves skip quiet moves that cannot lift the static score up to alpha
+    FUTILITY,
+    // near the leaves return at once when the static score is above beta by a safe margin
+    REVERSE_FUTILITY,
+    // search each iteration in a narrow window around the last score, widening when it falls outside
+    ASPIRATION_WINDOW
+}
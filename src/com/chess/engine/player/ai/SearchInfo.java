@@ -0,0 +1,59 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Move;
+
+import java.util.List;
+
+// snapshot of a running search: the deepest finished iteration and the work done so far.
+// lines holds the best moves of that iteration, one per principal variation asked for
+public final class SearchInfo {
+
+    private final int depth;
+    private final int score;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final Move bestMove;
+    private final List<PrincipalLine> lines;
+
+    public SearchInfo(final int depth,
+                      final int score,
+                      final long nodes,
+                      final long elapsedNanos,
+                      final Move bestMove,
+                      final List<PrincipalLine> lines) {
+        this.depth = depth;
+        this.score = score;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.bestMove = bestMove;
+        this.lines = lines;
+    }
+
+    public int getDepth() { return this.depth; }
+    public int getScore() { return this.score; }
+    public long getNodes() { return this.nodes; }
+    public long getElapsedNanos() { return this.elapsedNanos; }
+    public Move getBestMove() { return this.bestMove; }
+    public List<PrincipalLine> getLines() { return this.lines; }
+
+    public long getNodesPerSecond() {
+        return this.elapsedNanos > 0 ? this.nodes * 1_000_000_000L / this.elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("depth " + this.depth + " score " + this.score +
+                                                        " nodes " + this.nodes + " nps " + getNodesPerSecond());
+        if(this.lines.size() == 1) {
+            builder.append(" pv");
+            for(final Move move : this.lines.get(0).getVariation()) {
+                builder.append(' ').append(move);
+            }
+        } else {
+            for(final PrincipalLine line : this.lines) {
+                builder.append(System.lineSeparator()).append("  ").append(line);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,8 @@
+package com.chess.engine.player.ai;
+
+// receives progress from a running search, called from the searching thread
+public interface SearchListener {
+
+    void searchProgress(SearchInfo searchInfo);
+
+}
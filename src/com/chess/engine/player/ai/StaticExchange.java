@@ -0,0 +1,66 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Attacks;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+
+// Static exchange evaluation: what a capture wins or loses in material once both sides have
+// recaptured on its square with their cheapest attacker for as long as it pays.
+// Works on the tiles through Attacks, no move is executed.
+public final class StaticExchange {
+
+    // more captures than this on one square cannot happen with 32 pieces
+    private static final int MAX_EXCHANGES = 32;
+
+    private StaticExchange() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    // the material the side to move gains with the move, negative when it loses material
+    public static int evaluate(final Board board, final Move move) {
+        final int target = move.getDestinationCoordinate();
+        final int[] gain = new int[MAX_EXCHANGES];
+        final Piece capturedPiece = move.getAttackedPiece();
+        gain[0] = capturedPiece != null ? capturedPiece.getPieceType().getPieceValue() : 0;
+        int attackerValue = move.getMovedPiece().getPieceType().getPieceValue();
+        if(move instanceof Move.PawnPromotion) {
+            final int promotionValue = ((Move.PawnPromotion) move).getPromotionPiece().getPieceType().getPieceValue();
+            gain[0] += promotionValue - attackerValue;
+            attackerValue = promotionValue;
+        }
+        // the captured piece is off the board too, which matters when it was taken en passant
+        long removed = 1L << move.getCurrentCoordinate();
+        if(capturedPiece != null) {
+            removed |= 1L << capturedPiece.getPiecePosition();
+        }
+        Alliance side = move.getMovedPiece().getPieceAlliance().getOpponent();
+        int depth = 0;
+        while(depth < MAX_EXCHANGES - 1) {
+            depth++;
+            // what this side wins if it takes back, before looking at whether it can
+            gain[depth] = attackerValue - gain[depth - 1];
+            if(Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                break;
+            }
+            final int attackerSquare = Attacks.leastValuableAttacker(board, target, side, removed);
+            if(attackerSquare < 0) {
+                break;
+            }
+            removed |= 1L << attackerSquare;
+            attackerValue = board.getPiece(attackerSquare).getPieceType().getPieceValue();
+            side = side.getOpponent();
+        }
+        // each side may also stop taking back, so walk back up keeping the better choice
+        while(--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    // captures and promotions, the moves the quiescence search looks at
+    static boolean isTactical(final Move move) {
+        return move.isAttack() || move instanceof Move.PawnPromotion;
+    }
+}
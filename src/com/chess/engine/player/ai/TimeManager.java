@@ -0,0 +1,123 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Move;
+
+import java.util.concurrent.TimeUnit;
+
+// Turns the clock into two limits for one search. The soft limit decides whether another iteration
+// is started and moves with how the search is going: a best move that keeps changing or a score that
+// drops buys more time, a settled best move or few root moves give time back. The hard limit stops
+// the search wherever it is, the search looks at it every few thousand nodes.
+public final class TimeManager {
+
+    // time lost between the search returning and the clock stopping
+    private static final long MOVE_OVERHEAD_MILLIS = 20;
+    // when the clock does not say how many moves are left the game is assumed to last this many more
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final int HARD_LIMIT_FACTOR = 4;
+    private static final int SCORE_DROP = 30;
+    private static final int LARGE_SCORE_DROP = 100;
+
+    private final long softLimitNanos;
+    private final long hardLimitNanos;
+    private final boolean adaptive;
+    private volatile long startNanos;
+    private Move previousBestMove;
+    private int previousScore;
+    private int stableIterations;
+
+    private TimeManager(final long softLimitMillis,
+                        final long hardLimitMillis,
+                        final boolean adaptive) {
+        this.softLimitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, softLimitMillis));
+        this.hardLimitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, hardLimitMillis));
+        this.adaptive = adaptive;
+        start();
+    }
+
+    // remaining and increment are for the side to move, movesToGo is 0 when the clock does not count moves
+    public static TimeManager forClock(final long remainingMillis,
+                                       final long incrementMillis,
+                                       final int movesToGo) {
+        final long usable = Math.max(1, remainingMillis - MOVE_OVERHEAD_MILLIS);
+        final int moves = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+        // with one move to the time control there is nothing to save time for
+        final long hardCap = moves == 1 ? usable * 9 / 10 : usable * 3 / 4;
+        final long soft = usable / moves + incrementMillis * 3 / 4;
+        final long hard = Math.min(soft * HARD_LIMIT_FACTOR, hardCap);
+        return new TimeManager(Math.min(soft, hard), hard, true);
+    }
+
+    // exactly this long for the move, however the search goes
+    public static TimeManager forMoveTime(final long moveTimeMillis) {
+        final long limit = Math.max(1, moveTimeMillis - MOVE_OVERHEAD_MILLIS);
+        return new TimeManager(limit, limit, false);
+    }
+
+    // the limits count from here, a search calls it when it starts and a ponder hit when the clock starts
+    public void start() {
+        this.previousBestMove = null;
+        this.previousScore = 0;
+        this.stableIterations = 0;
+        this.startNanos = System.nanoTime();
+    }
+
+    public boolean isHardLimitReached() {
+        return System.nanoTime() - this.startNanos >= this.hardLimitNanos;
+    }
+
+    // called after each finished iteration with its result and the number of legal root moves
+    public boolean shouldStopAfterIteration(final Move bestMove,
+                                            final int score,
+                                            final int rootMoves) {
+        final long elapsed = System.nanoTime() - this.startNanos;
+        if(!this.adaptive) {
+            return elapsed >= this.softLimitNanos;
+        }
+        if(rootMoves == 1) {
+            return true;
+        }
+        double scale = 1.0;
+        if(this.previousBestMove != null) {
+            if(bestMove.equals(this.previousBestMove)) {
+                this.stableIterations++;
+                scale *= Math.max(0.5, 1.0 - 0.1 * this.stableIterations);
+            } else {
+                this.stableIterations = 0;
+                scale *= 1.5;
+            }
+            final int drop = this.previousScore - score;
+            if(drop >= LARGE_SCORE_DROP) {
+                scale *= 2.0;
+            } else if(drop >= SCORE_DROP) {
+                scale *= 1.3;
+            }
+        }
+        if(rootMoves <= 3) {
+            scale *= 0.7;
+        }
+        this.previousBestMove = bestMove;
+        this.previousScore = score;
+        final long softLimit = Math.min(this.hardLimitNanos, (long) (this.softLimitNanos * scale));
+        // the next iteration usually takes longer than all the ones before it,
+        // so it is not started once most of the soft limit is gone
+        return elapsed * 5 >= softLimit * 3;
+    }
+
+    public long getSoftLimitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.softLimitNanos);
+    }
+
+    public long getHardLimitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.hardLimitNanos);
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "soft " + getSoftLimitMillis() + "ms hard " + getHardLimitMillis() + "ms" + (this.adaptive ? "" : " fixed");
+    }
+}
@@ -0,0 +1,150 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Move;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Search results by Zobrist hash, kept from one search to the next and shared by every search thread.
+// An entry is two longs: the data and the hash xor the data. A torn write by two threads then fails the
+// hash check and reads as a miss, so no locking is needed.
+// Data layout: move (MoveFactory.encodeMove) in bits 0-15, depth in bits 16-23, bound in bits 24-25,
+// generation in bits 26-31 and the score in bits 32-63.
+public final class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    public static final int NO_MOVE = 0;
+
+    private static final int DEFAULT_SIZE_MB = 16;
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private volatile int generation;
+    private final LongAdder probes;
+    private final LongAdder hits;
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    public TranspositionTable(final int sizeMb) {
+        final long requestedEntries = (long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY;
+        final int entries = Integer.highestOneBit((int) Math.max(1024, Math.min(requestedEntries, 1 << 28)));
+        this.keys = new long[entries];
+        this.data = new long[entries];
+        this.mask = entries - 1;
+        this.probes = new LongAdder();
+        this.hits = new LongAdder();
+    }
+
+    // entries from earlier searches are kept but are the first to be replaced
+    public void newSearch() {
+        this.generation = (this.generation + 1) & 63;
+    }
+
+    public void clear() {
+        for(int i = 0; i < this.keys.length; i++) {
+            this.keys[i] = 0L;
+            this.data[i] = 0L;
+        }
+        this.probes.reset();
+        this.hits.reset();
+    }
+
+    // the entry stored for the hash, or 0 when there is none
+    public long probe(final long zobristHash) {
+        this.probes.increment();
+        final int index = (int) zobristHash & this.mask;
+        final long entry = this.data[index];
+        if(entry != 0L && (this.keys[index] ^ entry) == zobristHash) {
+            this.hits.increment();
+            return entry;
+        }
+        return 0L;
+    }
+
+    // keeps the deeper result for a position, but anything from an older search or another position is replaced
+    public void store(final long zobristHash,
+                      final int depth,
+                      final int score,
+                      final int bound,
+                      final int move) {
+        final int index = (int) zobristHash & this.mask;
+        final long existing = this.data[index];
+        final boolean samePosition = existing != 0L && (this.keys[index] ^ existing) == zobristHash;
+        if(samePosition && generation(existing) == this.generation && depth(existing) > depth && bound != EXACT) {
+            return;
+        }
+        // a result without a move keeps the move found earlier for the same position
+        final int storedMove = move == NO_MOVE && samePosition ? move(existing) : move;
+        final long entry = (storedMove & 0xFFFFL) |
+                           (long) (Math.min(depth, 255) & 0xFF) << 16 |
+                           (long) (bound & 3) << 24 |
+                           (long) (this.generation & 63) << 26 |
+                           (long) score << 32;
+        this.data[index] = entry;
+        this.keys[index] = zobristHash ^ entry;
+    }
+
+    public static int move(final long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    public static int depth(final long entry) {
+        return (int) (entry >>> 16) & 0xFF;
+    }
+
+    public static int bound(final long entry) {
+        return (int) (entry >>> 24) & 3;
+    }
+
+    public static int score(final long entry) {
+        return (int) (entry >> 32);
+    }
+
+    private static int generation(final long entry) {
+        return (int) (entry >>> 26) & 63;
+    }
+
+    // mate scores are stored as distance from the position, not from the root, so they stay true wherever it is found
+    static int scoreToTable(final int score, final int ply) {
+        if(score >= AlphaBeta.MATE_SCORE - AlphaBeta.MAX_PLY) {
+            return score + ply;
+        }
+        if(score <= -AlphaBeta.MATE_SCORE + AlphaBeta.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    static int scoreFromTable(final int score, final int ply) {
+        if(score >= AlphaBeta.MATE_SCORE - AlphaBeta.MAX_PLY) {
+            return score - ply;
+        }
+        if(score <= -AlphaBeta.MATE_SCORE + AlphaBeta.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    public static int encode(final Move move) {
+        return move != null && move != Move.MoveFactory.getNullMove() ? Move.MoveFactory.encodeMove(move) : NO_MOVE;
+    }
+
+    public int getCapacity() {
+        return this.keys.length;
+    }
+
+    public long getProbeCount() {
+        return this.probes.sum();
+    }
+
+    public double getHitRate() {
+        final long probeCount = this.probes.sum();
+        return probeCount > 0 ? (double) this.hits.sum() / probeCount : 0.0;
+    }
+}
@@ -0,0 +1,93 @@
+package com.chess.engine.player.ai.suite;
+
+import com.chess.engine.board.AlgebraicNotation;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.FenUtilities;
+import com.chess.engine.board.Move;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// One line of a test suite: four FEN fields, then operations ending in semicolons, for example
+//     r1b1k2r/ppppnppp/2n2q2/2b5/3NP3/2P1B3/PP3PPP/RN1QKB1R w KQkq - bm Nxc6; id "WAC.003";
+// bm lists the moves that solve it, am the moves to avoid. The moves are checked against the board when read.
+public final class EpdPosition {
+
+    private final String id;
+    private final Board board;
+    private final List<Move> bestMoves;
+    private final List<Move> avoidMoves;
+
+    private EpdPosition(final String id,
+                        final Board board,
+                        final List<Move> bestMoves,
+                        final List<Move> avoidMoves) {
+        this.id = id;
+        this.board = board;
+        this.bestMoves = bestMoves;
+        this.avoidMoves = avoidMoves;
+    }
+
+    // lineNumber names positions without an id
+    public static EpdPosition parse(final String line, final int lineNumber) {
+        final String[] fields = line.trim().split("\\s+", 5);
+        if(fields.length < 5) {
+            throw new IllegalArgumentException("No operations on line " + lineNumber);
+        }
+        final Board board = FenUtilities.createGameFromFEN(String.join(" ", fields[0], fields[1], fields[2], fields[3]));
+        String id = "line " + lineNumber;
+        final List<Move> bestMoves = new ArrayList<>();
+        final List<Move> avoidMoves = new ArrayList<>();
+        for(final String operation : fields[4].split(";")) {
+            final String[] parts = operation.trim().split("\\s+", 2);
+            if(parts.length < 2) {
+                continue;
+            }
+            switch(parts[0]) {
+                case "id":
+                    id = parts[1].replace("\"", "").trim();
+                    break;
+                case "bm":
+                    addMoves(board, parts[1], bestMoves, lineNumber);
+                    break;
+                case "am":
+                    addMoves(board, parts[1], avoidMoves, lineNumber);
+                    break;
+                default:
+                    // the other operations (c0, acd, ...) say nothing about the answer
+                    break;
+            }
+        }
+        if(bestMoves.isEmpty() && avoidMoves.isEmpty()) {
+            throw new IllegalArgumentException("No bm or am on line " + lineNumber);
+        }
+        return new EpdPosition(id, board, Collections.unmodifiableList(bestMoves), Collections.unmodifiableList(avoidMoves));
+    }
+
+    private static void addMoves(final Board board,
+                                 final String operands,
+                                 final List<Move> moves,
+                                 final int lineNumber) {
+        for(final String san : operands.replace("\"", "").trim().split("\\s+")) {
+            final Move move = AlgebraicNotation.parseSan(board, san);
+            if(move == Move.MoveFactory.getNullMove()) {
+                throw new IllegalArgumentException("No legal move " + san + " on line " + lineNumber);
+            }
+            moves.add(move);
+        }
+    }
+
+    // a best move when there are any, and never a move to avoid
+    public boolean isSolvedBy(final Move move) {
+        if(move == null || this.avoidMoves.contains(move)) {
+            return false;
+        }
+        return this.bestMoves.isEmpty() || this.bestMoves.contains(move);
+    }
+
+    public String getId() { return this.id; }
+    public Board getBoard() { return this.board; }
+    public List<Move> getBestMoves() { return this.bestMoves; }
+    public List<Move> getAvoidMoves() { return this.avoidMoves; }
+}
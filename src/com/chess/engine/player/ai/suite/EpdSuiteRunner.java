@@ -0,0 +1,323 @@
+package com.chess.engine.player.ai.suite;
+
+import com.chess.engine.board.AlgebraicNotation;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.BoardEvaluator;
+import com.chess.engine.player.ai.EvaluationParameters;
+import com.chess.engine.player.ai.LinearEvaluator;
+import com.chess.engine.player.ai.NnueEvaluator;
+import com.chess.engine.player.ai.SearchInfo;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TimeManager;
+import com.chess.engine.player.ai.TranspositionTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Runs a suite of EPD positions and measures how fast the engine finds the answers. Each position
+// is searched on its own with a fixed time and/or node limit, several at once on a pool of threads,
+// each thread with its own transposition table that is cleared between positions. A position counts
+// as found at the iteration where the best move became a right one and stayed right until the end.
+// --eval searches with an NnueNetwork file instead of StandardBoardEvaluator, --params with a LinearEvaluator
+// of the EvaluationParameters in a file, as TexelTuner saves them.
+//
+//     java com.chess.engine.player.ai.suite.EpdSuiteRunner suite.epd [--time ms] [--nodes n]
+//                                                          [--depth d] [--threads t] [--out results.csv]
+//                                                          [--eval network.nnue | --params tuned.txt]
+public final class EpdSuiteRunner {
+
+    private static final int DEFAULT_TIME_MILLIS = 1000;
+    private static final int DEFAULT_DEPTH = 64;
+    private static final int TABLE_SIZE_MB = 16;
+
+    private final long timeMillis;
+    private final long nodeLimit;
+    private final int maxDepth;
+    private final int threads;
+    private final BoardEvaluator evaluator;
+
+    public EpdSuiteRunner(final long timeMillis,
+                          final long nodeLimit,
+                          final int maxDepth,
+                          final int threads,
+                          final BoardEvaluator evaluator) {
+        this.timeMillis = timeMillis;
+        this.nodeLimit = nodeLimit;
+        this.maxDepth = maxDepth;
+        this.threads = threads;
+        this.evaluator = evaluator;
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        if(args.length < 1) {
+            System.err.println("usage: EpdSuiteRunner suite.epd [--time ms] [--nodes n] [--depth d] [--threads t] [--out results.csv]" +
+                               " [--eval network.nnue | --params tuned.txt]");
+            System.exit(1);
+        }
+        long timeMillis = DEFAULT_TIME_MILLIS;
+        long nodes = 0;
+        int depth = DEFAULT_DEPTH;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path output = null;
+        BoardEvaluator evaluator = StandardBoardEvaluator.get();
+        boolean timeGiven = false;
+        for(int i = 1; i + 1 < args.length; i += 2) {
+            switch(args[i]) {
+                case "--time":
+                    timeMillis = Long.parseLong(args[i + 1]);
+                    timeGiven = true;
+                    break;
+                case "--nodes":
+                    nodes = Long.parseLong(args[i + 1]);
+                    break;
+                case "--depth":
+                    depth = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--out":
+                    output = Paths.get(args[i + 1]);
+                    break;
+                case "--eval":
+                    evaluator = NnueEvaluator.load(Paths.get(args[i + 1]));
+                    break;
+                case "--params":
+                    evaluator = new LinearEvaluator(EvaluationParameters.load(Paths.get(args[i + 1])));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        // a node or depth limit alone makes the run repeatable, the clock is only added when asked for
+        if(!timeGiven && (nodes > 0 || depth != DEFAULT_DEPTH)) {
+            timeMillis = 0;
+        }
+
+        final List<EpdPosition> positions = load(Paths.get(args[0]));
+        System.out.printf("%d positions, %s, %d threads%n", positions.size(),
+                describeLimits(timeMillis, nodes, depth), threads);
+        final EpdSuiteRunner runner = new EpdSuiteRunner(timeMillis, nodes, depth, threads, evaluator);
+        final long start = System.nanoTime();
+        final List<Result> results = runner.run(positions);
+        final long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        for(final Result result : results) {
+            System.out.println(result);
+        }
+        printSummary(results, wallMillis);
+        if(output != null) {
+            writeCsv(results, output);
+            System.out.println("results written to " + output);
+        }
+    }
+
+    // skips blank lines and lines starting with #
+    public static List<EpdPosition> load(final Path suite) throws IOException {
+        final List<EpdPosition> positions = new ArrayList<>();
+        try(final BufferedReader reader = Files.newBufferedReader(suite, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while((line = reader.readLine()) != null) {
+                lineNumber++;
+                if(line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                positions.add(EpdPosition.parse(line, lineNumber));
+            }
+        }
+        return positions;
+    }
+
+    // the results come back in the order of the positions
+    public List<Result> run(final List<EpdPosition> positions) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "epd-suite");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final ThreadLocal<TranspositionTable> tables = ThreadLocal.withInitial(() -> new TranspositionTable(TABLE_SIZE_MB));
+        try {
+            final List<Future<Result>> futures = new ArrayList<>(positions.size());
+            for(final EpdPosition position : positions) {
+                futures.add(executor.submit(() -> solve(position, tables.get())));
+            }
+            final List<Result> results = new ArrayList<>(futures.size());
+            for(final Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (final ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public Result solve(final EpdPosition position, final TranspositionTable table) {
+        table.clear();
+        final AlphaBeta strategy = new AlphaBeta(this.evaluator, this.maxDepth, table);
+        if(this.timeMillis > 0) {
+            strategy.setTimeManager(TimeManager.forMoveTime(this.timeMillis));
+        }
+        strategy.setNodeLimit(this.nodeLimit);
+        final SolutionTracker tracker = new SolutionTracker(position);
+        strategy.setSearchListener(tracker::searchProgress);
+        final long start = System.nanoTime();
+        final Move move = strategy.execute(position.getBoard());
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        final boolean solved = position.isSolvedBy(move);
+        final String san = move != Move.MoveFactory.getNullMove() ? AlgebraicNotation.toSan(position.getBoard(), move) : "none";
+        return new Result(position, san, solved,
+                          solved ? tracker.foundMillis : -1, solved ? tracker.foundNodes : -1,
+                          solved ? tracker.foundDepth : -1, tracker.depth, strategy.getNodeCount(), millis);
+    }
+
+    private static void printSummary(final List<Result> results, final long wallMillis) {
+        int solved = 0;
+        long foundMillis = 0;
+        long foundNodes = 0;
+        long nodes = 0;
+        for(final Result result : results) {
+            nodes += result.nodes;
+            if(result.solved) {
+                solved++;
+                foundMillis += result.foundMillis;
+                foundNodes += result.foundNodes;
+            }
+        }
+        System.out.printf("solved %d of %d (%.1f%%) in %d ms%n", solved, results.size(),
+                results.isEmpty() ? 0.0 : 100.0 * solved / results.size(), wallMillis);
+        if(solved > 0) {
+            System.out.printf("average time to solution %d ms, %,d nodes%n", foundMillis / solved, foundNodes / solved);
+        }
+        System.out.printf("%,d nodes searched%n", nodes);
+    }
+
+    private static void writeCsv(final List<Result> results, final Path output) throws IOException {
+        try(final PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            writer.println("id,solved,move,expected,foundMillis,foundNodes,foundDepth,depth,nodes,millis");
+            for(final Result result : results) {
+                writer.printf("%s,%b,%s,%s,%d,%d,%d,%d,%d,%d%n", quote(result.position.getId()), result.solved,
+                        result.move, quote(result.expected()), result.foundMillis, result.foundNodes,
+                        result.foundDepth, result.depth, result.nodes, result.millis);
+            }
+        }
+    }
+
+    private static String quote(final String field) {
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String describeLimits(final long timeMillis, final long nodes, final int depth) {
+        final List<String> limits = new ArrayList<>();
+        if(timeMillis > 0) {
+            limits.add(timeMillis + " ms");
+        }
+        if(nodes > 0) {
+            limits.add(nodes + " nodes");
+        }
+        limits.add("depth " + depth);
+        return String.join(", ", limits);
+    }
+
+    // follows the iterations of one search and remembers where the current right answer first appeared
+    private static final class SolutionTracker {
+
+        private final EpdPosition position;
+        private long foundMillis = -1;
+        private long foundNodes = -1;
+        private int foundDepth = -1;
+        private int depth;
+
+        SolutionTracker(final EpdPosition position) {
+            this.position = position;
+        }
+
+        void searchProgress(final SearchInfo searchInfo) {
+            this.depth = searchInfo.getDepth();
+            if(!this.position.isSolvedBy(searchInfo.getBestMove())) {
+                this.foundDepth = -1;
+            } else if(this.foundDepth < 0) {
+                this.foundMillis = TimeUnit.NANOSECONDS.toMillis(searchInfo.getElapsedNanos());
+                this.foundNodes = searchInfo.getNodes();
+                this.foundDepth = searchInfo.getDepth();
+            }
+        }
+    }
+
+    public static final class Result {
+
+        private final EpdPosition position;
+        private final String move;
+        private final boolean solved;
+        private final long foundMillis;
+        private final long foundNodes;
+        private final int foundDepth;
+        private final int depth;
+        private final long nodes;
+        private final long millis;
+
+        Result(final EpdPosition position,
+               final String move,
+               final boolean solved,
+               final long foundMillis,
+               final long foundNodes,
+               final int foundDepth,
+               final int depth,
+               final long nodes,
+               final long millis) {
+            this.position = position;
+            this.move = move;
+            this.solved = solved;
+            this.foundMillis = foundMillis;
+            this.foundNodes = foundNodes;
+            this.foundDepth = foundDepth;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.millis = millis;
+        }
+
+        public EpdPosition getPosition() { return this.position; }
+        public String getMove() { return this.move; }
+        public boolean isSolved() { return this.solved; }
+        public long getFoundMillis() { return this.foundMillis; }
+        public long getFoundNodes() { return this.foundNodes; }
+        public int getFoundDepth() { return this.foundDepth; }
+        public int getDepth() { return this.depth; }
+        public long getNodes() { return this.nodes; }
+        public long getMillis() { return this.millis; }
+
+        // bm moves, then am moves marked with a !
+        String expected() {
+            final Board board = this.position.getBoard();
+            final List<String> moves = this.position.getBestMoves().stream()
+                    .map(move -> AlgebraicNotation.toSan(board, move)).collect(Collectors.toList());
+            this.position.getAvoidMoves().forEach(move -> moves.add("!" + AlgebraicNotation.toSan(board, move)));
+            return String.join(" ", moves);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-12s %-6s %-8s expected %-12s found %s depth %d, %,d nodes in %d ms",
+                    this.position.getId(), this.solved ? "solved" : "missed", this.move, expected(),
+                    this.solved ? "at depth " + this.foundDepth + " after " + this.foundMillis + " ms" : "-",
+                    this.depth, this.nodes, this.millis);
+        }
+    }
+}
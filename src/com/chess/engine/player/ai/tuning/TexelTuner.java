@@ -0,0 +1,182 @@
+package com.chess.engine.player.ai.tuning;
+
+import com.chess.engine.player.ai.EvaluationParameters;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Texel tuning: the evaluation of each labelled position is turned into an expected result with a
+// sigmoid, and the weights are moved down the gradient of the mean squared error against the real results.
+// A pass over the positions is a fork/join sum over shards of them, each shard reading only the packed
+// features, so an epoch costs about one sweep through memory.
+//
+//     java com.chess.engine.player.ai.tuning.TexelTuner positions.epd tuned.txt [epochs] [start.txt]
+public final class TexelTuner {
+
+    // positions one fork/join task works through on its own
+    private static final int SHARD_SIZE = 8192;
+    private static final double LEARNING_RATE = 1.0;
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    private final TrainingPositions positions;
+    private final ForkJoinPool pool;
+    private final boolean[] frozen;
+
+    public TexelTuner(final TrainingPositions positions, final ForkJoinPool pool) {
+        this.positions = positions;
+        this.pool = pool;
+        this.frozen = new boolean[EvaluationParameters.SIZE];
+        // the pawn stays at 100 so the scale of the scores does not drift, the sigmoid constant takes the scale instead
+        this.frozen[EvaluationParameters.MATERIAL] = true;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("usage: TexelTuner positions.epd tuned.txt [epochs] [start.txt]");
+            System.exit(1);
+        }
+        final int epochs = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        final EvaluationParameters start = args.length > 3 ? EvaluationParameters.load(Paths.get(args[3])) : EvaluationParameters.getDefault();
+
+        long time = System.nanoTime();
+        final TrainingPositions positions = TrainingPositions.load(Paths.get(args[0]));
+        System.out.printf("loaded %,d positions (%,d lines skipped, %,d bytes of features) in %d ms%n",
+                positions.size(), positions.getSkippedLines(), positions.getMemoryFootprint(), (System.nanoTime() - time) / 1_000_000);
+
+        final TexelTuner tuner = new TexelTuner(positions, ForkJoinPool.commonPool());
+        time = System.nanoTime();
+        final EvaluationParameters tuned = tuner.tune(start, epochs);
+        System.out.printf("tuned in %d ms%n", (System.nanoTime() - time) / 1_000_000);
+        final Path output = Paths.get(args[1]);
+        tuned.save(output);
+        System.out.println("written to " + output);
+    }
+
+    // the sigmoid scale that fits the starting weights best, then Adam steps over the whole set
+    public EvaluationParameters tune(final EvaluationParameters start, final int epochs) {
+        final double[] weights = new double[EvaluationParameters.SIZE];
+        for(int i = 0; i < weights.length; i++) {
+            weights[i] = start.get(i);
+        }
+        final double k = findScalingConstant(weights);
+        System.out.printf("scaling constant %.6f, error %.6f%n", k, error(weights, k));
+        final double[] firstMoment = new double[weights.length];
+        final double[] secondMoment = new double[weights.length];
+        for(int epoch = 1; epoch <= epochs; epoch++) {
+            final Gradient gradient = this.pool.invoke(new GradientTask(weights, k, 0, this.positions.size()));
+            final double correction1 = 1 - Math.pow(BETA1, epoch);
+            final double correction2 = 1 - Math.pow(BETA2, epoch);
+            for(int i = 0; i < weights.length; i++) {
+                if(this.frozen[i]) {
+                    continue;
+                }
+                final double g = gradient.values[i] / this.positions.size();
+                firstMoment[i] = BETA1 * firstMoment[i] + (1 - BETA1) * g;
+                secondMoment[i] = BETA2 * secondMoment[i] + (1 - BETA2) * g * g;
+                weights[i] -= LEARNING_RATE * (firstMoment[i] / correction1) / (Math.sqrt(secondMoment[i] / correction2) + EPSILON);
+            }
+            if(epoch % 10 == 0 || epoch == epochs) {
+                System.out.printf("epoch %d error %.6f%n", epoch, gradient.error / this.positions.size());
+            }
+        }
+        final int[] rounded = new int[weights.length];
+        for(int i = 0; i < weights.length; i++) {
+            rounded[i] = (int) Math.round(weights[i]);
+        }
+        return EvaluationParameters.of(rounded);
+    }
+
+    public double error(final double[] weights, final double k) {
+        return this.pool.invoke(new GradientTask(weights, k, 0, this.positions.size())).error / this.positions.size();
+    }
+
+    // the error is flat near its minimum in k, a ternary search finds it in a few dozen passes
+    private double findScalingConstant(final double[] weights) {
+        double low = 0.0;
+        double high = 0.05;
+        for(int i = 0; i < 30; i++) {
+            final double third = (high - low) / 3;
+            if(error(weights, low + third) < error(weights, high - third)) {
+                high -= third;
+            } else {
+                low += third;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    private static double sigmoid(final double k, final double score) {
+        return 1.0 / (1.0 + Math.exp(-k * score));
+    }
+
+    private static final class Gradient {
+
+        private final double[] values;
+        private double error;
+
+        Gradient() {
+            this.values = new double[EvaluationParameters.SIZE];
+        }
+
+        Gradient add(final Gradient other) {
+            for(int i = 0; i < this.values.length; i++) {
+                this.values[i] += other.values[i];
+            }
+            this.error += other.error;
+            return this;
+        }
+    }
+
+    // squared error and its gradient, summed over positions from to to
+    private final class GradientTask extends RecursiveTask<Gradient> {
+
+        private final double[] weights;
+        private final double k;
+        private final int from;
+        private final int to;
+
+        GradientTask(final double[] weights, final double k, final int from, final int to) {
+            this.weights = weights;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Gradient compute() {
+            if(this.to - this.from > SHARD_SIZE) {
+                final int middle = (this.from + this.to) >>> 1;
+                final GradientTask left = new GradientTask(this.weights, this.k, this.from, middle);
+                left.fork();
+                final Gradient right = new GradientTask(this.weights, this.k, middle, this.to).compute();
+                return right.add(left.join());
+            }
+            final TrainingPositions set = TexelTuner.this.positions;
+            final Gradient gradient = new Gradient();
+            for(int position = this.from; position < this.to; position++) {
+                final int start = set.start(position);
+                final int end = set.end(position);
+                double score = 0;
+                for(int i = start; i < end; i++) {
+                    final int entry = set.entry(i);
+                    score += this.weights[TrainingPositions.index(entry)] * TrainingPositions.count(entry);
+                }
+                final double expected = sigmoid(this.k, score);
+                final double difference = expected - set.result(position);
+                gradient.error += difference * difference;
+                // d(error)/d(score), the factor 2 and the sigmoid's slope
+                final double slope = 2 * difference * expected * (1 - expected) * this.k;
+                for(int i = start; i < end; i++) {
+                    final int entry = set.entry(i);
+                    gradient.values[TrainingPositions.index(entry)] += slope * TrainingPositions.count(entry);
+                }
+            }
+            return gradient;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.chess.engine.player.ai.tuning;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.FenUtilities;
+import com.chess.engine.player.ai.EvaluationParameters;
+import com.chess.engine.player.ai.LinearEvaluator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Labelled positions reduced to their features once, so tuning never builds a Board again.
+// Each position is a run of packed entries, the parameter index in the high 16 bits and its
+// signed count in the low 16, and a result for white: 1 a win, 0.5 a draw, 0 a loss.
+public final class TrainingPositions {
+
+    private int size;
+    private int[] offsets;
+    private int[] entries;
+    private int entryCount;
+    private float[] results;
+    private int skippedLines;
+
+    private TrainingPositions() {
+        this.offsets = new int[1024];
+        this.entries = new int[1024 * 32];
+        this.results = new float[1024];
+    }
+
+    // reads an EPD file line by line: four or six FEN fields and the game result, given as
+    // c9 "1-0", a bare 1-0 / 0-1 / 1/2-1/2 or a bracketed [1.0] / [0.5] / [0.0]
+    public static TrainingPositions load(final Path epdFile) throws IOException {
+        final TrainingPositions positions = new TrainingPositions();
+        final int[] features = new int[EvaluationParameters.SIZE];
+        try(final BufferedReader reader = Files.newBufferedReader(epdFile, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                if(line.isBlank()) {
+                    continue;
+                }
+                final float result = parseResult(line);
+                if(Float.isNaN(result)) {
+                    positions.skippedLines++;
+                    continue;
+                }
+                final Board board;
+                try {
+                    board = FenUtilities.createGameFromFEN(line);
+                } catch (final RuntimeException e) {
+                    positions.skippedLines++;
+                    continue;
+                }
+                LinearEvaluator.extractFeatures(board, features);
+                positions.add(features, result);
+            }
+        }
+        return positions;
+    }
+
+    private void add(final int[] features, final float result) {
+        if(this.size + 1 >= this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2);
+            this.results = Arrays.copyOf(this.results, this.results.length * 2);
+        }
+        this.offsets[this.size] = this.entryCount;
+        for(int index = 0; index < features.length; index++) {
+            if(features[index] != 0) {
+                if(this.entryCount == this.entries.length) {
+                    this.entries = Arrays.copyOf(this.entries, this.entries.length * 2);
+                }
+                this.entries[this.entryCount++] = index << 16 | (features[index] & 0xFFFF);
+            }
+        }
+        this.results[this.size] = result;
+        this.size++;
+        this.offsets[this.size] = this.entryCount;
+    }
+
+    private static float parseResult(final String line) {
+        if(line.contains("1/2-1/2") || line.contains("[0.5]")) {
+            return 0.5f;
+        }
+        if(line.contains("1-0") || line.contains("[1.0]") || line.contains("[1]")) {
+            return 1.0f;
+        }
+        if(line.contains("0-1") || line.contains("[0.0]") || line.contains("[0]")) {
+            return 0.0f;
+        }
+        return Float.NaN;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int getSkippedLines() {
+        return this.skippedLines;
+    }
+
+    int start(final int position) { return this.offsets[position]; }
+    int end(final int position) { return this.offsets[position + 1]; }
+    float result(final int position) { return this.results[position]; }
+
+    static int index(final int entry) {
+        return entry >>> 16;
+    }
+
+    static int count(final int entry) {
+        return (short) entry;
+    }
+
+    int entry(final int i) {
+        return this.entries[i];
+    }
+
+    // bytes held for the features and results
+    public long getMemoryFootprint() {
+        return 4L * this.entryCount + 8L * this.size;
+    }
+}
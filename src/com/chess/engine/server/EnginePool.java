@@ -0,0 +1,51 @@
+package com.chess.engine.server;
+
+import com.chess.engine.player.ai.TranspositionTable;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Engine replies for all the games, on a fixed number of platform threads so searching never takes
+// more than its share of the cores from the connection handlers. Requests wait in a bounded queue,
+// a full queue refuses them rather than letting the backlog grow without limit.
+// Each thread has its own transposition table, shared by every game it searches, and searches the root
+// moves itself rather than handing them to AlphaBeta's shared pool.
+public final class EnginePool {
+
+    private static final int TABLE_SIZE_MB = 8;
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<TranspositionTable> tables;
+
+    public EnginePool(final int threads, final int queueCapacity) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    final Thread thread = new Thread(runnable, "engine-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.tables = ThreadLocal.withInitial(() -> new TranspositionTable(TABLE_SIZE_MB));
+    }
+
+    // false when the queue is full, the game then waits for the engine to be asked again
+    public boolean requestMove(final GameSession session) {
+        try {
+            this.executor.execute(() -> session.playEngineMove(this.tables.get()));
+            return true;
+        } catch (final RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public int getQueuedRequests() {
+        return this.executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+}
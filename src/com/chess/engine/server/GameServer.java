@@ -0,0 +1,404 @@
+package com.chess.engine.server;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.player.MoveStatus;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hosts many games at once for clients on the same machine, a plain socket with one command per line
+// standing in for a WebSocket. Each connection gets a reading and a writing thread, virtual where the JVM
+// has them. Everything a connection is sent goes through a bounded queue to its writer, so a game never
+// waits on a slow client; a client too slow to keep its queue from filling is disconnected.
+//
+//     java com.chess.engine.server.GameServer [port] [engine threads] [journal directory]
+//
+// With a journal directory every game is kept in a MoveJournal, a move is acknowledged once it is on disk,
+// and the games in the directory are picked up again at startup. A snapshot of all the games is taken
+// every few minutes so the journal read back at startup stays short.
+//
+// Commands, answered in order on the same connection:
+//     new [human | engine [depth]]   a game, people play both sides or the engine plays black   -> game <id> ...
+//                                    at a depth of 1 to 6, 2 when not given                     | error bad depth ...
+//     watch <id>                     receive the updates of a game                                 -> game <id> ...
+//     move <id> <move>               a move in long algebraic notation, e2e4 or e7e8q             -> ok <id> | error <id> <reason>
+//     engine <id>                    asks the engine again when it was too busy to take the game
+//     hints <id> <square>            where the piece on the square can legally move              -> hints <id> <square> e4 ...
+//     leave <id>                     stop receiving its updates
+//     stats                          sessions, connections, moves and the move validation latency
+//     quit
+// Every game a connection started or watches sends it update lines, see GameSession.
+public final class GameServer {
+
+    public static final int DEFAULT_PORT = 7070;
+    private static final int DEFAULT_ENGINE_DEPTH = 2;
+    // deeper searches would hold an engine thread for too long, and the journal keeps the depth in a byte
+    private static final int MAX_ENGINE_DEPTH = 6;
+    private static final int ENGINE_QUEUE_CAPACITY = 16384;
+    private static final int OUTBOUND_CAPACITY = 1024;
+    private static final int ACCEPT_BACKLOG = 4096;
+    private static final long SNAPSHOT_INTERVAL_SECONDS = 300;
+    // tells a writer its connection is closed
+    private static final String CLOSE = new String("close");
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionThreads;
+    private final EnginePool enginePool;
+    private final Map<Long, GameSession> sessions;
+    private final AtomicLong nextGameId;
+    private final AtomicInteger connections;
+    private final LongAdder moves;
+    private final LatencyHistogram validationLatency;
+    // null without a journal directory
+    private final MoveJournal journal;
+    private final JournalRecovery recovery;
+    private final ScheduledExecutorService snapshots;
+
+    public GameServer(final int port, final int engineThreads) throws IOException {
+        this(port, engineThreads, null);
+    }
+
+    public GameServer(final int port, final int engineThreads, final Path journalDirectory) throws IOException {
+        this.serverSocket = new ServerSocket(port, ACCEPT_BACKLOG, InetAddress.getLoopbackAddress());
+        this.connectionThreads = VirtualThreads.newThreadPerTaskExecutor("game-connection");
+        this.enginePool = new EnginePool(engineThreads, ENGINE_QUEUE_CAPACITY);
+        this.sessions = new ConcurrentHashMap<>();
+        this.nextGameId = new AtomicLong();
+        this.connections = new AtomicInteger();
+        this.moves = new LongAdder();
+        this.validationLatency = new LatencyHistogram();
+        if(journalDirectory == null) {
+            this.journal = null;
+            this.recovery = null;
+            this.snapshots = null;
+            return;
+        }
+        this.journal = MoveJournal.open(journalDirectory);
+        this.recovery = JournalRecovery.recover(this.journal);
+        this.sessions.putAll(this.recovery.getSessions());
+        this.nextGameId.set(this.recovery.getHighestGameId());
+        // the recovered games in one file, the segments they came from can go
+        this.journal.snapshot(this.sessions.values());
+        this.snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshots.scheduleWithFixedDelay(this::snapshot, SNAPSHOT_INTERVAL_SECONDS, SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        final int engineThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final Path journalDirectory = args.length > 2 ? Paths.get(args[2]) : null;
+        final GameServer server = new GameServer(port, engineThreads, journalDirectory);
+        if(server.recovery != null) {
+            System.out.println("recovered " + server.recovery);
+        }
+        System.out.printf("listening on %s, %s threads for connections, %d engine threads%n",
+                server.serverSocket.getLocalSocketAddress(), VirtualThreads.isAvailable() ? "virtual" : "platform", engineThreads);
+        server.serve();
+    }
+
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    // accepts connections until the server is closed
+    public void serve() {
+        while(!this.serverSocket.isClosed()) {
+            try {
+                final Connection connection = new Connection(this.serverSocket.accept());
+                this.connectionThreads.execute(connection::read);
+                this.connectionThreads.execute(connection::write);
+            } catch (final IOException e) {
+                if(!this.serverSocket.isClosed()) {
+                    System.err.println("accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        this.serverSocket.close();
+        this.connectionThreads.shutdownNow();
+        this.enginePool.shutdown();
+        if(this.journal != null) {
+            this.snapshots.shutdownNow();
+            this.journal.close();
+        }
+    }
+
+    public String getStatistics() {
+        return "stats sessions " + this.sessions.size() + " connections " + this.connections.get() +
+               " moves " + this.moves.sum() + " engine queued " + this.enginePool.getQueuedRequests() +
+               " validation " + this.validationLatency.summary();
+    }
+
+    private void snapshot() {
+        try {
+            this.journal.snapshot(this.sessions.values());
+        } catch (final IOException | RuntimeException e) {
+            System.err.println("snapshot failed: " + e);
+        }
+    }
+
+    // the game is dropped once nobody watches it, and the journal forgets it
+    private void endGame(final GameSession session) {
+        if(this.sessions.remove(session.getId(), session) && this.journal != null) {
+            this.journal.endGame(session.getId());
+        }
+    }
+
+    private final class Connection implements GameSession.Subscriber {
+
+        private final Socket socket;
+        private final BlockingQueue<String> outbound;
+        // only the reading thread uses it
+        private final Set<GameSession> watching;
+
+        Connection(final Socket socket) {
+            this.socket = socket;
+            this.outbound = new ArrayBlockingQueue<>(OUTBOUND_CAPACITY);
+            this.watching = new HashSet<>();
+        }
+
+        @Override
+        public boolean deliver(final String message) {
+            if(this.outbound.offer(message)) {
+                return true;
+            }
+            disconnect();
+            return false;
+        }
+
+        void read() {
+            GameServer.this.connections.incrementAndGet();
+            // not closed here, closing it would close the socket under the writer
+            try {
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(this.socket.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                while((line = reader.readLine()) != null && execute(line.trim().split("\\s+"))) {
+                    // each command answers for itself
+                }
+            } catch (final IOException e) {
+                // the client went away or was disconnected for being slow, either way the connection ends
+            } finally {
+                for(final GameSession session : this.watching) {
+                    if(session.unsubscribe(this)) {
+                        endGame(session);
+                    }
+                }
+                GameServer.this.connections.decrementAndGet();
+                finish();
+            }
+        }
+
+        // sends what is queued, a burst of lines goes out with one flush
+        void write() {
+            try(final Writer writer = new BufferedWriter(new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.UTF_8))) {
+                while(true) {
+                    String message = this.outbound.take();
+                    while(message != null) {
+                        if(message == CLOSE) {
+                            return;
+                        }
+                        writer.write(message);
+                        writer.write('\n');
+                        message = this.outbound.poll();
+                    }
+                    writer.flush();
+                }
+            } catch (final IOException | InterruptedException e) {
+                disconnect();
+            }
+        }
+
+        // false on quit
+        private boolean execute(final String[] tokens) {
+            switch(tokens[0]) {
+                case "new":
+                    newGame(tokens);
+                    break;
+                case "watch":
+                    final GameSession watched = session(tokens, 1);
+                    if(watched != null) {
+                        watch(watched);
+                    }
+                    break;
+                case "move":
+                    move(tokens);
+                    break;
+                case "engine":
+                    final GameSession game = session(tokens, 1);
+                    if(game != null) {
+                        askEngine(game);
+                    }
+                    break;
+                case "hints":
+                    hints(tokens);
+                    break;
+                case "leave":
+                    final GameSession left = session(tokens, 1);
+                    if(left != null && this.watching.remove(left) && left.unsubscribe(this)) {
+                        endGame(left);
+                    }
+                    break;
+                case "stats":
+                    deliver(getStatistics());
+                    break;
+                case "quit":
+                    return false;
+                default:
+                    deliver("error unknown command " + tokens[0]);
+                    break;
+            }
+            return true;
+        }
+
+        private void newGame(final String[] tokens) {
+            final boolean withEngine = tokens.length > 1 && tokens[1].equals("engine");
+            int depth = DEFAULT_ENGINE_DEPTH;
+            if(withEngine && tokens.length > 2) {
+                try {
+                    depth = Integer.parseInt(tokens[2]);
+                } catch (final NumberFormatException e) {
+                    depth = -1;
+                }
+                if(depth < 1 || depth > MAX_ENGINE_DEPTH) {
+                    deliver("error bad depth " + tokens[2] + ", 1 to " + MAX_ENGINE_DEPTH);
+                    return;
+                }
+            }
+            final GameSession session = new GameSession(GameServer.this.nextGameId.incrementAndGet(),
+                    Board.createStandardBoard(), withEngine ? Alliance.BLACK : null, depth, GameServer.this.journal);
+            // in the map first, a snapshot taken in between then has the game or comes before its record
+            GameServer.this.sessions.put(session.getId(), session);
+            if(GameServer.this.journal != null) {
+                GameServer.this.journal.newGame(session.getId(), session.getEngineAlliance(), session.getEngineDepth());
+            }
+            watch(session);
+        }
+
+        private void watch(final GameSession session) {
+            if(this.watching.add(session)) {
+                session.subscribe(this);
+            }
+            deliver(session.describe());
+        }
+
+        private void move(final String[] tokens) {
+            final GameSession session = session(tokens, 2);
+            if(session == null) {
+                return;
+            }
+            final long start = System.nanoTime();
+            String error = null;
+            try {
+                final MoveStatus status = session.play(tokens[2]);
+                if(status == MoveStatus.ILLEGAL_MOVE) {
+                    error = "illegal move " + tokens[2];
+                } else if(status == MoveStatus.LEAVES_PLAYER_IN_CHECK) {
+                    error = "leaves king in check " + tokens[2];
+                }
+            } catch (final IllegalStateException e) {
+                error = e.getMessage();
+            }
+            GameServer.this.validationLatency.record(System.nanoTime() - start);
+            if(error != null) {
+                deliver("error " + session.getId() + " " + error);
+                return;
+            }
+            GameServer.this.moves.increment();
+            session.awaitDurable();
+            deliver("ok " + session.getId());
+            askEngine(session);
+        }
+
+        // the destinations come from the board's memoised masks, so asking again on the same move is cheap
+        private void hints(final String[] tokens) {
+            final GameSession session = session(tokens, 2);
+            if(session == null) {
+                return;
+            }
+            if(!tokens[2].matches("[a-h][1-8]")) {
+                deliver("error " + session.getId() + " bad square " + tokens[2]);
+                return;
+            }
+            final long destinations = session.getBoard().legalDestinations(BoardUtils.getCoordinateAtPosition(tokens[2]));
+            final StringBuilder reply = new StringBuilder("hints ").append(session.getId()).append(' ').append(tokens[2]);
+            for(long remaining = destinations; remaining != 0L; remaining &= remaining - 1) {
+                reply.append(' ').append(BoardUtils.getPositionAtCoordinate(Long.numberOfTrailingZeros(remaining)));
+            }
+            deliver(reply.toString());
+        }
+
+        private void askEngine(final GameSession session) {
+            if(session.isEngineToMove() && !GameServer.this.enginePool.requestMove(session)) {
+                deliver("error " + session.getId() + " engine busy");
+            }
+        }
+
+        // the game named by the token after the command, with arguments up to lastIndex, or null after saying why
+        private GameSession session(final String[] tokens, final int lastIndex) {
+            if(tokens.length <= lastIndex) {
+                deliver("error missing arguments for " + tokens[0]);
+                return null;
+            }
+            final GameSession session;
+            try {
+                session = GameServer.this.sessions.get(Long.parseLong(tokens[1]));
+            } catch (final NumberFormatException e) {
+                deliver("error no game " + tokens[1]);
+                return null;
+            }
+            if(session == null) {
+                deliver("error no game " + tokens[1]);
+            }
+            return session;
+        }
+
+        // the writer sends what is still queued and then closes the socket
+        private void finish() {
+            if(!this.outbound.offer(CLOSE)) {
+                disconnect();
+            }
+        }
+
+        // drops what is queued and closes the socket at once
+        private void disconnect() {
+            this.outbound.clear();
+            this.outbound.offer(CLOSE);
+            try {
+                this.socket.close();
+            } catch (final IOException e) {
+                // already closed
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.chess.engine.server;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.AlgebraicNotation;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.GameHistory;
+import com.chess.engine.board.GameStatus;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.PackedPosition;
+import com.chess.engine.board.PositionHistory;
+import com.chess.engine.player.MoveStatus;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TranspositionTable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+// One game on the server: its history, with the current board, and whoever watches it.
+// Moves from any connection and from the engine go through the lock one at a time, each is checked with
+// Player.makeMove on the current board and then sent to every subscriber as
+//     update <game> <ply> <move> <status>
+// with the move in long algebraic notation and the status a GameStatus name.
+// A ReentrantLock rather than synchronized, a virtual thread waiting on it does not hold on to its carrier.
+// With a MoveJournal every move is appended to it before it is sent out, see awaitDurable.
+public final class GameSession {
+
+    // takes a message without blocking, false when it cannot and should be dropped
+    public interface Subscriber {
+        boolean deliver(String message);
+    }
+
+    private final long id;
+    // the side the engine plays, or null when people play both
+    private final Alliance engineAlliance;
+    private final int engineDepth;
+    private final ReentrantLock lock;
+    private final GameHistory history;
+    // the ply of the history's first board, not 0 for a game restored from a snapshot
+    private final int firstPly;
+    private final List<Subscriber> subscribers;
+    // null when the server keeps no journal
+    private final MoveJournal journal;
+    // of the last move appended to the journal
+    private long journalSequence;
+    // kept with the history, finding a mate tries every move so it is worked out once per move.
+    // null after moves replayed from the journal, until it is next needed
+    private GameStatus status;
+
+    public GameSession(final long id,
+                       final Board initialBoard,
+                       final Alliance engineAlliance,
+                       final int engineDepth) {
+        this(id, initialBoard, engineAlliance, engineDepth, null);
+    }
+
+    public GameSession(final long id,
+                       final Board initialBoard,
+                       final Alliance engineAlliance,
+                       final int engineDepth,
+                       final MoveJournal journal) {
+        this(id, new GameHistory(initialBoard), 0, engineAlliance, engineDepth, journal);
+    }
+
+    private GameSession(final long id,
+                        final GameHistory history,
+                        final int firstPly,
+                        final Alliance engineAlliance,
+                        final int engineDepth,
+                        final MoveJournal journal) {
+        this.id = id;
+        this.engineAlliance = engineAlliance;
+        this.engineDepth = engineDepth;
+        this.lock = new ReentrantLock();
+        this.history = history;
+        this.firstPly = firstPly;
+        this.subscribers = new CopyOnWriteArrayList<>();
+        this.journal = journal;
+        this.status = this.history.getGameStatus();
+    }
+
+    // a game as writeSnapshot left it, carrying on in journal
+    static GameSession readSnapshot(final DataInput in, final MoveJournal journal) throws IOException {
+        final long id = in.readLong();
+        final byte engine = in.readByte();
+        final int depth = in.readByte();
+        final int ply = in.readInt();
+        final byte[] packed = new byte[PackedPosition.SIZE];
+        in.readFully(packed);
+        final Board board = PackedPosition.unpackBoard(packed, 0);
+        final long[] earlierHashes = new long[in.readInt()];
+        for(int i = 0; i < earlierHashes.length; i++) {
+            earlierHashes[i] = in.readLong();
+        }
+        return new GameSession(id, new GameHistory(board, earlierHashes), ply,
+                engine >= 0 ? Alliance.values()[engine] : null, depth, journal);
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public void subscribe(final Subscriber subscriber) {
+        this.subscribers.add(subscriber);
+    }
+
+    // true when nobody watches any more
+    public boolean unsubscribe(final Subscriber subscriber) {
+        this.subscribers.remove(subscriber);
+        return this.subscribers.isEmpty();
+    }
+
+    public Alliance getEngineAlliance() {
+        return this.engineAlliance;
+    }
+
+    public int getEngineDepth() {
+        return this.engineDepth;
+    }
+
+    public Board getBoard() {
+        this.lock.lock();
+        try {
+            return this.history.getCurrentBoard();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // whether it is the engine's move in a game that is still going
+    public boolean isEngineToMove() {
+        this.lock.lock();
+        try {
+            return isEngineToMove(this.history.getCurrentBoard());
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // plays a move given in long algebraic notation for the side to move. DONE when it was played,
+    // ILLEGAL_MOVE when there is no such move and LEAVES_PLAYER_IN_CHECK as Player.makeMove says.
+    // IllegalStateException when the game is over or it is the engine's turn
+    public MoveStatus play(final String text) {
+        this.lock.lock();
+        try {
+            final Board board = this.history.getCurrentBoard();
+            if(status().isGameOver()) {
+                throw new IllegalStateException("game over");
+            }
+            if(isEngineToMove(board)) {
+                throw new IllegalStateException("engine to move");
+            }
+            final int moveCode = AlgebraicNotation.encodeLongAlgebraic(text);
+            final Move move = moveCode >= 0 ? Move.MoveFactory.decodeMove(board, moveCode) : Move.MoveFactory.getNullMove();
+            if(move == Move.MoveFactory.getNullMove()) {
+                return MoveStatus.ILLEGAL_MOVE;
+            }
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()) {
+                record(move, transition.getTransitionBoard());
+            }
+            return transition.getMoveStatus();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // searches the current position and plays the result, if nothing changed meanwhile.
+    // runs on an engine thread, the lock is not held during the search
+    public void playEngineMove(final TranspositionTable table) {
+        final Board board;
+        final PositionHistory positions;
+        final int ply;
+        this.lock.lock();
+        try {
+            board = this.history.getCurrentBoard();
+            if(!isEngineToMove(board)) {
+                return;
+            }
+            positions = this.history.getPositionHistory().copy();
+            ply = this.history.getCurrentPly();
+        } finally {
+            this.lock.unlock();
+        }
+        final AlphaBeta strategy = new AlphaBeta(StandardBoardEvaluator.get(), this.engineDepth, table);
+        // the EnginePool thread this runs on is all the cpu a game's search gets
+        strategy.setSerialRoot(true);
+        final Move move = strategy.execute(board, positions);
+        this.lock.lock();
+        try {
+            if(this.history.getCurrentPly() != ply || move == Move.MoveFactory.getNullMove()) {
+                return;
+            }
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()) {
+                record(move, transition.getTransitionBoard());
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // waits until the moves played so far are in the journal on disk, so a move is acknowledged only once
+    // a restart would keep it. Called without the lock, the moves of other games go to disk with it
+    public void awaitDurable() {
+        if(this.journal == null) {
+            return;
+        }
+        final long sequence;
+        this.lock.lock();
+        try {
+            sequence = this.journalSequence;
+        } finally {
+            this.lock.unlock();
+        }
+        this.journal.awaitDurable(sequence);
+    }
+
+    // where the game stands, for a new subscriber
+    public String describe() {
+        this.lock.lock();
+        try {
+            return "game " + this.id + " " + (this.firstPly + this.history.getCurrentPly()) + " " + status() +
+                   (this.engineAlliance != null ? " engine " + this.engineAlliance : "");
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // the game for a snapshot: the board, and the positions since the last capture or pawn move
+    // for the repetitions
+    void writeSnapshot(final DataOutput out) throws IOException {
+        this.lock.lock();
+        try {
+            final Board board = this.history.getCurrentBoard();
+            final PositionHistory positions = this.history.getPositionHistory();
+            final int earlier = Math.min(board.getHalfMoveClock(), positions.size() - 1);
+            final long[] hashes = positions.lastHashes(earlier + 1);
+            out.writeLong(this.id);
+            out.writeByte(this.engineAlliance != null ? this.engineAlliance.ordinal() : -1);
+            out.writeByte(this.engineDepth);
+            out.writeInt(this.firstPly + this.history.getCurrentPly());
+            out.write(PackedPosition.pack(board));
+            out.writeInt(earlier);
+            for(int i = 0; i < earlier; i++) {
+                out.writeLong(hashes[i]);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // a move read back from the journal. Played only when it is the next ply, one the snapshot has already
+    // is skipped. It was checked when it was first played, so it is looked up among the legal moves and
+    // executed without Player.makeMove, and nobody is told and nothing journaled
+    boolean replay(final int ply, final int moveCode) {
+        this.lock.lock();
+        try {
+            if(ply != this.firstPly + this.history.getCurrentPly() + 1) {
+                return false;
+            }
+            final Board board = this.history.getCurrentBoard();
+            final Move move = Move.MoveFactory.decodeMove(board, moveCode);
+            if(move == Move.MoveFactory.getNullMove()) {
+                return false;
+            }
+            this.history.recordMove(move, move.execute());
+            this.status = null;
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // called with the lock held, so every subscriber sees the updates in the order they happened
+    private void record(final Move move, final Board transitionBoard) {
+        this.history.recordMove(move, transitionBoard);
+        this.status = this.history.getGameStatus();
+        final int ply = this.firstPly + this.history.getCurrentPly();
+        if(this.journal != null) {
+            this.journalSequence = this.journal.move(this.id, ply, Move.MoveFactory.encodeMove(move));
+        }
+        final String update = "update " + this.id + " " + ply + " " +
+                              AlgebraicNotation.toLongAlgebraic(move) + " " + this.status;
+        for(final Subscriber subscriber : this.subscribers) {
+            if(!subscriber.deliver(update)) {
+                this.subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    // called with the lock held
+    private GameStatus status() {
+        if(this.status == null) {
+            this.status = this.history.getGameStatus();
+        }
+        return this.status;
+    }
+
+    private boolean isEngineToMove(final Board board) {
+        return this.engineAlliance != null && board.currentPlayer().getAlliance() == this.engineAlliance &&
+               !status().isGameOver();
+    }
+}
@@ -0,0 +1,195 @@
+package com.chess.engine.server;
+
+import com.chess.engine.board.AlgebraicNotation;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.GameHistory;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// What the journal costs a move, and how long a restart takes. Random games are made up front and played
+// into GameSessions by a number of threads, once without a journal and once with one, where every move
+// waits until it is on disk as a server's ok does. The games are then recovered from the journal alone,
+// and again from a snapshot, and checked against the boards they were played to.
+//
+//     java com.chess.engine.server.JournalBenchmark [--dir d] [--games n] [--plies p] [--threads t]
+// Without --dir the journal goes to a temporary directory that is deleted afterwards.
+public final class JournalBenchmark {
+
+    private static final int DEFAULT_GAMES = 1000;
+    private static final int DEFAULT_PLIES = 60;
+    private static final int DEFAULT_THREADS = 32;
+    private static final long SEED = 20241019L;
+
+    private JournalBenchmark() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static void main(final String[] args) throws Exception {
+        Path directory = null;
+        int games = DEFAULT_GAMES;
+        int plies = DEFAULT_PLIES;
+        int threads = DEFAULT_THREADS;
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--dir": directory = Paths.get(args[++i]); break;
+                case "--games": games = Integer.parseInt(args[++i]); break;
+                case "--plies": plies = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        final boolean temporary = directory == null;
+        if(temporary) {
+            directory = Files.createTempDirectory("journal");
+        }
+        final String[][] moves = randomGames(games, plies);
+        long total = 0;
+        for(final String[] game : moves) {
+            total += game.length;
+        }
+        System.out.printf("%d games, %,d moves, %d threads, journal in %s%n", games, total, threads, directory);
+        try {
+            // once to warm up, then measured
+            play(moves, threads, null, new LatencyHistogram());
+            final LatencyHistogram plain = new LatencyHistogram();
+            final long plainStart = System.nanoTime();
+            play(moves, threads, null, plain);
+            final long plainNanos = System.nanoTime() - plainStart;
+            System.out.printf("no journal     %,8d moves/s  %s%n", total * 1_000_000_000L / plainNanos, plain.summary());
+
+            final LatencyHistogram durable = new LatencyHistogram();
+            final MoveJournal journal = MoveJournal.open(directory);
+            final long start = System.nanoTime();
+            final Map<Long, GameSession> played = play(moves, threads, journal, durable);
+            final long durableNanos = System.nanoTime() - start;
+            journal.close();
+            System.out.printf("journal        %,8d moves/s  %s%n", total * 1_000_000_000L / durableNanos, durable.summary());
+            System.out.printf("               %,d forces, %.1f moves per force, %,d bytes, %.1f bytes per move%n",
+                    journal.getForceCount(), (double) total / journal.getForceCount(),
+                    journal.getBytesWritten(), (double) journal.getBytesWritten() / total);
+
+            final MoveJournal reopened = MoveJournal.open(directory);
+            final JournalRecovery fromLog = JournalRecovery.recover(reopened);
+            System.out.printf("from the log   %s, %,.0f moves/s, %s%n", fromLog,
+                    fromLog.getReplayedMoves() * 1e9 / Math.max(1, fromLog.getNanos()), compare(played, fromLog.getSessions()));
+            reopened.snapshot(fromLog.getSessions().values());
+            reopened.close();
+
+            final MoveJournal again = MoveJournal.open(directory);
+            final JournalRecovery fromSnapshot = JournalRecovery.recover(again);
+            System.out.printf("from snapshot  %s, %s%n", fromSnapshot, compare(played, fromSnapshot.getSessions()));
+            again.close();
+        } finally {
+            if(temporary) {
+                try(final Stream<Path> files = Files.walk(directory)) {
+                    for(final Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                        Files.delete(path);
+                    }
+                }
+            }
+        }
+    }
+
+    // each thread plays its share of the games a move at a time in turn, so the games' moves interleave as
+    // a server's do; the time is per move, waiting for the journal included
+    private static Map<Long, GameSession> play(final String[][] moves,
+                                               final int threads,
+                                               final MoveJournal journal,
+                                               final LatencyHistogram latency) throws InterruptedException {
+        final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+        final List<Thread> players = new ArrayList<>();
+        for(int t = 0; t < threads; t++) {
+            final int first = t;
+            players.add(new Thread(() -> {
+                final List<GameSession> mine = new ArrayList<>();
+                for(int g = first; g < moves.length; g += threads) {
+                    final GameSession session = new GameSession(g + 1, Board.createStandardBoard(), null, 0, journal);
+                    if(journal != null) {
+                        journal.newGame(session.getId(), null, 0);
+                    }
+                    sessions.put(session.getId(), session);
+                    mine.add(session);
+                }
+                for(int ply = 0; ; ply++) {
+                    boolean moved = false;
+                    for(final GameSession session : mine) {
+                        final String[] game = moves[(int) session.getId() - 1];
+                        if(ply >= game.length) {
+                            continue;
+                        }
+                        final long start = System.nanoTime();
+                        if(!session.play(game[ply]).isDone()) {
+                            throw new IllegalStateException("game " + session.getId() + " rejected " + game[ply]);
+                        }
+                        session.awaitDurable();
+                        latency.record(System.nanoTime() - start);
+                        moved = true;
+                    }
+                    if(!moved) {
+                        return;
+                    }
+                }
+            }, "player-" + t));
+        }
+        for(final Thread player : players) {
+            player.start();
+        }
+        for(final Thread player : players) {
+            player.join();
+        }
+        return sessions;
+    }
+
+    private static String compare(final Map<Long, GameSession> played, final Map<Long, GameSession> recovered) {
+        int mismatches = 0;
+        for(final GameSession session : played.values()) {
+            final GameSession copy = recovered.get(session.getId());
+            if(copy == null || copy.getBoard().getZobristHash() != session.getBoard().getZobristHash() ||
+               !copy.describe().equals(session.describe())) {
+                mismatches++;
+            }
+        }
+        return mismatches == 0 && played.size() == recovered.size() ? "all games match" : mismatches + " games differ";
+    }
+
+    // games of random legal moves from a fixed seed, ending early when the game is over
+    private static String[][] randomGames(final int games, final int plies) {
+        final Random random = new Random(SEED);
+        final String[][] moves = new String[games][];
+        for(int g = 0; g < games; g++) {
+            final List<String> game = new ArrayList<>();
+            final GameHistory history = new GameHistory(Board.createStandardBoard());
+            while(game.size() < plies && !history.getGameStatus().isGameOver()) {
+                final Board board = history.getCurrentBoard();
+                final List<Move> legal = new ArrayList<>(board.currentPlayer().getLegalMoves());
+                MoveTransition transition = null;
+                final int offset = legal.isEmpty() ? 0 : random.nextInt(legal.size());
+                for(int i = 0; i < legal.size() && transition == null; i++) {
+                    final MoveTransition attempt = board.currentPlayer().makeMove(legal.get((offset + i) % legal.size()));
+                    if(attempt.getMoveStatus().isDone()) {
+                        transition = attempt;
+                    }
+                }
+                if(transition == null) {
+                    break;
+                }
+                game.add(AlgebraicNotation.toLongAlgebraic(transition.getMove()));
+                history.recordMove(transition.getMove(), transition.getTransitionBoard());
+            }
+            moves[g] = game.toArray(new String[0]);
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,154 @@
+package com.chess.engine.server;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+// Puts the games of a MoveJournal's directory back together after a restart: the newest snapshot, then
+// the records of its segment and every later one, in order. A move the snapshot already has is skipped by
+// its ply, and the moves are played without being checked again, they were when they were first played.
+// A segment ends at the first record that is cut short or fails its checksum, the tail a crash tore.
+public final class JournalRecovery {
+
+    private final Map<Long, GameSession> sessions;
+    private long highestGameId;
+    private long snapshotGames;
+    private long records;
+    private long replayedMoves;
+    private long tornSegments;
+    private long nanos;
+
+    private JournalRecovery() {
+        this.sessions = new HashMap<>();
+    }
+
+    // the games in the segments and snapshots before the journal's current segment, which carry on in it
+    public static JournalRecovery recover(final MoveJournal journal) throws IOException {
+        final long start = System.nanoTime();
+        final JournalRecovery recovery = new JournalRecovery();
+        final Path directory = journal.getDirectory();
+        final long current = journal.getSegment();
+        long firstSegment = 0;
+        final List<Long> snapshots = MoveJournal.listSnapshots(directory);
+        for(int i = snapshots.size() - 1; i >= 0; i--) {
+            if(snapshots.get(i) < current) {
+                firstSegment = snapshots.get(i);
+                recovery.readSnapshot(MoveJournal.snapshotPath(directory, firstSegment), journal);
+                break;
+            }
+        }
+        for(final long segment : MoveJournal.listSegments(directory)) {
+            if(segment >= firstSegment && segment < current) {
+                recovery.replaySegment(MoveJournal.segmentPath(directory, segment), journal);
+            }
+        }
+        recovery.nanos = System.nanoTime() - start;
+        return recovery;
+    }
+
+    public Map<Long, GameSession> getSessions() {
+        return this.sessions;
+    }
+
+    // the largest game id seen, new games are numbered after it
+    public long getHighestGameId() {
+        return this.highestGameId;
+    }
+
+    public long getReplayedMoves() {
+        return this.replayedMoves;
+    }
+
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games (%d from the snapshot), %d records, %d moves replayed, %d torn segments, %.1f ms",
+                this.sessions.size(), this.snapshotGames, this.records, this.replayedMoves, this.tornSegments, this.nanos / 1e6);
+    }
+
+    private void readSnapshot(final Path path, final MoveJournal journal) throws IOException {
+        try(final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if(in.readInt() != MoveJournal.SNAPSHOT_MAGIC) {
+                throw new IOException("Not a snapshot: " + path);
+            }
+            final int count = in.readInt();
+            for(int i = 0; i < count; i++) {
+                add(GameSession.readSnapshot(in, journal));
+            }
+            this.snapshotGames = count;
+        }
+    }
+
+    private void replaySegment(final Path path, final MoveJournal journal) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        final CRC32C checksum = new CRC32C();
+        while(buffer.hasRemaining()) {
+            final int start = buffer.position();
+            final int size = recordSize(buffer.get(start));
+            if(size < 0 || buffer.remaining() < size) {
+                this.tornSegments++;
+                return;
+            }
+            checksum.reset();
+            checksum.update(buffer.array(), start, size - Integer.BYTES);
+            if(buffer.getInt(start + size - Integer.BYTES) != (int) checksum.getValue()) {
+                this.tornSegments++;
+                return;
+            }
+            final byte type = buffer.get();
+            final long id = buffer.getLong();
+            switch(type) {
+                case MoveJournal.NEW_GAME:
+                    final byte engine = buffer.get();
+                    final int depth = buffer.get();
+                    if(!this.sessions.containsKey(id)) {
+                        add(new GameSession(id, Board.createStandardBoard(),
+                                engine >= 0 ? Alliance.values()[engine] : null, depth, journal));
+                    }
+                    break;
+                case MoveJournal.MOVE:
+                    final int ply = buffer.getChar();
+                    final int moveCode = buffer.getShort() & 0xFFFF;
+                    final GameSession session = this.sessions.get(id);
+                    if(session != null && session.replay(ply, moveCode)) {
+                        this.replayedMoves++;
+                    }
+                    break;
+                case MoveJournal.END_GAME:
+                    this.sessions.remove(id);
+                    break;
+                default:
+                    break;
+            }
+            buffer.position(start + size);
+            this.records++;
+        }
+    }
+
+    private void add(final GameSession session) {
+        this.sessions.put(session.getId(), session);
+        this.highestGameId = Math.max(this.highestGameId, session.getId());
+    }
+
+    private static int recordSize(final byte type) {
+        switch(type) {
+            case MoveJournal.NEW_GAME: return MoveJournal.NEW_GAME_SIZE;
+            case MoveJournal.MOVE: return MoveJournal.MOVE_SIZE;
+            case MoveJournal.END_GAME: return MoveJournal.END_GAME_SIZE;
+            default: return -1;
+        }
+    }
+}
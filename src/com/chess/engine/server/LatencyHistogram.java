@@ -0,0 +1,87 @@
+package com.chess.engine.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Latencies in nanoseconds, counted in buckets instead of kept, so recording is one atomic increment
+// from any number of threads. Each power of two is split into SUB_BUCKETS equal buckets, a percentile
+// is then within an eighth of the true value whatever the range.
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong max;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(Long.SIZE * SUB_BUCKETS);
+        this.max = new AtomicLong();
+    }
+
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        this.counts.incrementAndGet(index(value));
+        long current;
+        while(value > (current = this.max.get()) && !this.max.compareAndSet(current, value)) {
+            // another thread raised it, look again
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for(int i = 0; i < this.counts.length(); i++) {
+            count += this.counts.get(i);
+        }
+        return count;
+    }
+
+    public long getMaxNanos() {
+        return this.max.get();
+    }
+
+    // the upper end of the bucket holding the given fraction of the values, 0.99 for p99
+    public long getPercentileNanos(final double fraction) {
+        final long count = getCount();
+        if(count == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for(int i = 0; i < this.counts.length(); i++) {
+            seen += this.counts.get(i);
+            if(seen >= target) {
+                return Math.min(lowestValue(i + 1) - 1, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    // p50, p99, p99.9 and max in microseconds
+    public String summary() {
+        return String.format("p50 %dus p99 %dus p99.9 %dus max %dus",
+                TimeUnit.NANOSECONDS.toMicros(getPercentileNanos(0.50)),
+                TimeUnit.NANOSECONDS.toMicros(getPercentileNanos(0.99)),
+                TimeUnit.NANOSECONDS.toMicros(getPercentileNanos(0.999)),
+                TimeUnit.NANOSECONDS.toMicros(getMaxNanos()));
+    }
+
+    // values below SUB_BUCKETS have a bucket each, above that the top bits pick the power of two and the sub-bucket
+    private static int index(final long value) {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long lowestValue(final int index) {
+        if(index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+}
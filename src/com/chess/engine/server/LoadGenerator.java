@@ -0,0 +1,295 @@
+package com.chess.engine.server;
+
+import com.chess.engine.board.AlgebraicNotation;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.GameStatus;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Plays random games against a GameServer from one machine. The games are spread over a number of
+// connections; every game is opened before the first move so the server holds all of them at once,
+// and they stay open until the server's statistics have been read. Each connection plays its games
+// in turn, one move at a time, timing every move from sending it to its answer.
+//
+//     java com.chess.engine.server.LoadGenerator [--host h] [--port p] [--sessions n] [--connections c]
+//                                                [--moves plies] [--engine-games n] [--server]
+// --server starts a server in the same JVM on a free port, for a quick run without a second process.
+public final class LoadGenerator {
+
+    private static final int DEFAULT_SESSIONS = 10_000;
+    private static final int DEFAULT_CONNECTIONS = 100;
+    private static final int DEFAULT_MOVES = 20;
+    private static final int ENGINE_DEPTH = 1;
+
+    private final String host;
+    private final int port;
+    private final int plies;
+    private final LatencyHistogram roundTrips;
+    private final AtomicLong errors;
+    private final CountDownLatch opened;
+    private final CountDownLatch played;
+    private final CountDownLatch release;
+
+    private LoadGenerator(final String host,
+                          final int port,
+                          final int plies,
+                          final int connections) {
+        this.host = host;
+        this.port = port;
+        this.plies = plies;
+        this.roundTrips = new LatencyHistogram();
+        this.errors = new AtomicLong();
+        this.opened = new CountDownLatch(connections);
+        this.played = new CountDownLatch(connections);
+        this.release = new CountDownLatch(1);
+    }
+
+    public static void main(final String[] args) throws Exception {
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        int port = GameServer.DEFAULT_PORT;
+        int sessions = DEFAULT_SESSIONS;
+        int connections = DEFAULT_CONNECTIONS;
+        int plies = DEFAULT_MOVES;
+        int engineGames = 0;
+        boolean startServer = false;
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--host": host = args[++i]; break;
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--sessions": sessions = Integer.parseInt(args[++i]); break;
+                case "--connections": connections = Integer.parseInt(args[++i]); break;
+                case "--moves": plies = Integer.parseInt(args[++i]); break;
+                case "--engine-games": engineGames = Integer.parseInt(args[++i]); break;
+                case "--server": startServer = true; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        connections = Math.max(1, Math.min(connections, sessions));
+        if(startServer) {
+            final GameServer server = new GameServer(0, Runtime.getRuntime().availableProcessors());
+            final Thread serverThread = new Thread(server::serve, "game-server");
+            serverThread.setDaemon(true);
+            serverThread.start();
+            port = server.getPort();
+        }
+        System.out.printf("%d sessions (%d against the engine) on %d connections, %d plies each, %s threads%n",
+                sessions, engineGames, connections, plies, VirtualThreads.isAvailable() ? "virtual" : "platform");
+
+        final LoadGenerator generator = new LoadGenerator(host, port, plies, connections);
+        final ExecutorService clients = VirtualThreads.newThreadPerTaskExecutor("load-client");
+        final long start = System.nanoTime();
+        for(int c = 0; c < connections; c++) {
+            // the games divided as evenly as they go, the engine games among the first connections
+            final int games = sessions / connections + (c < sessions % connections ? 1 : 0);
+            final int engine = Math.max(0, Math.min(games, engineGames - c * (sessions / connections)));
+            clients.execute(generator.new Client(games, engine));
+        }
+        generator.opened.await();
+        final long openedNanos = System.nanoTime();
+        System.out.printf("opened in %d ms%n", TimeUnit.NANOSECONDS.toMillis(openedNanos - start));
+        generator.played.await();
+        final long playedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openedNanos));
+        final long moves = generator.roundTrips.getCount();
+        System.out.printf("%,d moves in %d ms, %,d moves/s, %d errors%n", moves, playedMillis, moves * 1000 / playedMillis, generator.errors.get());
+        System.out.println("round trip " + generator.roundTrips.summary());
+        System.out.println("server " + generator.queryStatistics());
+        generator.release.countDown();
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private String queryStatistics() throws IOException {
+        try(final Socket socket = new Socket(this.host, this.port);
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            final Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            writer.write("stats\nquit\n");
+            writer.flush();
+            return reader.readLine();
+        }
+    }
+
+    // one connection and its games
+    private final class Client implements Runnable {
+
+        private final int gameCount;
+        private final int engineGames;
+        private final long[] ids;
+        private final Board[] boards;
+        private final int[] plies;
+        private final boolean[] over;
+        private final Map<Long, Integer> indexById;
+        // the game, move and board after it of the last move sent, so the update for it does not replay the move
+        private int sentGame;
+        private String sentMove;
+        private Board sentBoard;
+
+        Client(final int gameCount, final int engineGames) {
+            this.gameCount = gameCount;
+            this.engineGames = engineGames;
+            this.ids = new long[gameCount];
+            this.boards = new Board[gameCount];
+            this.plies = new int[gameCount];
+            this.over = new boolean[gameCount];
+            this.indexById = new HashMap<>();
+        }
+
+        @Override
+        public void run() {
+            boolean opened = false;
+            boolean played = false;
+            try(final Socket socket = new Socket(LoadGenerator.this.host, LoadGenerator.this.port);
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                final Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+                for(int g = 0; g < this.gameCount; g++) {
+                    send(writer, g < this.engineGames ? "new engine " + ENGINE_DEPTH : "new human");
+                    final String[] reply = reader.readLine().split(" ");
+                    this.ids[g] = Long.parseLong(reply[1]);
+                    this.boards[g] = Board.createStandardBoard();
+                    this.indexById.put(this.ids[g], g);
+                }
+                LoadGenerator.this.opened.countDown();
+                opened = true;
+                LoadGenerator.this.opened.await();
+                play(reader, writer);
+                LoadGenerator.this.played.countDown();
+                played = true;
+                LoadGenerator.this.release.await();
+                send(writer, "quit");
+            } catch (final IOException | RuntimeException e) {
+                System.err.println("client failed: " + e);
+                LoadGenerator.this.errors.incrementAndGet();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if(!opened) {
+                    LoadGenerator.this.opened.countDown();
+                }
+                if(!played) {
+                    LoadGenerator.this.played.countDown();
+                }
+            }
+        }
+
+        // a move in each game whose turn it is, round and round, until every game is over or long enough
+        private void play(final BufferedReader reader, final Writer writer) throws IOException {
+            while(true) {
+                boolean moved = false;
+                boolean waiting = false;
+                for(int g = 0; g < this.gameCount; g++) {
+                    if(this.over[g] || this.plies[g] >= LoadGenerator.this.plies) {
+                        continue;
+                    }
+                    if(g < this.engineGames && !this.boards[g].currentPlayer().getAlliance().isWhite()) {
+                        waiting = true;
+                        continue;
+                    }
+                    final MoveTransition transition = randomMove(this.boards[g]);
+                    if(transition == null) {
+                        this.over[g] = true;
+                        continue;
+                    }
+                    this.sentGame = g;
+                    this.sentMove = AlgebraicNotation.toLongAlgebraic(transition.getMove());
+                    this.sentBoard = transition.getTransitionBoard();
+                    final long start = System.nanoTime();
+                    send(writer, "move " + this.ids[g] + " " + this.sentMove);
+                    String line;
+                    while((line = reader.readLine()) != null && !isReply(line, writer, this.ids[g])) {
+                        // updates from the other games are applied as they come
+                    }
+                    LoadGenerator.this.roundTrips.record(System.nanoTime() - start);
+                    if(line == null) {
+                        return;
+                    }
+                    moved = true;
+                }
+                if(!moved && !waiting) {
+                    return;
+                }
+                if(!moved) {
+                    // only engine replies left to wait for
+                    final String line = reader.readLine();
+                    if(line == null) {
+                        return;
+                    }
+                    isReply(line, writer, -1);
+                }
+            }
+        }
+
+        // applies an update, true for the ok or error that answers the move sent in game id
+        private boolean isReply(final String line, final Writer writer, final long id) throws IOException {
+            final String[] tokens = line.split(" ");
+            final Integer index = tokens.length > 1 ? this.indexById.get(Long.parseLong(tokens[1])) : null;
+            switch(tokens[0]) {
+                case "update":
+                    if(index != null && Integer.parseInt(tokens[2]) == this.plies[index] + 1) {
+                        this.boards[index] = index == this.sentGame && tokens[3].equals(this.sentMove) ?
+                                this.sentBoard : replay(this.boards[index], tokens[3]);
+                        this.plies[index]++;
+                        this.over[index] = !tokens[4].equals(GameStatus.IN_PROGRESS.name());
+                    }
+                    return false;
+                case "ok":
+                    return index != null && this.ids[index] == id;
+                case "error":
+                    if(index == null) {
+                        LoadGenerator.this.errors.incrementAndGet();
+                        return false;
+                    }
+                    // comes after the ok of the move, the game is fine and the engine is asked again
+                    if(line.endsWith("engine busy")) {
+                        send(writer, "engine " + this.ids[index]);
+                        return false;
+                    }
+                    this.over[index] = true;
+                    LoadGenerator.this.errors.incrementAndGet();
+                    return this.ids[index] == id;
+                default:
+                    return false;
+            }
+        }
+
+        private void send(final Writer writer, final String line) throws IOException {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    private static Board replay(final Board board, final String move) {
+        return board.currentPlayer().makeMove(AlgebraicNotation.parseLongAlgebraic(board, move)).getTransitionBoard();
+    }
+
+    // a legal move picked at random, or null when there is none
+    private static MoveTransition randomMove(final Board board) {
+        final List<Move> moves = new ArrayList<>(board.currentPlayer().getLegalMoves());
+        final int offset = ThreadLocalRandom.current().nextInt(Math.max(1, moves.size()));
+        for(int i = 0; i < moves.size(); i++) {
+            final MoveTransition transition = board.currentPlayer().makeMove(moves.get((offset + i) % moves.size()));
+            if(transition.getMoveStatus().isDone()) {
+                return transition;
+            }
+        }
+        return null;
+    }
+}
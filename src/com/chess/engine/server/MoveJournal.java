@@ -0,0 +1,374 @@
+package com.chess.engine.server;
+
+import com.chess.engine.Alliance;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// The write-ahead log of the games on a server, so they survive a restart. Every game's records go into
+// one log, in the order they happened; each record is a few bytes and ends in a CRC32C, so one torn by
+// a crash is recognised and dropped:
+//     NEW_GAME   type, game (8), engine alliance (1), engine depth (1), crc (4)           15 bytes
+//     MOVE       type, game (8), ply (2), move (2, as MoveFactory.encodeMove), crc (4)   17 bytes
+//     END_GAME   type, game (8), crc (4)                                                 13 bytes
+// Appending only copies the record into a buffer. One flusher thread writes the buffer and forces it to disk,
+// and whatever is appended while a force runs goes out with the next one, so under load one force covers
+// many moves (group commit). awaitDurable waits until a record is on disk.
+// The log is split into numbered segments. A snapshot of every game pairs with the segment begun just before
+// it was taken, and the segments and snapshots older than that are deleted; JournalRecovery reads them back.
+public final class MoveJournal implements Closeable {
+
+    static final byte NEW_GAME = 1;
+    static final byte MOVE = 2;
+    static final byte END_GAME = 3;
+    static final int NEW_GAME_SIZE = 15;
+    static final int MOVE_SIZE = 17;
+    static final int END_GAME_SIZE = 13;
+    static final int SNAPSHOT_MAGIC = 0x534E5032;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final ReentrantLock lock;
+    private final Condition appended;
+    private final Condition forced;
+    private final CRC32C checksum;
+    private final Thread flusher;
+    // records not written yet, and the buffer the flusher is writing, swapped at each batch
+    private ByteBuffer pending;
+    private ByteBuffer writing;
+    private long appendedSequence;
+    private long durableSequence;
+    private FileChannel channel;
+    private long segment;
+    private IOException failure;
+    private boolean closed;
+    // a batch is being written, to the channel taken with it
+    private boolean flushing;
+    private long forces;
+    private long bytesWritten;
+
+    private MoveJournal(final Path directory, final long segment) throws IOException {
+        this.directory = directory;
+        this.lock = new ReentrantLock();
+        this.appended = this.lock.newCondition();
+        this.forced = this.lock.newCondition();
+        this.checksum = new CRC32C();
+        this.pending = ByteBuffer.allocate(BUFFER_SIZE);
+        this.writing = ByteBuffer.allocate(BUFFER_SIZE);
+        this.segment = segment;
+        this.channel = openSegment(segment);
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // starts a new segment after any already in the directory, so recovery can still read those
+    public static MoveJournal open(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        final List<Long> segments = listSegments(directory);
+        return new MoveJournal(directory, segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1);
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    public long getSegment() {
+        this.lock.lock();
+        try {
+            return this.segment;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // each append returns the record's sequence number, for awaitDurable
+    public long newGame(final long gameId, final Alliance engineAlliance, final int engineDepth) {
+        this.lock.lock();
+        try {
+            final ByteBuffer buffer = reserve(NEW_GAME_SIZE);
+            final int start = buffer.position();
+            buffer.put(NEW_GAME).putLong(gameId)
+                  .put((byte) (engineAlliance != null ? engineAlliance.ordinal() : -1))
+                  .put((byte) engineDepth);
+            return seal(buffer, start);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long move(final long gameId, final int ply, final int moveCode) {
+        this.lock.lock();
+        try {
+            final ByteBuffer buffer = reserve(MOVE_SIZE);
+            final int start = buffer.position();
+            buffer.put(MOVE).putLong(gameId).putChar((char) ply).putShort((short) moveCode);
+            return seal(buffer, start);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long endGame(final long gameId) {
+        this.lock.lock();
+        try {
+            final ByteBuffer buffer = reserve(END_GAME_SIZE);
+            final int start = buffer.position();
+            buffer.put(END_GAME).putLong(gameId);
+            return seal(buffer, start);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // blocks until the record with this sequence number, and all before it, are forced to disk
+    public void awaitDurable(final long sequence) {
+        this.lock.lock();
+        try {
+            while(this.durableSequence < sequence && this.failure == null) {
+                this.forced.awaitUninterruptibly();
+            }
+            checkFailure();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // starts the next segment, a snapshot taken after this needs no record from the segments before it.
+    // records appended while it waits for the ones before may land in either segment
+    public long rotate() throws IOException {
+        this.lock.lock();
+        try {
+            final long sequence = this.appendedSequence;
+            while((this.durableSequence < sequence || this.flushing) && this.failure == null) {
+                this.forced.awaitUninterruptibly();
+            }
+            checkFailure();
+            this.channel.close();
+            this.segment++;
+            this.channel = openSegment(this.segment);
+            return this.segment;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // writes every game as it stands and drops the segments and snapshots it makes unnecessary.
+    // games go on moving meanwhile, their moves after the rotation are in the new segment and replay skips
+    // any the snapshot already has, as the ply says
+    public void snapshot(final Collection<GameSession> sessions) throws IOException {
+        final long snapshotSegment = rotate();
+        final List<GameSession> games = new ArrayList<>(sessions);
+        final Path temporary = this.directory.resolve(SNAPSHOT_PREFIX + snapshotSegment + ".tmp");
+        try(final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(games.size());
+            for(final GameSession game : games) {
+                game.writeSnapshot(out);
+            }
+        }
+        try(final FileChannel file = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            file.force(true);
+        }
+        Files.move(temporary, snapshotPath(this.directory, snapshotSegment), StandardCopyOption.ATOMIC_MOVE);
+        for(final long old : listSegments(this.directory)) {
+            if(old < snapshotSegment) {
+                Files.deleteIfExists(segmentPath(this.directory, old));
+            }
+        }
+        for(final long old : listSnapshots(this.directory)) {
+            if(old < snapshotSegment) {
+                Files.deleteIfExists(snapshotPath(this.directory, old));
+            }
+        }
+    }
+
+    public long getForceCount() {
+        this.lock.lock();
+        try {
+            return this.forces;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getBytesWritten() {
+        this.lock.lock();
+        try {
+            return this.bytesWritten;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // writes out what was appended and stops the flusher
+    @Override
+    public void close() throws IOException {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.appended.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        try {
+            this.flusher.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.channel.close();
+        checkFailure();
+    }
+
+    private void flushLoop() {
+        while(true) {
+            final ByteBuffer batch;
+            final long batchSequence;
+            final FileChannel target;
+            this.lock.lock();
+            try {
+                while(this.pending.position() == 0 && !this.closed) {
+                    this.appended.awaitUninterruptibly();
+                }
+                if(this.pending.position() == 0) {
+                    return;
+                }
+                batch = this.pending;
+                this.pending = this.writing;
+                this.writing = batch;
+                batchSequence = this.appendedSequence;
+                target = this.channel;
+                this.flushing = true;
+            } finally {
+                this.lock.unlock();
+            }
+            IOException error = null;
+            final int size = batch.position();
+            try {
+                batch.flip();
+                while(batch.hasRemaining()) {
+                    target.write(batch);
+                }
+                target.force(false);
+            } catch (final IOException e) {
+                error = e;
+            }
+            batch.clear();
+            this.lock.lock();
+            try {
+                this.flushing = false;
+                if(error != null) {
+                    this.failure = error;
+                } else {
+                    this.durableSequence = batchSequence;
+                    this.forces++;
+                    this.bytesWritten += size;
+                }
+                this.forced.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+            if(error != null) {
+                return;
+            }
+        }
+    }
+
+    // room for one record in the pending buffer, which grows when the flusher falls behind
+    private ByteBuffer reserve(final int size) {
+        checkFailure();
+        if(this.closed) {
+            throw new IllegalStateException("The journal is closed");
+        }
+        if(this.pending.remaining() < size) {
+            final ByteBuffer larger = ByteBuffer.allocate(this.pending.capacity() * 2);
+            this.pending.flip();
+            larger.put(this.pending);
+            this.pending = larger;
+        }
+        return this.pending;
+    }
+
+    // appends the checksum of the record from start, called with the lock held
+    private long seal(final ByteBuffer buffer, final int start) {
+        this.checksum.reset();
+        this.checksum.update(buffer.array(), start, buffer.position() - start);
+        buffer.putInt((int) this.checksum.getValue());
+        if(start == 0) {
+            // the buffer was empty, the flusher may be waiting for it
+            this.appended.signal();
+        }
+        return ++this.appendedSequence;
+    }
+
+    private void checkFailure() {
+        if(this.failure != null) {
+            throw new UncheckedIOException("The journal could not be written", this.failure);
+        }
+    }
+
+    private FileChannel openSegment(final long number) throws IOException {
+        return FileChannel.open(segmentPath(this.directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    static Path segmentPath(final Path directory, final long number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    static Path snapshotPath(final Path directory, final long number) {
+        return directory.resolve(SNAPSHOT_PREFIX + number + SNAPSHOT_SUFFIX);
+    }
+
+    // segment numbers in the directory, in order
+    static List<Long> listSegments(final Path directory) throws IOException {
+        return listNumbered(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    static List<Long> listSnapshots(final Path directory) throws IOException {
+        return listNumbered(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    }
+
+    private static List<Long> listNumbered(final Path directory,
+                                           final String prefix,
+                                           final String suffix) throws IOException {
+        final List<Long> numbers = new ArrayList<>();
+        if(!Files.isDirectory(directory)) {
+            return numbers;
+        }
+        try(final Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                 .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                 .forEach(name -> {
+                     try {
+                         numbers.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                     } catch (final NumberFormatException e) {
+                         // not one of ours
+                     }
+                 });
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+}
@@ -0,0 +1,49 @@
+package com.chess.engine.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A thread per task, virtual when the JVM has them. The project is built for JDKs that do not,
+// so Executors.newVirtualThreadPerTaskExecutor is looked up by reflection and tried once; on a JDK
+// without it, or with it still in preview and not enabled, the tasks get daemon platform threads.
+public final class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    private VirtualThreads() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static boolean isAvailable() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    // name prefixes the platform threads, virtual threads are left unnamed
+    public static ExecutorService newThreadPerTaskExecutor(final String name) {
+        if(NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            } catch (final ReflectiveOperationException e) {
+                // checked when the class loaded, falls through to platform threads all the same
+            }
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ((ExecutorService) factory.invoke(null)).shutdown();
+            return factory;
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
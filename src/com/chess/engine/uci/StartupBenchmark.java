@@ -0,0 +1,83 @@
+package com.chess.engine.uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cold start of the UCI engine as an analysis worker sees it: a new JVM for every job, timed from
+// the process start to the first bestmove of a shallow search. Each configuration is run several
+// times and the median is reported, with and without the class data sharing archive when one is given.
+//
+//     java -cp engine-core.jar com.chess.engine.uci.StartupBenchmark [runs] [archive.jsa]
+// The engine runs on the same java and class path as the benchmark.
+public final class StartupBenchmark {
+
+    private static final int DEFAULT_RUNS = 10;
+    private static final String SESSION = "uci\nisready\nposition startpos moves e2e4\ngo depth 2\n";
+
+    private StartupBenchmark() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        final String java = ProcessHandle.current().info().command().orElse("java");
+        final String classPath = System.getProperty("java.class.path");
+
+        report("default", measure(runs, command(java, classPath)));
+        report("no class sharing", measure(runs, command(java, classPath, "-Xshare:off")));
+        if(args.length > 1) {
+            report("app class sharing", measure(runs, command(java, classPath, "-XX:SharedArchiveFile=" + args[1], "-Xshare:auto")));
+        }
+    }
+
+    private static List<String> command(final String java,
+                                        final String classPath,
+                                        final String... options) {
+        final List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(Arrays.asList(options));
+        command.add("-cp");
+        command.add(classPath);
+        command.add(UciEngine.class.getName());
+        return command;
+    }
+
+    // milliseconds to the first bestmove of each run, sorted
+    private static long[] measure(final int runs, final List<String> command) throws IOException, InterruptedException {
+        final long[] times = new long[runs];
+        for(int run = 0; run < runs; run++) {
+            final long start = System.nanoTime();
+            final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            try(final OutputStream input = process.getOutputStream();
+                final BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                input.write(SESSION.getBytes(StandardCharsets.UTF_8));
+                input.flush();
+                String line;
+                while((line = output.readLine()) != null && !line.startsWith("bestmove")) {
+                    // the id, options and search info are not timed separately
+                }
+                if(line == null) {
+                    throw new IllegalStateException("The engine exited without a bestmove: " + String.join(" ", command));
+                }
+                times[run] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                input.write("quit\n".getBytes(StandardCharsets.UTF_8));
+                input.flush();
+            }
+            process.waitFor();
+        }
+        Arrays.sort(times);
+        return times;
+    }
+
+    private static void report(final String name, final long[] times) {
+        System.out.printf("%-18s median %4d ms  min %4d ms  max %4d ms  (%d runs)%n",
+                name, times[times.length / 2], times[0], times[times.length - 1], times.length);
+    }
+}
@@ -0,0 +1,436 @@
+package com.chess.engine.uci;
+
+import com.chess.engine.board.AlgebraicNotation;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.FenUtilities;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Perft;
+import com.chess.engine.board.PositionHistory;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.BoardEvaluator;
+import com.chess.engine.player.ai.EvaluationParameters;
+import com.chess.engine.player.ai.LinearEvaluator;
+import com.chess.engine.player.ai.NnueEvaluator;
+import com.chess.engine.player.ai.PrincipalLine;
+import com.chess.engine.player.ai.SearchInfo;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TimeManager;
+import com.chess.engine.player.ai.TranspositionTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// The engine without the board window: the UCI protocol on standard input and output, for chess GUIs,
+// scripts and analysis workers. Nothing on this path touches AWT or Swing, so a JVM started here only
+// loads the engine packages (see scripts/engine-core.sh for the jar and its class data sharing archive).
+//
+//     java -cp engine-core.jar com.chess.engine.uci.UciEngine
+//
+// Besides the standard commands it understands 'd' to print the position, 'perft depth' and
+// 'bench [depth]', which searches a few fixed positions and is what the class archive is trained on.
+// The EvalFile option loads an NnueNetwork file to evaluate with in place of StandardBoardEvaluator, and
+// ParamFile a LinearEvaluator with the EvaluationParameters TexelTuner saves. An empty value goes back to it.
+public final class UciEngine {
+
+    private static final String NAME = "Chess_Engine";
+    private static final int DEFAULT_HASH_MB = 16;
+    private static final int MAX_HASH_MB = 1024;
+    private static final int MAX_MULTI_PV = 64;
+    private static final int MAX_DEPTH = 64;
+    private static final int BENCH_DEPTH = 4;
+    private static final long STOP_POLL_MILLIS = 10;
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String[] BENCH_POSITIONS = {
+            START_FEN,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"
+    };
+
+    private final PrintStream out;
+    private final ExecutorService searchThread;
+    private TranspositionTable transpositionTable;
+    private BoardEvaluator evaluator;
+    private int multiPv;
+    private Board board;
+    private PositionHistory history;
+    private AlphaBeta search;
+    private Future<?> searchResult;
+    // a ponder or infinite search keeps its best move until stop or ponderhit counts this down
+    private CountDownLatch release;
+    // the clock a ponder search goes on at ponderhit
+    private TimeManager ponderClock;
+
+    public UciEngine(final PrintStream out) {
+        this.out = out;
+        this.searchThread = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "uci-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.transpositionTable = new TranspositionTable(DEFAULT_HASH_MB);
+        this.evaluator = StandardBoardEvaluator.get();
+        this.multiPv = 1;
+        setPosition(Board.createStandardBoard());
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final UciEngine engine = new UciEngine(System.out);
+        // arguments are one command to run instead of reading input, so 'UciEngine bench' works from a script
+        if(args.length > 0) {
+            engine.execute(String.join(" ", args));
+            engine.shutdown();
+            return;
+        }
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while((line = reader.readLine()) != null) {
+            if(!engine.execute(line.trim())) {
+                break;
+            }
+        }
+        engine.shutdown();
+    }
+
+    // returns false on quit
+    public boolean execute(final String command) {
+        final String[] tokens = command.split("\\s+");
+        switch(tokens[0]) {
+            case "uci":
+                send("id name " + NAME);
+                send("id author " + NAME + " contributors");
+                send("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+                send("option name MultiPV type spin default 1 min 1 max " + MAX_MULTI_PV);
+                send("option name Ponder type check default false");
+                send("option name EvalFile type string default <empty>");
+                send("option name ParamFile type string default <empty>");
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "setoption":
+                setOption(tokens);
+                break;
+            case "ucinewgame":
+                stopSearch();
+                this.transpositionTable.clear();
+                setPosition(Board.createStandardBoard());
+                break;
+            case "position":
+                stopSearch();
+                position(tokens);
+                break;
+            case "go":
+                go(tokens);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            case "d":
+                send(this.board.toString());
+                send("fen " + FenUtilities.createFENFromGame(this.board));
+                break;
+            case "perft":
+                perft(tokens);
+                break;
+            case "bench":
+                bench(tokens.length > 1 ? Integer.parseInt(tokens[1]) : BENCH_DEPTH);
+                break;
+            case "quit":
+                stopSearch();
+                return false;
+            default:
+                // the protocol says to ignore what is not understood
+                break;
+        }
+        return true;
+    }
+
+    public void shutdown() {
+        stopSearch();
+        this.searchThread.shutdownNow();
+    }
+
+    private void setOption(final String[] tokens) {
+        final int nameIndex = indexOf(tokens, "name");
+        final int valueIndex = indexOf(tokens, "value");
+        if(nameIndex < 0 || valueIndex < nameIndex) {
+            return;
+        }
+        final String name = String.join(" ", Arrays.copyOfRange(tokens, nameIndex + 1, valueIndex));
+        // a file name may have spaces in it
+        final String value = String.join(" ", Arrays.copyOfRange(tokens, Math.min(valueIndex + 1, tokens.length), tokens.length));
+        stopSearch();
+        switch(name.toLowerCase()) {
+            case "hash":
+                this.transpositionTable = new TranspositionTable(clamp(Integer.parseInt(value), 1, MAX_HASH_MB));
+                break;
+            case "multipv":
+                this.multiPv = clamp(Integer.parseInt(value), 1, MAX_MULTI_PV);
+                break;
+            case "ponder":
+                // the GUI decides when to ponder and says so with go ponder, the engine has nothing to change
+                break;
+            case "evalfile":
+                try {
+                    setEvaluator(isEmpty(value) ? StandardBoardEvaluator.get() : NnueEvaluator.load(Paths.get(value)));
+                } catch (final IOException e) {
+                    send("info string cannot load network " + value + ": " + e.getMessage());
+                }
+                break;
+            case "paramfile":
+                try {
+                    setEvaluator(isEmpty(value) ? StandardBoardEvaluator.get() :
+                                 new LinearEvaluator(EvaluationParameters.load(Paths.get(value))));
+                } catch (final IOException | NumberFormatException e) {
+                    send("info string cannot load parameters " + value + ": " + e.getMessage());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // the table's scores came from the old evaluation
+    private void setEvaluator(final BoardEvaluator evaluator) {
+        this.evaluator = evaluator;
+        this.transpositionTable.clear();
+    }
+
+    // GUIs send the default of a string option, <empty>, to mean no value
+    private static boolean isEmpty(final String value) {
+        return value.isEmpty() || value.equals("<empty>");
+    }
+
+    // position [startpos | fen <fields>] [moves <move>...]
+    private void position(final String[] tokens) {
+        final int movesIndex = indexOf(tokens, "moves");
+        final int end = movesIndex >= 0 ? movesIndex : tokens.length;
+        final Board position;
+        if(tokens.length > 2 && tokens[1].equals("fen")) {
+            position = FenUtilities.createGameFromFEN(String.join(" ", Arrays.copyOfRange(tokens, 2, end)));
+        } else {
+            position = Board.createStandardBoard();
+        }
+        setPosition(position);
+        if(movesIndex < 0) {
+            return;
+        }
+        for(int i = movesIndex + 1; i < tokens.length; i++) {
+            final Move move = AlgebraicNotation.parseLongAlgebraic(this.board, tokens[i]);
+            final MoveTransition transition = this.board.currentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isDone()) {
+                send("info string illegal move " + tokens[i]);
+                return;
+            }
+            this.board = transition.getTransitionBoard();
+            this.history.push(this.board.getZobristHash());
+        }
+    }
+
+    private void setPosition(final Board position) {
+        this.board = position;
+        this.history = new PositionHistory();
+        this.history.push(position.getZobristHash());
+    }
+
+    // go [wtime ms] [btime ms] [winc ms] [binc ms] [movestogo n] [movetime ms] [depth d] [nodes n] [infinite] [ponder]
+    private void go(final String[] tokens) {
+        stopSearch();
+        final boolean white = this.board.currentPlayer().getAlliance().isWhite();
+        final long time = longAfter(tokens, white ? "wtime" : "btime", 0);
+        final long increment = longAfter(tokens, white ? "winc" : "binc", 0);
+        final int movesToGo = (int) longAfter(tokens, "movestogo", 0);
+        final long moveTime = longAfter(tokens, "movetime", 0);
+        final int depth = (int) longAfter(tokens, "depth", MAX_DEPTH);
+        final boolean infinite = indexOf(tokens, "infinite") >= 0;
+        final boolean ponder = indexOf(tokens, "ponder") >= 0;
+
+        TimeManager clock = null;
+        if(moveTime > 0) {
+            clock = TimeManager.forMoveTime(moveTime);
+        } else if(time > 0) {
+            clock = TimeManager.forClock(time, increment, movesToGo);
+        }
+        final AlphaBeta strategy = new AlphaBeta(this.evaluator, clamp(depth, 1, MAX_DEPTH), this.transpositionTable);
+        strategy.setPrincipalVariations(this.multiPv);
+        strategy.setNodeLimit(longAfter(tokens, "nodes", 0));
+        strategy.setSearchListener(this::sendInfo);
+        // pondering has no clock until ponderhit, infinite never has one
+        strategy.setTimeManager(ponder || infinite ? null : clock);
+        final CountDownLatch release = ponder || infinite ? new CountDownLatch(1) : null;
+
+        final Board position = this.board;
+        final PositionHistory positionHistory = this.history.copy();
+        this.search = strategy;
+        this.release = release;
+        this.ponderClock = ponder ? clock : null;
+        this.searchResult = this.searchThread.submit(() -> {
+            final Move bestMove = strategy.execute(position, positionHistory);
+            if(release != null) {
+                awaitRelease(release);
+            }
+            sendBestMove(strategy, position, bestMove);
+        });
+    }
+
+    // the opponent played the expected move, the running search is now the real one and goes on the clock
+    private void ponderHit() {
+        if(this.search == null || this.release == null) {
+            return;
+        }
+        this.search.setTimeManager(this.ponderClock);
+        this.ponderClock = null;
+        this.release.countDown();
+        this.release = null;
+    }
+
+    // stops a running search and waits for its bestmove. a search that has not started yet clears
+    // the stop when it does, so the stop is repeated until the search is over
+    private void stopSearch() {
+        if(this.searchResult == null) {
+            return;
+        }
+        if(this.release != null) {
+            this.release.countDown();
+        }
+        try {
+            while(true) {
+                this.search.stop();
+                try {
+                    this.searchResult.get(STOP_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (final TimeoutException e) {
+                    // not finished yet, stop it again
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        this.searchResult = null;
+        this.search = null;
+        this.release = null;
+        this.ponderClock = null;
+    }
+
+    private void sendInfo(final SearchInfo searchInfo) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(searchInfo.getElapsedNanos());
+        final List<PrincipalLine> lines = searchInfo.getLines();
+        for(final PrincipalLine line : lines) {
+            final StringBuilder info = new StringBuilder("info depth ").append(searchInfo.getDepth());
+            if(lines.size() > 1) {
+                info.append(" multipv ").append(line.getRank());
+            }
+            info.append(" score ").append(score(line.getScore()))
+                .append(" nodes ").append(searchInfo.getNodes())
+                .append(" nps ").append(searchInfo.getNodesPerSecond())
+                .append(" time ").append(millis)
+                .append(" pv");
+            for(final Move move : line.getVariation()) {
+                info.append(' ').append(AlgebraicNotation.toLongAlgebraic(move));
+            }
+            send(info.toString());
+        }
+    }
+
+    private void sendBestMove(final AlphaBeta strategy, final Board position, final Move bestMove) {
+        if(bestMove == Move.MoveFactory.getNullMove()) {
+            send("bestmove 0000");
+            return;
+        }
+        final StringBuilder reply = new StringBuilder("bestmove ").append(AlgebraicNotation.toLongAlgebraic(bestMove));
+        final MoveTransition transition = position.currentPlayer().makeMove(bestMove);
+        final Move ponderMove = transition.getMoveStatus().isDone() ? strategy.getPonderMove(transition.getTransitionBoard()) : null;
+        if(ponderMove != null) {
+            reply.append(" ponder ").append(AlgebraicNotation.toLongAlgebraic(ponderMove));
+        }
+        send(reply.toString());
+    }
+
+    // mate scores become moves to mate, negative when the side to move is mated
+    private static String score(final int score) {
+        if(Math.abs(score) >= AlphaBeta.MATE_SCORE - AlphaBeta.MAX_PLY) {
+            final int plies = AlphaBeta.MATE_SCORE - Math.abs(score);
+            final int moves = (plies + 1) / 2;
+            return "mate " + (score > 0 ? moves : -moves);
+        }
+        return "cp " + score;
+    }
+
+    private void perft(final String[] tokens) {
+        final int depth = tokens.length > 1 ? Integer.parseInt(tokens[1]) : 1;
+        final long start = System.nanoTime();
+        final long nodes = new Perft(ForkJoinPool.commonPool(), Perft.DEFAULT_CACHE_MB).count(this.board, depth);
+        final long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        send("info string perft " + depth + " nodes " + nodes + " time " + millis);
+    }
+
+    // searches the same positions to a fixed depth, a repeatable load for timing and for training the class archive
+    private void bench(final int depth) {
+        stopSearch();
+        long nodes = 0;
+        final long start = System.nanoTime();
+        for(final String fen : BENCH_POSITIONS) {
+            final AlphaBeta strategy = new AlphaBeta(this.evaluator, depth, new TranspositionTable(DEFAULT_HASH_MB));
+            strategy.execute(FenUtilities.createGameFromFEN(fen));
+            nodes += strategy.getNodeCount();
+        }
+        final long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        send("info string bench depth " + depth + " positions " + BENCH_POSITIONS.length +
+             " nodes " + nodes + " time " + millis + " nps " + nodes * 1000 / millis);
+    }
+
+    private static void awaitRelease(final CountDownLatch release) {
+        try {
+            release.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // the search thread and the input thread both write, each line goes out whole
+    private synchronized void send(final String line) {
+        this.out.println(line);
+        this.out.flush();
+    }
+
+    private static int indexOf(final String[] tokens, final String token) {
+        for(int i = 0; i < tokens.length; i++) {
+            if(tokens[i].equals(token)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long longAfter(final String[] tokens, final String name, final long defaultValue) {
+        final int index = indexOf(tokens, name);
+        return index >= 0 && index + 1 < tokens.length ? Long.parseLong(tokens[index + 1]) : defaultValue;
+    }
+
+    private static int clamp(final int value, final int min, final int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
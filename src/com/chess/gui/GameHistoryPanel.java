@@ -0,0 +1,97 @@
+package com.chess.gui;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// the move list beside the board, one row per move number with white's and black's move.
+// clicking a move asks the table to jump to the position after it
+class GameHistoryPanel extends JPanel {
+
+    private static final Dimension HISTORY_PANEL_DIMENSION = new Dimension(140, 400);
+
+    private final List<String> moveNotations;
+    private final MoveTableModel model;
+    private final JTable moveTable;
+
+    GameHistoryPanel(final IntConsumer plySelected) {
+        super(new BorderLayout());
+        this.moveNotations = new ArrayList<>();
+        this.model = new MoveTableModel();
+        this.moveTable = new JTable(this.model);
+        this.moveTable.setRowHeight(16);
+        this.moveTable.setCellSelectionEnabled(true);
+        this.moveTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        this.moveTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(final MouseEvent e) {
+                final int row = moveTable.rowAtPoint(e.getPoint());
+                final int column = moveTable.columnAtPoint(e.getPoint());
+                if(row >= 0 && column >= 0) {
+                    final int ply = row * 2 + column + 1;
+                    if(ply <= moveNotations.size()) {
+                        plySelected.accept(ply);
+                    }
+                }
+            }
+        });
+        add(new JScrollPane(this.moveTable), BorderLayout.CENTER);
+        setPreferredSize(HISTORY_PANEL_DIMENSION);
+    }
+
+    // a move played after going back replaces everything that followed
+    void moveMade(final int ply, final String notation) {
+        while(this.moveNotations.size() >= ply) {
+            this.moveNotations.remove(this.moveNotations.size() - 1);
+        }
+        this.moveNotations.add(notation);
+        this.model.fireTableDataChanged();
+        showPly(ply);
+    }
+
+    void showPly(final int ply) {
+        if(ply == 0) {
+            this.moveTable.clearSelection();
+            return;
+        }
+        final int row = (ply - 1) / 2;
+        final int column = (ply - 1) % 2;
+        this.moveTable.changeSelection(row, column, false, false);
+    }
+
+    void clear() {
+        this.moveNotations.clear();
+        this.model.fireTableDataChanged();
+    }
+
+    private class MoveTableModel extends AbstractTableModel {
+
+        private final String[] columnNames = {"White", "Black"};
+
+        @Override
+        public int getRowCount() {
+            return (moveNotations.size() + 1) / 2;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return this.columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(final int column) {
+            return this.columnNames[column];
+        }
+
+        @Override
+        public Object getValueAt(final int row, final int column) {
+            final int index = row * 2 + column;
+            return index < moveNotations.size() ? moveNotations.get(index) : "";
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.chess.gui;
+
+import com.chess.engine.pieces.Piece;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Every piece set under art/ read from disk once and kept in memory.
+// The theme in use is loaded straight away, the others are read by a background thread
+// so switching theme later never touches the disk.
+final class PieceSprites {
+
+    private static final String ART_PATH = "art/";
+    private static final String MISC_FOLDER = "misc";
+    private static final String SPRITE_NAME_PATTERN = "[WB][PNBRQK]";
+
+    private final List<String> themeNames;
+    private final Map<String, CompletableFuture<Map<String, ImageIcon>>> themes;
+    private final ImageIcon legalMoveIcon;
+    private final ExecutorService preloader;
+
+    PieceSprites() {
+        this.themeNames = findThemes();
+        this.themes = new ConcurrentHashMap<>();
+        this.legalMoveIcon = readIcon(new File(ART_PATH + MISC_FOLDER, "green_dot.png"));
+        this.preloader = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "sprite-preloader");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    List<String> getThemeNames() {
+        return this.themeNames;
+    }
+
+    // queues every theme that has not been requested yet
+    void preloadAll() {
+        for(final String themeName : this.themeNames) {
+            this.themes.computeIfAbsent(themeName, name ->
+                    CompletableFuture.supplyAsync(() -> loadTheme(name), this.preloader));
+        }
+    }
+
+    // blocks only if the theme is still being read, which can happen once per theme at most
+    ImageIcon getPieceIcon(final String themeName, final Piece piece) {
+        final Map<String, ImageIcon> theme = this.themes.computeIfAbsent(themeName, name ->
+                CompletableFuture.completedFuture(loadTheme(name))).join();
+        return theme.get(spriteName(piece));
+    }
+
+    ImageIcon getLegalMoveIcon() {
+        return this.legalMoveIcon;
+    }
+
+    private static String spriteName(final Piece piece) {
+        return piece.getPieceAlliance().toString().substring(0, 1) + piece.getPieceType().toString();
+    }
+
+    private static List<String> findThemes() {
+        final File[] folders = new File(ART_PATH).listFiles(File::isDirectory);
+        if(folders == null) {
+            return Collections.emptyList();
+        }
+        final List<String> themeNames = new ArrayList<>();
+        for(final File folder : folders) {
+            if(!folder.getName().equals(MISC_FOLDER)) {
+                themeNames.add(folder.getName());
+            }
+        }
+        Collections.sort(themeNames);
+        return Collections.unmodifiableList(themeNames);
+    }
+
+    // piece sets come as .gif or .png, so look up each sprite by its name without the extension
+    private static Map<String, ImageIcon> loadTheme(final String themeName) {
+        final Map<String, ImageIcon> theme = new HashMap<>();
+        final File[] files = new File(ART_PATH + themeName).listFiles(File::isFile);
+        if(files == null) {
+            return theme;
+        }
+        for(final File file : files) {
+            final String fileName = file.getName();
+            final int extension = fileName.lastIndexOf('.');
+            final String spriteName = extension > 0 ? fileName.substring(0, extension) : fileName;
+            if(spriteName.matches(SPRITE_NAME_PATTERN)) {
+                theme.put(spriteName, readIcon(file));
+            }
+        }
+        return theme;
+    }
+
+    private static ImageIcon readIcon(final File file) {
+        try {
+            final BufferedImage image = ImageIO.read(file);
+            return image != null ? new ImageIcon(image) : null;
+        } catch (final IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
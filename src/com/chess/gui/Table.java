@@ -2,29 +2,35 @@ package com.chess.gui;
 
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.GameHistory;
+import com.chess.engine.board.GameStatus;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.PositionHistory;
 import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.player.MoveTransition;
-import com.google.common.collect.Lists;
+import com.chess.engine.player.Player;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.Ponderer;
+import com.chess.engine.player.ai.SearchInfo;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TranspositionTable;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.Dimension;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 
 public class Table {
 
     public final BoardPanel boardPanel;
     public  Board chessBoard;
+    private GameHistory gameHistory;
+    private final GameHistoryPanel gameHistoryPanel;
 
     public Tile sourceTile;
     public Tile destinationTile;
@@ -32,20 +38,40 @@ public class Table {
     public BoardDirection boardDirection;
     private boolean highlightLegalMoves;
 
+    private final JLabel statusBar;
+    private boolean computerPlaysWhite;
+    private boolean computerPlaysBlack;
+    private int searchDepth;
+    private AIThinkTank thinkTank;
+    private boolean ponder;
+    private Ponderer ponderer;
+    // one table for the whole session, each search starts from what the ones before it found
+    private final TranspositionTable transpositionTable;
+
     private final Color darkTileColor = Color.decode("#4d2600");
     private final Color lightTileColor = Color.decode("#ffffe6");
 
     public final Dimension OUTER_FRAME_DIMENSION = new Dimension(650, 650);
     public static final Dimension BOARD_PANEL_DIMENSION = new Dimension(260, 260);
-    public static final Dimension TILE_PANEL_DIMENSION = new Dimension(30, 30);
 
-    public String defaultPieceImagesPath = "art/holywarriors/";
+    public String pieceTheme = "holywarriors";
+    private final PieceSprites pieceSprites;
+
+    private static final int DEFAULT_SEARCH_DEPTH = 4;
 
 
     public Table() {    // this is the constructor
 
         // create the board
         this.chessBoard = Board.createStandardBoard();
+        this.gameHistory = new GameHistory(this.chessBoard);
+
+        // read the piece sets once, the theme in use first and the rest in the background
+        this.pieceSprites = new PieceSprites();
+
+        // both sides are played by humans until the options menu says otherwise
+        this.searchDepth = DEFAULT_SEARCH_DEPTH;
+        this.transpositionTable = new TranspositionTable();
 
         // create the main game frame
         JFrame gameFrame = new JFrame("JChess");
@@ -56,31 +82,59 @@ public class Table {
         final JMenuBar tableMenuBar = createTableMenuBar();
         gameFrame.setJMenuBar(tableMenuBar);
 
+        // set the default board direction
+        this.boardDirection = BoardDirection.NORMAL;
+
         // create the board panel
         this.boardPanel = new BoardPanel();                       
         gameFrame.add(this.boardPanel, BorderLayout.CENTER);
+
+        // create the move list, clicking a move shows the position after it
+        this.gameHistoryPanel = new GameHistoryPanel(ply -> showHistoryBoard(gameHistory.goToPly(ply)));
+        gameFrame.add(this.gameHistoryPanel, BorderLayout.EAST);
+
+        // create the status bar that shows what the engine is doing
+        this.statusBar = new JLabel(" ");
+        this.statusBar.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+        gameFrame.add(this.statusBar, BorderLayout.SOUTH);
         gameFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         gameFrame.setVisible(true);
-
-        // set the default board direction
-        this.boardDirection = BoardDirection.NORMAL;
+        this.pieceSprites.preloadAll();
 
         // default highlight legal moves
         this.highlightLegalMoves = false;
 
-
     }
 //:::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::::.::::::::::::::::::::::::::::::\\    
 
     public JMenuBar createTableMenuBar() {
         final JMenuBar tableMenuBar = new JMenuBar();
         tableMenuBar.add(createFileMenu());
+        tableMenuBar.add(createEditMenu());
         tableMenuBar.add(createPreferencesMenu());
+        tableMenuBar.add(createOptionsMenu());
         return tableMenuBar;
     }
 
     public JMenu createFileMenu() {
         final JMenu fileMenu = new JMenu("File");
+        final JMenuItem newGameMenuItem = new JMenuItem("New Game");
+        newGameMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                cancelThinkTank();
+                chessBoard = Board.createStandardBoard();
+                gameHistory = new GameHistory(chessBoard);
+                gameHistoryPanel.clear();
+                sourceTile = null;
+                humanMovedPiece = null;
+                statusBar.setText(" ");
+                boardPanel.drawBoard(chessBoard);
+                moveMadeUpdate();
+            }
+        });
+        fileMenu.add(newGameMenuItem);
+
         final JMenuItem openPGN = new JMenuItem("Load PGN File");
         openPGN.addActionListener(new ActionListener() {
             @Override
@@ -101,6 +155,36 @@ public class Table {
         return fileMenu;
     }
 
+    private JMenu createEditMenu() {
+        final JMenu editMenu = new JMenu("Edit");
+        final JMenuItem undoMenuItem = new JMenuItem("Undo Move");
+        undoMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
+        undoMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                // against the computer, step back to the last position where the human was to move
+                Board board = gameHistory.undo();
+                while(gameHistory.canUndo() && isComputerPlayer(board.currentPlayer()) &&
+                      !isComputerPlayer(board.currentPlayer().getOpponent())) {
+                    board = gameHistory.undo();
+                }
+                showHistoryBoard(board);
+            }
+        });
+        editMenu.add(undoMenuItem);
+
+        final JMenuItem redoMenuItem = new JMenuItem("Redo Move");
+        redoMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
+        redoMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showHistoryBoard(gameHistory.redo());
+            }
+        });
+        editMenu.add(redoMenuItem);
+        return editMenu;
+    }
+
     private JMenu createPreferencesMenu() {
 
         final JMenu preferencesMenu = new JMenu("Preferences");
@@ -109,7 +193,7 @@ public class Table {
             @Override
             public void actionPerformed(ActionEvent e) {
                 boardDirection = boardDirection.opposite();
-                boardPanel.drawBoard(chessBoard);
+                boardPanel.redrawAll();
             }
         });
         preferencesMenu.add(flipBoardMenuItem);
@@ -120,18 +204,259 @@ public class Table {
                 @Override
                 public void actionPerformed(ActionEvent e) {
                     highlightLegalMoves = legalMoveHighlighterCheckbox.isSelected();
+                    boardPanel.drawBoard(chessBoard);
                 }
             });
             preferencesMenu.add(legalMoveHighlighterCheckbox);
+            preferencesMenu.addSeparator();
+
+            final JMenu pieceThemeMenu = new JMenu("Piece Theme");
+            final ButtonGroup pieceThemeGroup = new ButtonGroup();
+            for(final String themeName : pieceSprites.getThemeNames()) {
+                final JRadioButtonMenuItem themeMenuItem = new JRadioButtonMenuItem(themeName, themeName.equals(pieceTheme));
+                themeMenuItem.addActionListener(new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        pieceTheme = themeName;
+                        boardPanel.redrawAll();
+                    }
+                });
+                pieceThemeGroup.add(themeMenuItem);
+                pieceThemeMenu.add(themeMenuItem);
+            }
+            preferencesMenu.add(pieceThemeMenu);
 
             return preferencesMenu;
         }
 
+    private JMenu createOptionsMenu() {
+
+        final JMenu optionsMenu = new JMenu("Options");
+        final JCheckBoxMenuItem computerWhiteCheckbox = new JCheckBoxMenuItem("Computer Plays White", false);
+        computerWhiteCheckbox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                computerPlaysWhite = computerWhiteCheckbox.isSelected();
+                moveMadeUpdate();
+            }
+        });
+        optionsMenu.add(computerWhiteCheckbox);
+
+        final JCheckBoxMenuItem computerBlackCheckbox = new JCheckBoxMenuItem("Computer Plays Black", false);
+        computerBlackCheckbox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                computerPlaysBlack = computerBlackCheckbox.isSelected();
+                moveMadeUpdate();
+            }
+        });
+        optionsMenu.add(computerBlackCheckbox);
+        optionsMenu.addSeparator();
+
+        final JMenu searchDepthMenu = new JMenu("Search Depth");
+        final ButtonGroup searchDepthGroup = new ButtonGroup();
+        for(int depth = 2; depth <= 8; depth++) {
+            final int menuDepth = depth;
+            final JRadioButtonMenuItem depthMenuItem = new JRadioButtonMenuItem(String.valueOf(depth), depth == searchDepth);
+            depthMenuItem.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    searchDepth = menuDepth;
+                }
+            });
+            searchDepthGroup.add(depthMenuItem);
+            searchDepthMenu.add(depthMenuItem);
+        }
+        optionsMenu.add(searchDepthMenu);
+
+        final JCheckBoxMenuItem ponderCheckbox = new JCheckBoxMenuItem("Ponder", false);
+        ponderCheckbox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                ponder = ponderCheckbox.isSelected();
+                if(!ponder) {
+                    stopPondering();
+                }
+            }
+        });
+        optionsMenu.add(ponderCheckbox);
+
+        final JMenuItem moveNowMenuItem = new JMenuItem("Move Now");
+        moveNowMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if(thinkTank != null) {
+                    thinkTank.moveNow();
+                } else {
+                    moveMadeUpdate();
+                }
+            }
+        });
+        optionsMenu.add(moveNowMenuItem);
+
+        return optionsMenu;
+    }
+
+    private boolean isComputerPlayer(final Player player) {
+        return player.getAlliance().isWhite() ? computerPlaysWhite : computerPlaysBlack;
+    }
+
+    private boolean isEngineThinking() {
+        return thinkTank != null && !thinkTank.isDone();
+    }
+
+    // called on the event dispatch thread after every move, hands the board to the engine when it is its turn
+    private void moveMadeUpdate() {
+        if(isEngineThinking()) {
+            return;
+        }
+        final GameStatus gameStatus = gameHistory.getGameStatus();
+        if(gameStatus == GameStatus.CHECKMATE) {
+            statusBar.setText("Checkmate! " + chessBoard.currentPlayer().getOpponent() + " wins");
+            return;
+        }
+        if(gameStatus.isDraw()) {
+            statusBar.setText("Draw by " + gameStatus.toString().toLowerCase().replace('_', ' '));
+            return;
+        }
+        if(isComputerPlayer(chessBoard.currentPlayer())) {
+            statusBar.setText(chessBoard.currentPlayer() + " is thinking...");
+            // a ponder hit carries on with the search that is already running
+            final Future<Move> ponderSearch = ponderer != null ? ponderer.resolve(chessBoard) : null;
+            final AlphaBeta strategy = ponderSearch != null ? ponderer.getStrategy() :
+                    new AlphaBeta(StandardBoardEvaluator.get(), searchDepth, transpositionTable);
+            thinkTank = new AIThinkTank(chessBoard, gameHistory.getPositionHistory(), strategy, ponderSearch);
+            thinkTank.execute();
+        } else if(!isComputerPlayer(chessBoard.currentPlayer().getOpponent())) {
+            // no engine waits on this move, so there is nothing to ponder for
+            stopPondering();
+        }
+    }
+
+    // after the engine moved, search the reply it expects until the human has played
+    private void startPondering() {
+        if(!ponder || isComputerPlayer(chessBoard.currentPlayer()) || gameHistory.getGameStatus() != GameStatus.IN_PROGRESS) {
+            return;
+        }
+        if(ponderer == null || ponderer.getStrategy().getSearchDepth() != searchDepth) {
+            stopPondering();
+            ponderer = new Ponderer(new AlphaBeta(StandardBoardEvaluator.get(), searchDepth, transpositionTable));
+        }
+        ponderer.getStrategy().setSearchListener(null);
+        if(ponderer.start(chessBoard, gameHistory.getPositionHistory())) {
+            statusBar.setText(statusBar.getText() + ", pondering " + ponderer.getPonderMove());
+        }
+    }
+
+    private void stopPondering() {
+        if(ponderer != null) {
+            ponderer.stop();
+        }
+    }
+
+    private void recordMove(final Move move) {
+        gameHistory.recordMove(move, chessBoard);
+        gameHistoryPanel.moveMade(gameHistory.getCurrentPly(), move.toString());
+    }
+
+    // going back or forward in the game stops the engine, it starts again on the next move or on Move Now
+    private void showHistoryBoard(final Board board) {
+        cancelThinkTank();
+        chessBoard = board;
+        sourceTile = null;
+        humanMovedPiece = null;
+        statusBar.setText(" ");
+        boardPanel.drawBoard(chessBoard);
+        gameHistoryPanel.showPly(gameHistory.getCurrentPly());
+    }
+
+    private void cancelThinkTank() {
+        if(thinkTank != null) {
+            thinkTank.abort();
+            thinkTank = null;
+        }
+        stopPondering();
+    }
+
+    // searches on a swing worker thread (the search itself fans out to the engine pool),
+    // publishes progress to the status bar and plays the chosen move back on the event dispatch thread
+    private class AIThinkTank extends SwingWorker<Move, SearchInfo> {
+
+        private final Board searchBoard;
+        private final PositionHistory searchHistory;
+        private final AlphaBeta strategy;
+        private final Future<Move> ponderSearch;
+
+        // ponderSearch is the pondering search on searchBoard when the opponent played the expected move
+        AIThinkTank(final Board searchBoard,
+                    final PositionHistory gameHistory,
+                    final AlphaBeta strategy,
+                    final Future<Move> ponderSearch) {
+            this.searchBoard = searchBoard;
+            this.searchHistory = gameHistory.copy();
+            this.strategy = strategy;
+            this.ponderSearch = ponderSearch;
+            this.strategy.setSearchListener(this::publish);
+        }
+
+        void moveNow() {
+            this.strategy.stop();
+        }
+
+        // throws the search away, nothing is played
+        void abort() {
+            this.strategy.stop();
+            cancel(true);
+        }
+
+        @Override
+        protected Move doInBackground() throws InterruptedException, ExecutionException {
+            if(this.ponderSearch != null) {
+                return this.ponderSearch.get();
+            }
+            return this.strategy.execute(this.searchBoard, this.searchHistory);
+        }
+
+        // swing coalesces published chunks, only the newest one is worth showing
+        @Override
+        protected void process(final List<SearchInfo> chunks) {
+            if(isCancelled()) {
+                return;
+            }
+            final SearchInfo info = chunks.get(chunks.size() - 1);
+            statusBar.setText(String.format("%s thinking   depth %d   score %+.2f   nodes %,d   %,d nps   best %s",
+                    searchBoard.currentPlayer(), info.getDepth(), info.getScore() / 100.0,
+                    info.getNodes(), info.getNodesPerSecond(), info.getBestMove()));
+        }
+
+        @Override
+        protected void done() {
+            if(isCancelled() || thinkTank != this || chessBoard != this.searchBoard) {
+                return;
+            }
+            try {
+                final Move bestMove = get();
+                final MoveTransition transition = chessBoard.currentPlayer().makeMove(bestMove);
+                if(transition.getMoveStatus().isDone()) {
+                    chessBoard = transition.getTransitionBoard();
+                    recordMove(bestMove);
+                    statusBar.setText(searchBoard.currentPlayer() + " played " + bestMove);
+                }
+            } catch (final InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+            thinkTank = null;
+            boardPanel.drawBoard(chessBoard);
+            moveMadeUpdate();
+            startPondering();
+        }
+    }
+
     public enum BoardDirection {
         NORMAL {
             @Override
-            List<TilePanel> traverse(final List<TilePanel> boardTiles) {
-                return boardTiles;
+            int traverse(final int tileId) {
+                return tileId;
             }
             @Override
             BoardDirection opposite() { return FLIPPED; }
@@ -139,176 +464,253 @@ public class Table {
         },
         FLIPPED {
             @Override
-            List<TilePanel> traverse(final List<TilePanel> boardTiles) {
-                return Lists.reverse(boardTiles);
+            int traverse(final int tileId) {
+                return BoardUtils.NUM_TILES - 1 - tileId;
             }
             @Override
             BoardDirection opposite() { return NORMAL; }
         };
 
-        abstract List<TilePanel> traverse(final List<TilePanel> boardTiles);
+        // maps a tile to the square it is drawn on, and a drawn square back to its tile
+        abstract int traverse(final int tileId);
         abstract BoardDirection opposite();
     }
 
 
-    // this is visual component representing the board
-    private class BoardPanel extends JPanel{
-        
-        final List<TilePanel> boardTiles;
+    // this is visual component representing the board, painted as one component from the cached sprites.
+    // drawBoard only repaints the squares whose piece, selection or highlight changed since the last call
+    private class BoardPanel extends JComponent {
+
+        private static final int ANIMATION_MILLIS = 150;
+        private static final int ANIMATION_FRAME_MILLIS = 16;
+
+        private Board drawnBoard;
+        private long drawnHighlights;
+        private int drawnSelection;
+
+        private final Timer animationTimer;
+        private Piece animatedPiece;
+        private int animationSource;
+        private int animationDestination;
+        private long animationStart;
+        private Rectangle animationBounds;
+
         // constructor
         BoardPanel() {
-            super(new GridLayout(8, 8));
-            this.boardTiles = new ArrayList<>();
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                final TilePanel tilePanel = new TilePanel(this, i); // this is the BoardPanel object, i = tileId
-                this.boardTiles.add(tilePanel);
-                add(tilePanel);
-            }
+            this.drawnBoard = chessBoard;
+            this.drawnSelection = -1;
+            this.animationTimer = new Timer(ANIMATION_FRAME_MILLIS, e -> stepAnimation());
             setPreferredSize(BOARD_PANEL_DIMENSION);
-            validate();
+            setOpaque(true);
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(final MouseEvent e) {
+                    final int tileId = tileAt(e.getPoint());
+                    if(tileId >= 0) {
+                        tileClicked(e, tileId);
+                    }
+                }
+            });
         }
-        
+
         void drawBoard(final Board board) {
-            removeAll();
-            for(final TilePanel tilePanel : boardDirection.traverse(boardTiles)) {
-                tilePanel.drawTile(board);
-                add(tilePanel);
+            final long highlights = highlightedTiles(board);
+            final int selection = sourceTile != null ? sourceTile.getTileCoordinate() : -1;
+            long dirtyTiles = changedTiles(this.drawnBoard, board) | (highlights ^ this.drawnHighlights);
+            if(selection != this.drawnSelection) {
+                dirtyTiles |= tileMask(selection) | tileMask(this.drawnSelection);
+            }
+            final Move transitionMove = board.getTransitionMove();
+            final boolean followsDrawnBoard = board != this.drawnBoard && transitionMove.getBoard() == this.drawnBoard;
+
+            this.drawnBoard = board;
+            this.drawnHighlights = highlights;
+            this.drawnSelection = selection;
+            if(followsDrawnBoard) {
+                startAnimation(transitionMove, board);
+            } else {
+                stopAnimation();
+            }
+            for(int tileId = 0; tileId < BoardUtils.NUM_TILES; tileId++) {
+                if((dirtyTiles & tileMask(tileId)) != 0) {
+                    repaint(tileBounds(tileId));
+                }
             }
-            validate();
-            repaint();
         }
-        // TODO ??
-    }
 
-    // this is visual component representing the tile
-    private class TilePanel extends JPanel{
-        private final int tileId;
-        
-        TilePanel(final BoardPanel boardPanel, final int tileId) {
-            super(new GridBagLayout());
-            this.tileId = tileId;
-            setPreferredSize(TILE_PANEL_DIMENSION); 
-            assignTileColor();
-            assignTilePieceIcon(chessBoard);
-
-            addMouseListener(new MouseListener() {
-                @Override
-                public void mouseClicked(final MouseEvent e) {
+        // flipping or changing theme touches every square
+        void redrawAll() {
+            this.drawnHighlights = highlightedTiles(this.drawnBoard);
+            repaint();
+        }
 
-                    if(SwingUtilities.isRightMouseButton(e)) {
-                    
-                        sourceTile = null;
-                        humanMovedPiece = null;
-
-                    } else if(SwingUtilities.isLeftMouseButton(e)) {
-                        if (sourceTile == null) {
-                            sourceTile = chessBoard.getTile(tileId);
-                            humanMovedPiece = sourceTile.getPiece();
-                            if(humanMovedPiece == null) {
-                                sourceTile = null;
-                            }
-                            System.out.println("sourceTile is " + sourceTile);
-
-                        } else {
-                            destinationTile = chessBoard.getTile(tileId);
-                            final Move move = Move.MoveFactory.createMove(chessBoard, 
-                                                                          sourceTile.getTileCoordinate(),
-                                                                          destinationTile.getTileCoordinate());
-                            final MoveTransition transition = chessBoard.currentPlayer().makeMove(move);
-                            if(transition.getMoveStatus().isDone()) {
-                                chessBoard = transition.getTransitionBoard();
-                                // TODO add a move that was made to the move log 
-                            }
-
-                            sourceTile = null;
-                            humanMovedPiece = null;
-                        }
-
-                        SwingUtilities.invokeLater(() -> {
-                            boardPanel.drawBoard(chessBoard);
-                            System.out.println("Your mouse clicked on tile " + tileId);
-                            System.out.println("selected piece is" + humanMovedPiece);
-                        });
-                    }
+        @Override
+        protected void paintComponent(final Graphics g) {
+            final Rectangle clip = g.getClipBounds() != null ? g.getClipBounds() : new Rectangle(getSize());
+            g.setColor(getParent() != null ? getParent().getBackground() : Color.LIGHT_GRAY);
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+            for(int tileId = 0; tileId < BoardUtils.NUM_TILES; tileId++) {
+                final Rectangle bounds = tileBounds(tileId);
+                if(!clip.intersects(bounds)) {
+                    continue;
+                }
+                g.setColor(tileColor(tileId));
+                g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+                final Piece piece = this.drawnBoard.getPiece(tileId);
+                if(piece != null && !(this.animatedPiece != null && tileId == this.animationDestination)) {
+                    paintCentered(g, pieceSprites.getPieceIcon(pieceTheme, piece), bounds.x, bounds.y, bounds.width);
+                }
+                if((this.drawnHighlights & tileMask(tileId)) != 0) {
+                    paintCentered(g, pieceSprites.getLegalMoveIcon(), bounds.x, bounds.y, bounds.width);
                 }
+            }
+            if(this.animatedPiece != null) {
+                final Rectangle bounds = currentAnimationBounds();
+                if(clip.intersects(bounds)) {
+                    paintCentered(g, pieceSprites.getPieceIcon(pieceTheme, this.animatedPiece), bounds.x, bounds.y, bounds.width);
+                }
+            }
+        }
 
-                @Override
-                public void mouseEntered(MouseEvent e) {}
+        private void paintCentered(final Graphics g, final Icon icon, final int x, final int y, final int size) {
+            if(icon != null) {
+                icon.paintIcon(this, g, x + (size - icon.getIconWidth()) / 2, y + (size - icon.getIconHeight()) / 2);
+            }
+        }
 
-                 @Override
-                public void mouseExited(MouseEvent e) {}
+        // the moved piece slides from its source to its destination, each frame repaints where it was and where it is
+        private void startAnimation(final Move move, final Board board) {
+            stopAnimation();
+            this.animatedPiece = board.getPiece(move.getDestinationCoordinate());
+            if(this.animatedPiece == null) {
+                return;
+            }
+            this.animationSource = move.getCurrentCoordinate();
+            this.animationDestination = move.getDestinationCoordinate();
+            this.animationStart = System.nanoTime();
+            this.animationBounds = tileBounds(this.animationSource);
+            this.animationTimer.start();
+        }
 
-                @Override
-                public void mousePressed(MouseEvent e) {}
+        private void stepAnimation() {
+            final Rectangle bounds = currentAnimationBounds();
+            repaint(this.animationBounds.union(bounds));
+            this.animationBounds = bounds;
+            if(System.nanoTime() - this.animationStart >= ANIMATION_MILLIS * 1_000_000L) {
+                stopAnimation();
+            }
+        }
 
-                @Override
-                public void mouseReleased(MouseEvent e) {}
-                
-            });
-            validate();
+        private void stopAnimation() {
+            if(this.animatedPiece != null) {
+                this.animationTimer.stop();
+                this.animatedPiece = null;
+                repaint(this.animationBounds.union(tileBounds(this.animationDestination)));
+            }
         }
 
-        void drawTile(final Board board) {
-            assignTileColor();
-            assignTilePieceIcon(board);
-            highlightLegals(board);
-            validate();
-            repaint();
+        private Rectangle currentAnimationBounds() {
+            final double progress = Math.min(1.0, (System.nanoTime() - this.animationStart) / (ANIMATION_MILLIS * 1_000_000.0));
+            final Rectangle from = tileBounds(this.animationSource);
+            final Rectangle to = tileBounds(this.animationDestination);
+            return new Rectangle(from.x + (int) ((to.x - from.x) * progress),
+                                 from.y + (int) ((to.y - from.y) * progress),
+                                 from.width, from.height);
         }
 
-        private void highlightLegals(final Board board) {
-            if(highlightLegalMoves) {
-                for(final Move move : pieceLegalMoves(board)) {
-                    if(move.getDestinationCoordinate() == this.tileId) {
-                        try {
-                            add(new JLabel(new ImageIcon(ImageIO.read(new File("art/misc/green_dot.png")))));
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                    }
+        private int tileSize() {
+            return Math.max(1, Math.min(getWidth(), getHeight()) / BoardUtils.NUM_TILES_PER_ROW);
+        }
+
+        private Rectangle tileBounds(final int tileId) {
+            final int tileSize = tileSize();
+            final int square = boardDirection.traverse(tileId);
+            final int originX = (getWidth() - tileSize * BoardUtils.NUM_TILES_PER_ROW) / 2;
+            final int originY = (getHeight() - tileSize * BoardUtils.NUM_TILES_PER_ROW) / 2;
+            return new Rectangle(originX + (square % BoardUtils.NUM_TILES_PER_ROW) * tileSize,
+                                 originY + (square / BoardUtils.NUM_TILES_PER_ROW) * tileSize,
+                                 tileSize, tileSize);
+        }
+
+        private int tileAt(final Point point) {
+            for(int tileId = 0; tileId < BoardUtils.NUM_TILES; tileId++) {
+                if(tileBounds(tileId).contains(point)) {
+                    return tileId;
                 }
             }
+            return -1;
+        }
+
+        private Color tileColor(final int tileId) {
+            if(BoardUtils.EIGHTH_RANK[tileId] ||
+               BoardUtils.SIXTH_RANK[tileId] ||
+               BoardUtils.FOURTH_RANK[tileId] ||
+               BoardUtils.SECOND_RANK[tileId]) {
+                return tileId % 2 == 0 ? lightTileColor : darkTileColor;
+            }
+            return tileId % 2 != 0 ? lightTileColor : darkTileColor;
+        }
+
+        private long highlightedTiles(final Board board) {
+            if(highlightLegalMoves && humanMovedPiece != null) {
+                return board.legalDestinations(humanMovedPiece.getPiecePosition());
+            }
+            return 0L;
         }
 
-        private Collection<Move> pieceLegalMoves(final Board board) {
-            if(humanMovedPiece != null && humanMovedPiece.getPieceAlliance() == board.currentPlayer().getAlliance()) {
-                return humanMovedPiece.calculateLegalMoves(board);
+        // pieces that did not move are shared between consecutive boards, so a reference check finds every change
+        private long changedTiles(final Board previous, final Board current) {
+            long changed = 0L;
+            for(int tileId = 0; tileId < BoardUtils.NUM_TILES; tileId++) {
+                if(previous.getPiece(tileId) != current.getPiece(tileId)) {
+                    changed |= tileMask(tileId);
+                }
             }
-            return Collections.emptyList();
+            return changed;
+        }
+
+        private long tileMask(final int tileId) {
+            return tileId >= 0 ? 1L << tileId : 0L;
         }
+    }
+
+    private void tileClicked(final MouseEvent e, final int tileId) {
+        if(SwingUtilities.isRightMouseButton(e)) {
 
-        private void assignTilePieceIcon(final Board board) {
-            this.removeAll();
-            if(board.getTile(this.tileId).isTileOccupied()) {
-                try {
-                    final BufferedImage image =
-                            ImageIO.read(new File(defaultPieceImagesPath +
-                                    board.getTile(this.tileId).getPiece().getPieceAlliance().toString().substring(0, 1) +
-                                    board.getTile(this.tileId).getPiece().toString() + ".gif"));
+            sourceTile = null;
+            humanMovedPiece = null;
 
-                    add(new JLabel(new ImageIcon(image)));
-                } catch (Exception e) {
-                    e.printStackTrace();
+        } else if(SwingUtilities.isLeftMouseButton(e)) {
+            if(isEngineThinking() || isComputerPlayer(chessBoard.currentPlayer())) {
+                return;
+            }
+            if (sourceTile == null) {
+                sourceTile = chessBoard.getTile(tileId);
+                humanMovedPiece = sourceTile.getPiece();
+                if(humanMovedPiece == null) {
+                    sourceTile = null;
+                }
+                System.out.println("sourceTile is " + sourceTile);
+
+            } else {
+                destinationTile = chessBoard.getTile(tileId);
+                final Move move = Move.MoveFactory.createMove(chessBoard, 
+                                                              sourceTile.getTileCoordinate(),
+                                                              destinationTile.getTileCoordinate());
+                final MoveTransition transition = chessBoard.currentPlayer().makeMove(move);
+                sourceTile = null;
+                humanMovedPiece = null;
+                if(transition.getMoveStatus().isDone()) {
+                    chessBoard = transition.getTransitionBoard();
+                    recordMove(move);
+                    boardPanel.drawBoard(chessBoard);
+                    // only a move played resolves the ponder search, selecting a piece leaves it running
+                    moveMadeUpdate();
+                    return;
                 }
             }
         }
-    
-        private void assignTileColor() {
-            if(BoardUtils.EIGHTH_RANK[this.tileId] ||
-               BoardUtils.SIXTH_RANK[this.tileId] ||
-               BoardUtils.FOURTH_RANK[this.tileId] ||
-               BoardUtils.SECOND_RANK[this.tileId]) {
-                setBackground(this.tileId % 2 == 0 ? lightTileColor : darkTileColor);
-                // lightTileColor and darkTileColor are static final fields
-                // you need to define them in the Table class
-                // like so: private static final Color lightTileColor = Color.decode("#FFFACD");
-            } else if(BoardUtils.SEVENTH_RANK[this.tileId] ||
-                      BoardUtils.FIFTH_RANK[this.tileId] ||
-                      BoardUtils.THIRD_RANK[this.tileId] ||
-                      BoardUtils.FIRST_RANK[this.tileId]) {
-                setBackground(this.tileId % 2 != 0 ? lightTileColor : darkTileColor);
-            }
-        }
-    }    
+        boardPanel.drawBoard(chessBoard);
+    }
 }
  